@@ -0,0 +1,13 @@
+package com.miyabi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * Carga los valores por defecto de la aplicación (miyabi.properties).
+ * Cualquier valor definido en application.properties los reemplaza.
+ */
+@Configuration
+@PropertySource("classpath:miyabi.properties")
+public class MiyabiPropertiesConfig {
+}
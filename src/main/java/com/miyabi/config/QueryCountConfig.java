@@ -0,0 +1,40 @@
+package com.miyabi.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Conteo de sentencias SQL por petición HTTP (ver QueryCountFilter).
+ * Se activa con "miyabi.query-count.enabled=true": lo hacen los perfiles "dev" y "test";
+ * en producción queda apagado para no retener las respuestas en memoria.
+ */
+@Configuration
+@ConditionalOnProperty(name = "miyabi.query-count.enabled", havingValue = "true")
+public class QueryCountConfig {
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    /**
+     * Registra el contador en Hibernate para que vea cada sentencia antes de prepararla.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer(SqlStatementCounter counter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+    }
+
+    @Bean
+    public QueryCountFilter queryCountFilter(SqlStatementCounter counter,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${miyabi.query-count.warn-threshold:10}") int warnThreshold) {
+        return new QueryCountFilter(counter, meterRegistry, warnThreshold);
+    }
+}
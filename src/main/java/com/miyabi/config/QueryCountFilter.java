@@ -0,0 +1,249 @@
+package com.miyabi.config;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Informa cuántas sentencias SQL ejecutó cada petición HTTP (solo en desarrollo y pruebas).
+ *
+ * - Cabecera "X-SQL-Statements" en la respuesta: se ve en las herramientas del navegador y
+ *   las pruebas la usan para fijar un máximo de consultas por endpoint.
+ * - Métrica "miyabi.sql.statements" por ruta (/actuator/metrics/miyabi.sql.statements).
+ * - Advertencia en el log si una petición supera el umbral configurado (posible N+1).
+ *
+ * La vista Thymeleaf puede cargar relaciones LAZY mientras se escribe la respuesta, por eso el
+ * cuerpo se retiene hasta el final y la cabecera se agrega con el conteo completo.
+ * Las respuestas asíncronas (Ej. StreamingResponseBody de boletas PDF y exportaciones ZIP) no se
+ * retienen: el cuerpo pasa directo al cliente y la cabecera lleva las sentencias del primer
+ * despacho, que es donde se hacen las consultas. La métrica suma las de todos los despachos.
+ */
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-SQL-Statements";
+
+    // Sentencias de los despachos anteriores de la misma petición (asíncronas)
+    private static final String PREVIOUS_STATEMENTS = QueryCountFilter.class.getName() + ".statements";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    private final SqlStatementCounter counter;
+    private final MeterRegistry meterRegistry;
+    private final int warnThreshold;
+
+    public QueryCountFilter(SqlStatementCounter counter, MeterRegistry meterRegistry, int warnThreshold) {
+        this.counter = counter;
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Los streams SSE no terminan nunca: no se pueden retener ni contar
+        String accept = request.getHeader("Accept");
+        return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // Las respuestas asíncronas se escriben en un segundo despacho: ahí se cierra el conteo
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StreamingAwareResponse wrapper = WebUtils.getNativeResponse(response, StreamingAwareResponse.class);
+        if (wrapper == null) {
+            wrapper = new StreamingAwareResponse(response);
+        }
+        // Cada despacho cuenta en su propio hilo; el total se acumula en la petición
+        counter.reset();
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            Object previous = request.getAttribute(PREVIOUS_STATEMENTS);
+            int statements = counter.count() + (previous instanceof Integer count ? count : 0);
+            if (!wrapper.isCommitted()) {
+                wrapper.setHeader(HEADER, String.valueOf(statements));
+            }
+            if (isAsyncStarted(request)) {
+                // El cuerpo se escribe después, desde otro hilo: se envía sin retenerlo en memoria
+                request.setAttribute(PREVIOUS_STATEMENTS, statements);
+                wrapper.copyBodyToResponse();
+                wrapper.startStreaming();
+            } else {
+                wrapper.copyBodyToResponse();
+                record(request, statements);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int statements) {
+        // Ruta con variables (Ej. /api/reservations/guest/{idGuest}) para no crear una métrica por ID
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("miyabi.sql.statements")
+                .description("Sentencias SQL ejecutadas por petición HTTP")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statements);
+
+        if (statements > warnThreshold) {
+            log.warn("{} {} ejecutó {} sentencias SQL (umbral {}): posible N+1",
+                    request.getMethod(), request.getRequestURI(), statements, warnThreshold);
+        }
+    }
+
+    /**
+     * Retiene el cuerpo hasta el final del despacho (ContentCachingResponseWrapper), salvo que la
+     * respuesta pase a ser asíncrona: desde ahí todo va directo a la respuesta real. El flujo de
+     * salida decide en cada escritura, porque StreamingResponseBody lo obtiene antes de que empiece
+     * el procesamiento asíncrono.
+     */
+    private static final class StreamingAwareResponse extends ContentCachingResponseWrapper {
+
+        private volatile boolean streaming;
+
+        StreamingAwareResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        /**
+         * Pasa a enviar sin retener. El tipo y el largo del contenido que la clase base guardó para
+         * copyBodyToResponse() se pasan a la respuesta real.
+         */
+        void startStreaming() {
+            String contentType = super.getContentType();
+            String contentLength = super.getHeader(HttpHeaders.CONTENT_LENGTH);
+            streaming = true;
+            if (contentType != null) {
+                raw().setContentType(contentType);
+            }
+            if (contentLength != null) {
+                raw().setHeader(HttpHeaders.CONTENT_LENGTH, contentLength);
+            }
+        }
+
+        private HttpServletResponse raw() {
+            return (HttpServletResponse) getResponse();
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            ServletOutputStream buffered = super.getOutputStream();
+            return new ServletOutputStream() {
+                private ServletOutputStream target() throws IOException {
+                    return streaming ? raw().getOutputStream() : buffered;
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    target().write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    target().write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    target().flush();
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return streaming ? raw().getWriter() : super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (streaming) {
+                raw().flushBuffer();
+            }
+        }
+
+        @Override
+        public void setContentType(String type) {
+            if (streaming) {
+                raw().setContentType(type);
+            } else {
+                super.setContentType(type);
+            }
+        }
+
+        @Override
+        public String getContentType() {
+            return streaming ? raw().getContentType() : super.getContentType();
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (streaming) {
+                raw().setContentLengthLong(len);
+            } else {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (streaming) {
+                raw().setHeader(name, value);
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (streaming) {
+                raw().addHeader(name, value);
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return streaming ? raw().getHeader(name) : super.getHeader(name);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.miyabi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled) de la aplicación,
+ * como la actualización incremental del índice de disponibilidad.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
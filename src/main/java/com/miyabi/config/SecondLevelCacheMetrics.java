@@ -0,0 +1,56 @@
+package com.miyabi.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Métricas de la caché de segundo nivel de Hibernate (/actuator/metrics/miyabi.cache.hit.ratio).
+ *
+ * - miyabi.cache.hit.ratio{region=...}: aciertos / (aciertos + fallos) de cada región
+ *   (una por entidad o colección en caché, Ej. com.miyabi.models.RoomType).
+ * - miyabi.cache.hit.ratio{region=query}: lo mismo para la caché de consultas (listados).
+ *
+ * Un valor bajo de forma sostenida indica que esa región se invalida demasiado seguido
+ * o que la lectura no está pasando por la caché.
+ */
+@Component
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            Gauge.builder("miyabi.cache.hit.ratio", statistics, s -> regionRatio(s, region))
+                    .description("Proporción de aciertos de la caché de segundo nivel")
+                    .tag("region", region)
+                    .register(registry);
+        }
+        Gauge.builder("miyabi.cache.hit.ratio", statistics,
+                        s -> ratio(s.getQueryCacheHitCount(), s.getQueryCacheMissCount()))
+                .description("Proporción de aciertos de la caché de segundo nivel")
+                .tag("region", "query")
+                .register(registry);
+    }
+
+    private static double regionRatio(Statistics statistics, String region) {
+        CacheRegionStatistics stats = statistics.getDomainDataRegionStatistics(region);
+        return stats != null ? ratio(stats.getHitCount(), stats.getMissCount()) : 0;
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
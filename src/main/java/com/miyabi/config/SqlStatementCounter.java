@@ -0,0 +1,36 @@
+package com.miyabi.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo actual.
+ *
+ * Cada petición HTTP se atiende completa en un mismo hilo (controlador + vista Thymeleaf con
+ * Open Session In View), así que el QueryCountFilter reinicia el conteo al empezar y lo lee
+ * al terminar. Las tareas de fondo (índice de disponibilidad, limpiezas programadas) corren
+ * en otros hilos y no alteran el conteo de la petición.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private final ThreadLocal<int[]> count = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        count.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Reinicia el conteo del hilo actual.
+     */
+    public void reset() {
+        count.get()[0] = 0;
+    }
+
+    /**
+     * Sentencias preparadas en el hilo actual desde el último reset().
+     */
+    public int count() {
+        return count.get()[0];
+    }
+}
@@ -1,11 +1,11 @@
 package com.miyabi.controller;
 
-import java.math.BigDecimal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import com.miyabi.dto.DashboardStatsDTO;
 import com.miyabi.service.RoomService;
 import com.miyabi.service.UserService;
 import com.miyabi.service.RoomTypeService;
@@ -80,17 +80,14 @@ public class AdminViewController {
      */
     @GetMapping("/dashboard")
     public String viewDashboard(Model model) {
-        // 1. Calcula las ganancias totales sumando los pagos de las reservas
-        BigDecimal totalRevenue = reservationRepository.sumTotalRevenue();
-        // Si no hay ganancias (null), envía un 0 por defecto para evitar errores en la vista
-        model.addAttribute("totalRevenue", totalRevenue != null ? totalRevenue : 0);
+        // 1. Ganancias totales, reservas pendientes/confirmadas y total de habitaciones (una sola consulta)
+        DashboardStatsDTO stats = reservationRepository.getDashboardStats();
+        model.addAttribute("totalRevenue", stats.totalRevenue());
+        model.addAttribute("pendingCount", stats.pendingCount());
+        model.addAttribute("activeCount", stats.activeCount());
+        model.addAttribute("totalRooms", stats.totalRooms());
         
-        // 2. Calcula métricas rápidas: Reservas pendientes, confirmadas y total de habitaciones
-        model.addAttribute("pendingCount", reservationRepository.countByState("Pending"));
-        model.addAttribute("activeCount", reservationRepository.countByState("Confirmed"));
-        model.addAttribute("totalRooms", roomService.findAll().size());
-        
-        // 3. Obtiene las últimas 5 reservas (ordenadas de forma descendente por ID) para la tabla de actividad reciente
+        // 2. Obtiene las últimas 5 reservas (ordenadas de forma descendente por ID) para la tabla de actividad reciente
         model.addAttribute("recentReservations", reservationRepository.findTop5ByOrderByReservationIdDesc());
         
         // Retorna la vista templates/admin/dashboard.html con todos los datos inyectados
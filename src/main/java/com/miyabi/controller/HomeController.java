@@ -62,7 +62,7 @@ public class HomeController {
         // Consulta todos los tipos de habitaciones en la base de datos (Japonesa, Zen, etc.)
         // y los envía a la vista HTML bajo el nombre de variable "roomTypes".
         // Thymeleaf usará esta variable para dibujar las tarjetas de habitaciones dinámicamente.
-        model.addAttribute("roomTypes", roomTypeService.findAll());
+        model.addAttribute("roomTypes", roomTypeService.findAllWithImages());
         return "pages/Rooms"; 
     }
     
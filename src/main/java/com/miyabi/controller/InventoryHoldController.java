@@ -0,0 +1,61 @@
+package com.miyabi.controller;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.miyabi.dto.InventoryHoldDTO;
+import com.miyabi.service.InventoryHoldService;
+
+/**
+ * Controlador REST para las retenciones temporales de habitaciones.
+ * El widget del carrito retiene la habitación al elegirla y la libera al quitarla;
+ * el checkout envía el holdId al confirmar para convertir la retención en reserva.
+ */
+@RestController
+@RequestMapping("/api/holds")
+public class InventoryHoldController {
+
+    private final InventoryHoldService inventoryHoldService;
+
+    /**
+     * Constructor para la Inyección de Dependencias.
+     */
+    public InventoryHoldController(InventoryHoldService inventoryHoldService) {
+        this.inventoryHoldService = inventoryHoldService;
+    }
+
+    /**
+     * Endpoint POST: /api/holds
+     * Retiene una habitación por unos minutos. Cuerpo: { "roomId": 3, "checkIn": "2026-03-01", "checkOut": "2026-03-04" }
+     * @return HTTP 201 con la retención, o HTTP 409 si la habitación ya no está libre en esas fechas.
+     */
+    @PostMapping
+    public ResponseEntity<?> placeHold(@RequestBody Map<String, Object> payload) {
+        try {
+            Integer roomId = (Integer) payload.get("roomId");
+            LocalDate checkIn = LocalDate.parse((String) payload.get("checkIn"));
+            LocalDate checkOut = LocalDate.parse((String) payload.get("checkOut"));
+
+            InventoryHoldDTO hold = inventoryHoldService.place(roomId, checkIn, checkOut);
+            return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Endpoint DELETE: /api/holds/{holdId}
+     * Libera una retención antes de que venza (el huésped quitó la habitación del carrito).
+     */
+    @DeleteMapping("/{holdId}")
+    public ResponseEntity<Void> releaseHold(@PathVariable String holdId) {
+        if (!inventoryHoldService.release(holdId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
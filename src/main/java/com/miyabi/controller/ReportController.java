@@ -1,68 +1,233 @@
 package com.miyabi.controller;
 
+import com.miyabi.dto.ReceiptJobDTO;
+import com.miyabi.service.ReceiptExportService;
+import com.miyabi.service.ReceiptRenderQueue;
 import com.miyabi.service.ReportService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controlador REST encargado de la generación y descarga de reportes y comprobantes.
  * Se encarga de recibir la petición del cliente y devolver el archivo PDF (la boleta) 
  * generado por JasperReports.
+ *
+ * Hay dos formas de obtener la boleta:
+ * - Asíncrona (recomendada, la usa la intranet): POST /{id}/jobs devuelve un ticket, el PDF se genera
+ *   en la cola ReceiptRenderQueue (hilos propios, no los de Tomcat) y se descarga cuando está listo.
+ * - Directa: GET /generate/{id} genera el PDF mientras lo envía.
+ *
+ * Para contabilidad, GET /export devuelve en un ZIP todas las boletas de un rango de fechas.
  */
 @RestController // Indica que es una API REST. Las respuestas no son vistas HTML, sino datos puros (o archivos binarios en este caso).
 @RequestMapping("/api/receipts") // Ruta base para los comprobantes de pago.
 public class ReportController {
 
-    // Dependencia del servicio que contiene toda la lógica pesada de JasperReports y consultas SQL.
+    // Dependencia del servicio que contiene toda la lógica pesada de JasperReports y consultas SQL,
+    // la cola que ejecuta esa lógica en segundo plano y la exportación masiva.
     private final ReportService reportService;
+    private final ReceiptRenderQueue receiptRenderQueue;
+    private final ReceiptExportService receiptExportService;
 
     /**
      * Constructor para la Inyección de Dependencias.
      * (Es una mejor práctica usar el constructor en lugar de la anotación @Autowired
      * porque facilita las pruebas unitarias y asegura que la dependencia no sea nula).
      */
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, ReceiptRenderQueue receiptRenderQueue,
+                            ReceiptExportService receiptExportService) {
         this.reportService = reportService;
+        this.receiptRenderQueue = receiptRenderQueue;
+        this.receiptExportService = receiptExportService;
+    }
+
+    /**
+     * Endpoint POST: /api/receipts/{id}/jobs
+     * Pide la boleta de una reserva a la cola de generación y responde de inmediato.
+     * @return HTTP 202 con el ticket (cabecera Location = URL de estado), o HTTP 429 con Retry-After
+     *         si la cola está llena.
+     */
+    @PostMapping("/{id}/jobs")
+    public ResponseEntity<ReceiptJobDTO> requestReceipt(@PathVariable Integer id) {
+        ReceiptRenderQueue.Job job = receiptRenderQueue.submit(id);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(receiptRenderQueue.retryAfterSeconds()))
+                    .build();
+        }
+        ReceiptJobDTO body = toDto(job);
+        return ResponseEntity.accepted()
+                .location(URI.create(body.statusUrl()))
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+
+    /**
+     * Endpoint GET: /api/receipts/jobs/{ticket}
+     * Estado de una boleta pedida. Mientras no esté lista se incluye Retry-After para espaciar la consulta.
+     * @return HTTP 200 con el estado, o HTTP 404 si el ticket no existe o ya venció.
+     */
+    @GetMapping("/jobs/{ticket}")
+    public ResponseEntity<ReceiptJobDTO> getReceiptJob(@PathVariable String ticket) {
+        ReceiptRenderQueue.Job job = receiptRenderQueue.find(ticket);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (isPending(job)) {
+            response.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return response.body(toDto(job));
+    }
+
+    /**
+     * Endpoint GET: /api/receipts/jobs/{ticket}/pdf
+     * Descarga la boleta generada por la cola.
+     * Se envía el archivo que generó la cola, sin volver a leer los datos ni generar nada en el hilo
+     * de la petición.
+     * @return HTTP 200 con el PDF; 202 si todavía se está generando (Location = URL de estado);
+     *         404 si el ticket no existe o ya venció; 410 si el archivo ya no está (la caché lo descartó
+     *         o la reserva cambió: hay que pedir la boleta de nuevo); 500 si la generación falló
+     *         (el detalle está en la URL de estado).
+     */
+    @GetMapping("/jobs/{ticket}/pdf")
+    public ResponseEntity<StreamingResponseBody> downloadReceiptJob(@PathVariable String ticket) throws IOException {
+        ReceiptRenderQueue.Job job = receiptRenderQueue.find(ticket);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (isPending(job)) {
+            return ResponseEntity.accepted()
+                    .location(URI.create(toDto(job).statusUrl()))
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+        if (job.getStatus() == ReceiptRenderQueue.Status.FAILED) {
+            return ResponseEntity.internalServerError().location(URI.create(toDto(job).statusUrl())).build();
+        }
+        // La cola dejó la boleta en la caché en disco: se abre ya, así sigue disponible aunque la caché la borre
+        FileChannel file;
+        try {
+            file = FileChannel.open(job.getFile(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        return ResponseEntity.ok()
+                .headers(pdfHeaders(job.getReservationId()))
+                .contentLength(file.size())
+                .body(out -> {
+                    try (file) {
+                        ReportService.transfer(file, out);
+                    }
+                });
     }
 
     /**
      * Endpoint GET: /api/receipts/generate/{id}
      * Descarga la boleta de pago de una reserva específica en formato PDF.
+     * Los datos se leen en el hilo de la petición; el PDF se escribe después, por partes y sin
+     * Content-Length (Transfer-Encoding: chunked), con StreamingResponseBody: sale de la caché en disco
+     * (ReceiptCache) si ya se generó con los mismos datos, o JasperReports lo exporta directamente a la respuesta.
+     * Así ninguna descarga retiene el PDF completo en el heap y el primer byte sale antes.
      * * @param id El ID de la reserva, extraído de la URL.
-     * @return Un ResponseEntity que contiene los bytes del PDF y las cabeceras HTTP configuradas para forzar la descarga.
      */
     @GetMapping("/generate/{id}")
-    public ResponseEntity<byte[]> downloadReceipt(@PathVariable Integer id) {
+    public ResponseEntity<StreamingResponseBody> downloadReceipt(@PathVariable Integer id) {
+        return streamReceipt(id);
+    }
+
+    /**
+     * Endpoint GET: /api/receipts/export?from=2026-09-01&to=2026-09-30&state=Check-out
+     * Descarga en un ZIP las boletas de las reservas con salida en el rango y/o en el estado indicado
+     * (cierre de mes de contabilidad). El ZIP se escribe por partes mientras las boletas se generan
+     * en paralelo (ver ReceiptExportService).
+     * @return HTTP 200 con el ZIP; 400 si no se indica ningún filtro o el rango está invertido.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReceipts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String state) {
+        // Sin filtros se exportaría todo el historial: se exige al menos uno
+        boolean noFilter = from == null && to == null && (state == null || state.isBlank());
+        if (noFilter || (from != null && to != null && from.isAfter(to))) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<Integer> reservationIds = receiptExportService.findReservationIds(from, to,
+                state == null || state.isBlank() ? null : state);
+        String fileName = "Receipts_" + (from != null ? from : "inicio") + "_" + (to != null ? to : "hoy") + ".zip";
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(out -> receiptExportService.writeZip(reservationIds, out));
+    }
+
+    /**
+     * Respuesta HTTP 200 que escribe la boleta directamente en la respuesta.
+     */
+    private ResponseEntity<StreamingResponseBody> streamReceipt(Integer reservationId) {
+        ReportService.Receipt receipt;
         try {
-            // 1. Llama al método del ReportService que compila el .jrxml y lo llena con los datos de SQL Server.
-            // Devuelve el PDF "crudo" en forma de un arreglo de bytes.
-            byte[] pdfBytes = reportService.generateReceiptPDF(id);
-
-            // 2. Configuración de las cabeceras HTTP (Headers)
-            HttpHeaders headers = new HttpHeaders();
-            
-            // Le indica al navegador del usuario que el contenido que está recibiendo es un archivo PDF.
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            
-            // Le indica al navegador que debe descargar el archivo (attachment) en lugar de intentar abrirlo en una pestaña,
-            // y le asigna un nombre por defecto al archivo descargado.
-            headers.setContentDispositionFormData("attachment", "Receipt_Reservation_" + id + ".pdf");
-
-            // 3. Retorna la respuesta HTTP 200 (OK) con las cabeceras configuradas y el PDF en el cuerpo (body).
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(pdfBytes);
-                    
+            // 1. Lee los datos de la boleta (y su huella) antes de empezar a responder.
+            receipt = reportService.prepareReceipt(reservationId);
         } catch (Exception e) {
-            // Si JasperReports falla o la consulta SQL da error, se imprime en la consola del servidor
+            // Si la consulta SQL da error o la reserva no existe, se imprime en la consola del servidor
             // y se le devuelve al cliente un error HTTP 500 (Internal Server Error).
             e.printStackTrace();
             return ResponseEntity.internalServerError().build();
         }
+
+        // 2. Envía las cabeceras de descarga; el PDF se escribe en un hilo de Spring MVC, no en el de Tomcat.
+        return ResponseEntity.ok()
+                .headers(pdfHeaders(reservationId))
+                .body(out -> reportService.writeReceipt(receipt, out));
+    }
+
+    /**
+     * Cabeceras de un PDF descargable.
+     */
+    private static HttpHeaders pdfHeaders(Integer reservationId) {
+        HttpHeaders headers = new HttpHeaders();
+        
+        // Le indica al navegador del usuario que el contenido que está recibiendo es un archivo PDF.
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        
+        // Le indica al navegador que debe descargar el archivo (attachment) en lugar de intentar abrirlo en una pestaña,
+        // y le asigna un nombre por defecto al archivo descargado.
+        headers.setContentDispositionFormData("attachment", "Receipt_Reservation_" + reservationId + ".pdf");
+        return headers;
+    }
+
+    private static boolean isPending(ReceiptRenderQueue.Job job) {
+        return job.getStatus() == ReceiptRenderQueue.Status.QUEUED
+                || job.getStatus() == ReceiptRenderQueue.Status.RENDERING;
+    }
+
+    private static ReceiptJobDTO toDto(ReceiptRenderQueue.Job job) {
+        String statusUrl = "/api/receipts/jobs/" + job.getTicket();
+        boolean ready = job.getStatus() == ReceiptRenderQueue.Status.READY;
+        return new ReceiptJobDTO(job.getTicket(), job.getReservationId(), job.getStatus().name(), statusUrl,
+                ready ? statusUrl + "/pdf" : null, job.getError());
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,30 @@
 package com.miyabi.controller;
 
-import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.YearMonth;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.miyabi.dto.GroupBookingRequestDTO;
+import com.miyabi.dto.MonthAvailabilityDTO;
+import com.miyabi.dto.ReservationSummaryDTO;
 import com.miyabi.models.Payments;
 import com.miyabi.models.Reservation;
 import com.miyabi.repository.PaymentsRepository;
+import com.miyabi.service.AvailabilityBroadcaster;
+import com.miyabi.service.AvailabilityService;
+import com.miyabi.service.GroupBookingService;
+import com.miyabi.service.IdempotencyService;
 import com.miyabi.service.ReservationService;
 
 /**
@@ -24,84 +36,85 @@ import com.miyabi.service.ReservationService;
 @RequestMapping("/api/reservations") // Ruta base para los endpoints de reservas.
 public class ReservationController {
 
-    // Dependencias inyectadas: El servicio para lógica de reservas y el repositorio para guardar pagos.
+    // Dependencias inyectadas: El servicio para lógica de reservas, el repositorio para guardar pagos,
+    // el motor de disponibilidad para el calendario, el difusor de cambios en vivo,
+    // el registro de claves de idempotencia del checkout y las reservas grupales.
     private final ReservationService reservationService;
     private final PaymentsRepository paymentsRepository;
+    private final AvailabilityService availabilityService;
+    private final AvailabilityBroadcaster availabilityBroadcaster;
+    private final IdempotencyService idempotencyService;
+    private final GroupBookingService groupBookingService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Constructor para la Inyección de Dependencias.
      */
-    public ReservationController(ReservationService reservationService, PaymentsRepository paymentsRepository) {
+    public ReservationController(ReservationService reservationService, PaymentsRepository paymentsRepository,
+                                 AvailabilityService availabilityService,
+                                 AvailabilityBroadcaster availabilityBroadcaster,
+                                 IdempotencyService idempotencyService, GroupBookingService groupBookingService,
+                                 ObjectMapper objectMapper) {
         this.reservationService = reservationService;
         this.paymentsRepository = paymentsRepository;
+        this.availabilityService = availabilityService;
+        this.availabilityBroadcaster = availabilityBroadcaster;
+        this.idempotencyService = idempotencyService;
+        this.groupBookingService = groupBookingService;
+        this.objectMapper = objectMapper;
     }
     
     /**
      * Endpoint GET: /api/reservations/availability
-     * Devuelve la disponibilidad y precios base para un mes y año en específico.
-     * (Nota técnica: Actualmente devuelve datos simulados (mock) para pruebas de frontend.
-     * En el futuro, aquí se consultaría la base de datos).
+     * Devuelve, para cada día del mes, las habitaciones libres y el precio más barato disponible.
+     * La respuesta es columnar (arreglos de días, cantidades y precios) para que el widget
+     * de reservas pueda navegar entre meses rápidamente.
      */
     @GetMapping("/availability")
-    public ResponseEntity<Map<String, Object>> getMonthAvailability(@RequestParam int year, @RequestParam int month) {
-
-        Map<String, Object> mockResponse = new HashMap<>();
-        
-        Map<String, Object> dayInfo = new HashMap<>();
-        dayInfo.put("available", true);
-        dayInfo.put("minPrice", 165000);
-        
-        mockResponse.put("2026-02-25", dayInfo);
-        
-        return ResponseEntity.ok(mockResponse);
+    public ResponseEntity<MonthAvailabilityDTO> getMonthAvailability(@RequestParam int year, @RequestParam int month) {
+        if (month < 1 || month > 12) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(availabilityService.getMonthAvailability(YearMonth.of(year, month)));
     }
 
     /**
-     * Endpoint GET: /api/reservations/unavailable-dates
-     * Algoritmo que calcula qué fechas están 100% ocupadas para bloquearlas en el calendario del frontend.
-     * @return Lista de fechas (en formato String) que ya no tienen habitaciones disponibles.
+     * Endpoint GET: /api/reservations/availability/stream
+     * Stream SSE (Server-Sent Events) con los cambios de disponibilidad en vivo: cada evento
+     * "availability" trae una lista de { date, typeId, free } con las noches que cambiaron.
+     * Un evento "resync" indica que se perdieron cambios y hay que volver a consultar todo.
      */
-    @GetMapping("/unavailable-dates")
-    public ResponseEntity<List<String>> getUnavailableDates() {
-        // 1. Obtiene todas las reservas que NO estén canceladas
-        List<Reservation> activeReservations = reservationService.findAll().stream()
-                .filter(r -> !"Cancelled".equalsIgnoreCase(r.getState()))
-                .collect(Collectors.toList());
-
-        // Mapa para contar cuántas habitaciones están ocupadas en cada fecha
-        Map<LocalDate, Integer> dailyOccupancy = new HashMap<>();
-
-        // 2. Recorre cada reserva y suma +1 a cada día comprendido entre el check-in y el check-out
-        for (Reservation res : activeReservations) {
-            LocalDate current = res.getEntryDate();
-
-            while (current.isBefore(res.getDepartureDate())) {
-                dailyOccupancy.put(current, dailyOccupancy.getOrDefault(current, 0) + 1);
-                current = current.plusDays(1);
-            }
-        }
-
-        // 3. Verifica contra el inventario total del hotel (6 habitaciones en este caso)
-        int TOTAL_ROOMS = 6;
-        List<String> unavailableDates = new ArrayList<>();
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability() {
+        return availabilityBroadcaster.subscribe();
+    }
 
-        // Si una fecha tiene 6 o más ocupaciones, se agrega a la lista de bloqueadas
-        for (Map.Entry<LocalDate, Integer> entry : dailyOccupancy.entrySet()) {
-            if (entry.getValue() >= TOTAL_ROOMS) {
-                unavailableDates.add(entry.getKey().toString()); 
-            }
+    /**
+     * Endpoint GET: /api/reservations/unavailable-dates?typeId=2
+     * Devuelve qué fechas están 100% ocupadas para bloquearlas en el calendario del frontend.
+     * Con typeId se evalúa solo ese tipo de habitación (ej. la Suite se agota aunque queden
+     * habitaciones más baratas); sin él, el hotel completo. La capacidad sale de la tabla "rooms"
+     * (habitaciones vendibles) y la ocupación del índice en memoria.
+     * @return Lista de fechas (en formato String) que ya no tienen habitaciones disponibles,
+     *         o HTTP 404 si el tipo de habitación no tiene habitaciones a la venta.
+     */
+    @GetMapping("/unavailable-dates")
+    public ResponseEntity<List<String>> getUnavailableDates(@RequestParam(required = false) Integer typeId) {
+        List<String> unavailableDates = availabilityService.findUnavailableDates(typeId);
+        if (unavailableDates == null) {
+            return ResponseEntity.notFound().build();
         }
-
         return ResponseEntity.ok(unavailableDates);
     }
 
     /**
      * Endpoint GET: /api/reservations
      * Obtiene todas las reservas históricas y actuales del sistema.
+     * Devuelve solo las columnas del listado (ReservationSummaryDTO), no las entidades completas.
      */
     @GetMapping
-    public List<Reservation> getAllReservations() {
-        return reservationService.findAll();
+    public List<ReservationSummaryDTO> getAllReservations() {
+        return reservationService.findAllSummaries();
     }
 
     /**
@@ -110,8 +123,8 @@ public class ReservationController {
      * * FUNDAMENTAL para poblar dinámicamente la vista "Mis Reservas" (MyReservations.html).
      */
     @GetMapping("/guest/{idGuest}")
-    public List<Reservation> getReservationsByGuest(@PathVariable Integer idGuest) {
-        return reservationService.findByGuest_IdGuest(idGuest);
+    public List<ReservationSummaryDTO> getReservationsByGuest(@PathVariable Integer idGuest) {
+        return reservationService.findSummariesByGuest(idGuest);
     }
 
     /**
@@ -127,11 +140,70 @@ public class ReservationController {
      * Endpoint POST: /api/reservations/confirm
      * Método principal del Checkout. Recibe el JSON completo desde el frontend, 
      * guarda la reserva y automáticamente registra el pago inicial.
+     *
+     * Si el cliente envía la cabecera "Idempotency-Key" (ej. apps móviles que reintentan tras un timeout),
+     * los reintentos con la misma clave reciben la respuesta original (marcada con "Idempotent-Replayed: true")
+     * sin crear otra reserva ni otro pago.
+     * @param idempotencyKey Clave única por intento de compra (opcional).
      * @param payload Mapa JSON con los datos del huésped, fechas, habitación y método de pago.
      * @return Respuesta confirmando el éxito de la operación junto con el código generado (ej. RES-2026-0005).
      */
     @PostMapping("/confirm")
-    public ResponseEntity<?> confirmBooking(@RequestBody Map<String, Object> payload) {
+    public ResponseEntity<?> confirmBooking(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                            @RequestBody Map<String, Object> payload) {
+        return idempotent(idempotencyKey, payload, () -> confirm(payload));
+    }
+
+    /**
+     * Endpoint POST: /api/reservations/group
+     * Reserva grupal (empresas, eventos): varias habitaciones para las mismas fechas en una sola llamada,
+     * pedidas por número ({ roomId }) o por tipo ({ typeId, quantity }). Se crean todas o ninguna.
+     * Acepta la misma cabecera "Idempotency-Key" que /confirm.
+     * @param idempotencyKey Clave única por intento (opcional).
+     * @param request Huésped responsable, fechas y habitaciones pedidas.
+     * @return Códigos, habitaciones y totales de las reservas creadas, o HTTP 400 con el motivo del rechazo.
+     */
+    @PostMapping("/group")
+    public ResponseEntity<?> createGroupBooking(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                @RequestBody GroupBookingRequestDTO request) {
+        return idempotent(idempotencyKey, request, () -> {
+            try {
+                return ResponseEntity.ok(groupBookingService.book(request));
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Ejecuta la operación una sola vez por Idempotency-Key (o directamente, si el cliente no envió la cabecera).
+     * Los reintentos con la misma clave reciben la respuesta original con "Idempotent-Replayed: true".
+     */
+    private ResponseEntity<?> idempotent(String idempotencyKey, Object payload, Supplier<ResponseEntity<?>> operation) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return operation.get();
+        }
+        if (idempotencyKey.length() > 100) {
+            return ResponseEntity.badRequest().body("La cabecera Idempotency-Key no puede superar los 100 caracteres.");
+        }
+
+        IdempotencyService.Result result = idempotencyService.execute(idempotencyKey, hash(payload), () -> {
+            ResponseEntity<?> response = operation.get();
+            return new IdempotencyService.Result(response.getStatusCode().value(), toBody(response), false);
+        });
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(result.status())
+                .contentType(result.isSuccess() ? MediaType.APPLICATION_JSON : MediaType.TEXT_PLAIN);
+        if (result.replayed()) {
+            response.header("Idempotent-Replayed", "true");
+        }
+        return response.body(result.body());
+    }
+
+    /**
+     * Confirmación real: crea la reserva (y el huésped si es nuevo) y registra el pago.
+     */
+    private ResponseEntity<?> confirm(Map<String, Object> payload) {
         try {
             // 1. Delega la creación de la reserva y del huésped (si es nuevo) al servicio
             Reservation reservation = reservationService.createReservationFromMap(payload);
@@ -156,4 +228,31 @@ public class ReservationController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Cuerpo de la respuesta tal como se guarda para los reintentos: JSON si fue exitosa, texto si no.
+     */
+    private String toBody(ResponseEntity<?> response) {
+        Object body = response.getBody();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return body != null ? body.toString() : "";
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("No se pudo serializar la respuesta de la reserva", e);
+        }
+    }
+
+    /**
+     * Huella SHA-256 del cuerpo de la petición (detecta una misma clave reutilizada con otros datos).
+     */
+    private String hash(Object payload) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(payload));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("No se pudo calcular la huella de la petición", e);
+        }
+    }
+}
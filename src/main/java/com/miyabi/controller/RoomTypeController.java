@@ -1,8 +1,15 @@
 package com.miyabi.controller;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import com.miyabi.dto.RoomSearchResultDTO;
 import com.miyabi.models.RoomType;
+import com.miyabi.service.AvailabilityService;
 import com.miyabi.service.RoomTypeService;
 
 /**
@@ -16,13 +23,20 @@ public class RoomTypeController {
 
     // Dependencia del servicio que maneja la lógica y conexión con la base de datos para los tipos de habitación.
     private final RoomTypeService roomTypeService;
+    // Motor de disponibilidad en memoria (para el buscador por fechas).
+    private final AvailabilityService availabilityService;
+    // Máximo de noches por búsqueda (evita recorrer estadías de años en el índice y en las tarifas).
+    private final int maxNights;
 
     /**
      * Constructor para la Inyección de Dependencias.
      * Spring Boot se encarga de inyectar la instancia de RoomTypeService automáticamente.
      */
-    public RoomTypeController(RoomTypeService roomTypeService) {
+    public RoomTypeController(RoomTypeService roomTypeService, AvailabilityService availabilityService,
+                              @Value("${miyabi.search.max-nights:30}") int maxNights) {
         this.roomTypeService = roomTypeService;
+        this.availabilityService = availabilityService;
+        this.maxNights = maxNights;
     }
 
     /**
@@ -37,6 +51,37 @@ public class RoomTypeController {
         return roomTypeService.findAll();
     }
 
+    /**
+     * Endpoint GET: /api/room-types/search?checkIn=2026-03-01&checkOut=2026-03-04&adults=2&children=0
+     * Buscador del widget de reservas: devuelve solo las categorías que tienen al menos una
+     * habitación libre en esas fechas y capacidad para el grupo, ordenadas por precio total de la estadía.
+     * La respuesta sale del índice de disponibilidad en memoria (no consulta la base de datos).
+     * @return HTTP 200 con la lista de resultados, o HTTP 400 si las fechas o huéspedes no son válidos
+     *         (fecha mal escrita, ingreso pasado, salida no posterior al ingreso o más de
+     *         miyabi.search.max-nights noches).
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<RoomSearchResultDTO>> search(@RequestParam String checkIn,
+                                                            @RequestParam String checkOut,
+                                                            @RequestParam(defaultValue = "1") int adults,
+                                                            @RequestParam(defaultValue = "0") int children) {
+        LocalDate in;
+        LocalDate out;
+        try {
+            in = LocalDate.parse(checkIn);
+            out = LocalDate.parse(checkOut);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Mismas reglas de negocio que al confirmar la reserva
+        if (in.isBefore(LocalDate.now()) || !out.isAfter(in) || ChronoUnit.DAYS.between(in, out) > maxNights
+                || adults < 1 || children < 0 || adults + children > 6) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(availabilityService.searchRoomTypes(in, out, adults, children));
+    }
+
     /**
      * Endpoint POST: /api/room-types
      * Crea un nuevo tipo o categoría de habitación en el sistema.
@@ -1,11 +1,14 @@
 package com.miyabi.controller;
 
+import com.miyabi.dto.PickerOptionDTO;
+import com.miyabi.dto.ReservationPageDTO;
 import com.miyabi.models.Reservation;
 import com.miyabi.models.Room;
 import com.miyabi.models.Guest;
 import com.miyabi.service.ReservationService;
 import com.miyabi.service.RoomService;
 import com.miyabi.service.GuestService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -14,6 +17,7 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 /**
  * Controlador MVC para la gestión de Reservas por parte de los empleados (Intranet).
@@ -25,6 +29,10 @@ import java.time.temporal.ChronoUnit;
 @RequestMapping("/users") // Ruta base para el módulo administrativo de empleados.
 public class UserReservationController {
 
+    // Filas por página del listado y sugerencias por búsqueda del autocompletado.
+    private static final int PAGE_SIZE = 50;
+    private static final int PICKER_LIMIT = 10;
+
     // Dependencias inyectadas necesarias para cruzar los datos de reservas, habitaciones y clientes.
     private final ReservationService reservationService;
     private final RoomService roomService;
@@ -41,34 +49,68 @@ public class UserReservationController {
         this.guestService       = guestService;
     }
 
-    // ── 1. LISTAR todas las reservas ────────────────────────────────────────
+    // ── 1. LISTAR reservas (paginado) ───────────────────────────────────────
     /**
      * Endpoint GET: /users/reservations
-     * Carga la vista principal con la tabla de todas las reservas registradas.
-     * También envía la lista de habitaciones y huéspedes para poblar los selects de los modales de creación/edición.
+     * Carga la vista principal con la tabla de reservas, de la fecha de ingreso más reciente a la más antigua.
+     * La tabla se pagina por cursor: "Next" envía la fecha e ID de la última fila (afterDate, afterId),
+     * así el costo de cada página no crece con el historial. Los filtros de estado y rango de fechas
+     * de ingreso se aplican en la BD. Los selectores de huésped y habitación de los modales ya no se
+     * llenan aquí: consultan los endpoints de autocompletado mientras el empleado escribe.
      */
     @GetMapping("/reservations")
-    public String listReservations(Model model) {
-        model.addAttribute("reservations", reservationService.findAll());
-        model.addAttribute("rooms",        roomService.findAll());
-        model.addAttribute("guests",       guestService.findAll());
+    public String listReservations(@RequestParam(required = false) String state,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDate,
+                                   @RequestParam(required = false) Integer afterId,
+                                   Model model) {
+        String stateFilter = (state == null || state.isBlank()) ? null : state;
+        ReservationPageDTO page = reservationService.findPage(stateFilter, from, to, afterDate, afterId, PAGE_SIZE);
+
+        model.addAttribute("reservations", page.reservations());
+        model.addAttribute("page",         page);
+        model.addAttribute("stateCounts",  reservationService.countByState());
+        model.addAttribute("state",        stateFilter);
+        model.addAttribute("from",         from);
+        model.addAttribute("to",           to);
+        model.addAttribute("isFirstPage",  afterDate == null);
         return "users/Reservations";
     }
 
+    /**
+     * Endpoint GET: /users/reservations/guests?q=ana
+     * Autocompletado del selector de huéspedes (devuelve JSON, no una vista).
+     */
+    @GetMapping("/reservations/guests")
+    @ResponseBody
+    public List<PickerOptionDTO> searchGuests(@RequestParam(defaultValue = "") String q) {
+        return guestService.search(q, PICKER_LIMIT);
+    }
+
+    /**
+     * Endpoint GET: /users/reservations/rooms?q=20
+     * Autocompletado del selector de habitaciones (incluye la tarifa base para la vista previa del total).
+     */
+    @GetMapping("/reservations/rooms")
+    @ResponseBody
+    public List<PickerOptionDTO> searchRooms(@RequestParam(defaultValue = "") String q) {
+        return roomService.search(q, PICKER_LIMIT);
+    }
+
     // ── 2. MOSTRAR formulario de edición ───────────────────────────────────
     /**
      * Endpoint GET: /users/reservations/edit/{id}
      * Carga un fragmento HTML (formulario de edición) para una reserva en específico.
      * Esto es muy útil para cargarlo dinámicamente dentro de un modal en el frontend sin recargar toda la página.
+     * El huésped y la habitación actuales vienen precargados; para cambiarlos se usa el autocompletado.
      */
     @GetMapping("/reservations/edit/{id}")
     public String editForm(@PathVariable Integer id, Model model) {
-        Reservation reservation = reservationService.findById(id);
+        Reservation reservation = reservationService.findForEdit(id);
         if (reservation == null) return "redirect:/users/reservations";
 
         model.addAttribute("reservation", reservation);
-        model.addAttribute("rooms",  roomService.findAll());
-        model.addAttribute("guests", guestService.findAll());
         model.addAttribute("isEdit", true);
         return "users/fragments/ReservationForm";
     }
@@ -115,15 +157,7 @@ public class UserReservationController {
             res.setState(state);
             res.setObservations(observations);
 
-            // Lógica de generación de código único para la reserva (Ej. RES-2026-1548)
-            String year = String.valueOf(LocalDate.now().getYear());
-            String code;
-            do {
-                int rand = (int)(Math.random() * 9000) + 1000;
-                code = "RES-" + year + "-" + rand;
-            } while (reservationService.findByCode(code) != null); // Verifica que el código no exista ya en la BD
-            res.setReservationCode(code);
-
+            // El código único (Ej. RES-2026-00042) lo asigna el ReservationService al guardar
             reservationService.saveFromEmployee(res);
             ra.addFlashAttribute("success", "Reservation created successfully.");
         } catch (Exception e) {
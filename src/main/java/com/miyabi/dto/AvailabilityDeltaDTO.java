@@ -0,0 +1,13 @@
+package com.miyabi.dto;
+
+/**
+ * Cambio de disponibilidad que se envía en vivo al calendario (stream SSE).
+ * Es deliberadamente compacto: fecha, tipo de habitación y cuántas habitaciones quedan libres.
+ * El calendario lo aplica directamente (sin volver a pedir /unavailable-dates): con hotelFree = 0
+ * la fecha se bloquea y con hotelFree > 0 se libera.
+ * @param date Noche afectada (yyyy-MM-dd).
+ * @param typeId Tipo de habitación.
+ * @param free Habitaciones libres de ese tipo en esa noche, después del cambio.
+ * @param hotelFree Habitaciones libres de todo el hotel en esa noche, después del cambio.
+ */
+public record AvailabilityDeltaDTO(String date, int typeId, int free, int hotelFree) {}
@@ -0,0 +1,12 @@
+package com.miyabi.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Métricas del panel principal del administrador, calculadas en una sola consulta.
+ * @param totalRevenue Ingresos de todas las reservas no canceladas.
+ * @param pendingCount Reservas pendientes.
+ * @param activeCount Reservas confirmadas.
+ * @param totalRooms Total de habitaciones del hotel.
+ */
+public record DashboardStatsDTO(BigDecimal totalRevenue, Long pendingCount, Long activeCount, Long totalRooms) {}
@@ -0,0 +1,42 @@
+package com.miyabi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) de una reserva grupal (empresas, eventos): varias habitaciones
+ * para un mismo huésped responsable y las mismas fechas, creadas todas o ninguna.
+ * @param guestId Huésped responsable del grupo (titular de todas las reservas).
+ * @param entryDate Fecha de ingreso del grupo.
+ * @param departureDate Fecha de salida del grupo.
+ * @param observations Nota que se copia en cada reserva (Ej. "Congreso ACME").
+ * @param items Habitaciones pedidas: por número de habitación o por tipo y cantidad.
+ */
+public record GroupBookingRequestDTO(
+    Integer guestId,
+    LocalDate entryDate,
+    LocalDate departureDate,
+    String observations,
+    List<Item> items
+) {
+
+    /**
+     * Línea del pedido. Se indica roomId (una habitación concreta) o typeId + quantity
+     * (el sistema elige habitaciones libres de ese tipo).
+     * @param roomId Habitación concreta, o null.
+     * @param typeId Tipo de habitación, o null si se indicó roomId.
+     * @param quantity Habitaciones de ese tipo (por defecto 1).
+     * @param numAdults Adultos por habitación (por defecto 1).
+     * @param numChildren Niños por habitación (por defecto 0).
+     * @param pricePerNight Tarifa pactada por noche (opcional; si no, la de temporada de cada noche).
+     */
+    public record Item(
+        Integer roomId,
+        Integer typeId,
+        Integer quantity,
+        Integer numAdults,
+        Integer numChildren,
+        BigDecimal pricePerNight
+    ) {}
+}
@@ -0,0 +1,18 @@
+package com.miyabi.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resultado de una reserva grupal: una línea por habitación reservada y el total del grupo.
+ * @param reservations Reservas creadas (en el mismo orden en que se pidieron).
+ * @param totalPay Suma de los subtotales de todas las habitaciones.
+ */
+public record GroupBookingResultDTO(List<Line> reservations, BigDecimal totalPay) {
+
+    /**
+     * Reserva creada para una habitación del grupo.
+     */
+    public record Line(Integer reservationId, String reservationCode, Integer roomId, String roomNumber,
+                       BigDecimal totalPay) {}
+}
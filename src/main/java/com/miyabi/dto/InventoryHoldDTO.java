@@ -0,0 +1,71 @@
+package com.miyabi.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object (DTO) de una retención temporal de habitación.
+ * Se devuelve al widget del carrito cuando el huésped elige una habitación: mientras la
+ * retención siga vigente, nadie más puede reservar esa habitación en esas fechas.
+ */
+public class InventoryHoldDTO {
+
+    private String holdId;          // Identificador que el frontend envía al confirmar o al liberar
+    private Integer roomId;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private Instant expiresAt;      // Momento en que la retención vence si no se confirma
+
+    public InventoryHoldDTO() {
+    }
+
+    public InventoryHoldDTO(String holdId, Integer roomId, LocalDate checkIn, LocalDate checkOut, Instant expiresAt) {
+        this.holdId = holdId;
+        this.roomId = roomId;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+        this.expiresAt = expiresAt;
+    }
+
+    // ── Getters y Setters ──────────────────────────────────────────────────
+
+    public String getHoldId() {
+        return holdId;
+    }
+
+    public void setHoldId(String holdId) {
+        this.holdId = holdId;
+    }
+
+    public Integer getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Integer roomId) {
+        this.roomId = roomId;
+    }
+
+    public LocalDate getCheckIn() {
+        return checkIn;
+    }
+
+    public void setCheckIn(LocalDate checkIn) {
+        this.checkIn = checkIn;
+    }
+
+    public LocalDate getCheckOut() {
+        return checkOut;
+    }
+
+    public void setCheckOut(LocalDate checkOut) {
+        this.checkOut = checkOut;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,80 @@
+package com.miyabi.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object (DTO) con la disponibilidad de un mes completo del calendario.
+ * En lugar de enviar un objeto JSON por cada día, se envían arreglos paralelos (formato columnar):
+ * la posición "i" de cada arreglo describe el mismo día. Esto reduce mucho el tamaño de la
+ * respuesta cuando el widget de reservas navega entre meses.
+ *
+ * Ejemplo: dayOffsets[3] = 3, freeRooms[3] = 2, minPrices[3] = 165.00
+ * significa que el día 4 del mes quedan 2 habitaciones libres desde S/ 165.00 la noche.
+ */
+public class MonthAvailabilityDTO {
+
+    private int year;
+    private int month;
+
+    // Días contados desde el primer día del mes (0 = día 1).
+    private int[] dayOffsets;
+
+    // Habitaciones libres de todo el hotel en cada día.
+    private int[] freeRooms;
+
+    // Precio más barato que aún se puede vender cada día (null si el día está agotado).
+    private BigDecimal[] minPrices;
+
+    public MonthAvailabilityDTO() {
+    }
+
+    public MonthAvailabilityDTO(int year, int month, int[] dayOffsets, int[] freeRooms, BigDecimal[] minPrices) {
+        this.year = year;
+        this.month = month;
+        this.dayOffsets = dayOffsets;
+        this.freeRooms = freeRooms;
+        this.minPrices = minPrices;
+    }
+
+    // ── Getters y Setters ──────────────────────────────────────────────────
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    public int[] getDayOffsets() {
+        return dayOffsets;
+    }
+
+    public void setDayOffsets(int[] dayOffsets) {
+        this.dayOffsets = dayOffsets;
+    }
+
+    public int[] getFreeRooms() {
+        return freeRooms;
+    }
+
+    public void setFreeRooms(int[] freeRooms) {
+        this.freeRooms = freeRooms;
+    }
+
+    public BigDecimal[] getMinPrices() {
+        return minPrices;
+    }
+
+    public void setMinPrices(BigDecimal[] minPrices) {
+        this.minPrices = minPrices;
+    }
+}
@@ -0,0 +1,14 @@
+package com.miyabi.dto;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Opción del buscador con autocompletado (typeahead) de huéspedes y habitaciones de la intranet.
+ * @param id ID del huésped o de la habitación (es lo que se envía en el formulario).
+ * @param label Texto que ve el empleado (Ej. "Ana Torres (45879632)" o "#201 – Suite").
+ * @param price Tarifa base por noche (solo habitaciones; sirve para la vista previa del total).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PickerOptionDTO(Integer id, String label, BigDecimal price) {}
@@ -0,0 +1,16 @@
+package com.miyabi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Estado de una boleta pedida a la cola de generación (/api/receipts/{id}/jobs).
+ * @param ticket Identificador del trabajo.
+ * @param reservationId Reserva de la boleta.
+ * @param status QUEUED, RENDERING, READY o FAILED.
+ * @param statusUrl Dónde consultar el estado.
+ * @param downloadUrl Dónde descargar el PDF (solo cuando está READY).
+ * @param error Motivo del fallo (solo cuando está FAILED).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ReceiptJobDTO(String ticket, Integer reservationId, String status,
+                            String statusUrl, String downloadUrl, String error) {}
@@ -0,0 +1,25 @@
+package com.miyabi.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.miyabi.models.Reservation;
+
+/**
+ * Página del listado de reservas de la intranet (paginación por cursor / "keyset").
+ * En lugar de un número de página (OFFSET, que obliga a la BD a recorrer todas las filas anteriores),
+ * la siguiente página se pide a partir de la última fila mostrada: fecha de ingreso + ID.
+ * @param reservations Reservas de esta página, de la fecha de ingreso más reciente a la más antigua.
+ * @param nextEntryDate Fecha de ingreso de la última fila (cursor), o null si no hay más páginas.
+ * @param nextReservationId ID de la última fila (desempata reservas con la misma fecha), o null si no hay más.
+ */
+public record ReservationPageDTO(
+    List<Reservation> reservations,
+    LocalDate nextEntryDate,
+    Integer nextReservationId
+) {
+
+    public boolean hasNext() {
+        return nextEntryDate != null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.miyabi.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección mínima de una reserva para el índice de disponibilidad.
+ * Se arma directamente en la consulta JPQL (SELECT new ...), sin cargar la entidad Reservation
+ * ni sus relaciones (huésped, habitación, tipo), por lo que leer miles de filas es barato.
+ * updatedAt (última modificación de la fila) sirve de cursor para la actualización incremental.
+ */
+public record ReservationStayDTO(
+    Integer reservationId,
+    Integer roomId,
+    Integer typeId,
+    LocalDate entryDate,
+    LocalDate departureDate,
+    String state,
+    LocalDateTime updatedAt
+) {}
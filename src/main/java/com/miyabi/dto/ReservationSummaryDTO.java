@@ -0,0 +1,61 @@
+package com.miyabi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Proyección de una reserva para los listados JSON (/api/reservations y "Mis Reservas").
+ * Se arma directamente en la consulta JPQL (SELECT new ...) con un solo JOIN, en lugar de cargar
+ * la entidad Reservation con todas sus relaciones (huésped con su contraseña, habitación, tipo con
+ * su carrusel de imágenes, empleados de check-in/check-out).
+ *
+ * Conserva los nombres de campo de la entidad (room.roomType.nameType, totalPay, etc.)
+ * para que el frontend existente (MyReservations.js) la pinte sin cambios.
+ */
+public record ReservationSummaryDTO(
+    Integer reservationId,
+    String reservationCode,
+    LocalDate entryDate,
+    LocalDate departureDate,
+    Integer numberNights,
+    String state,
+    Integer numAdults,
+    Integer numChildren,
+    BigDecimal pricePerNight,
+    BigDecimal roomSubtotal,
+    BigDecimal totalConsumption,
+    BigDecimal totalPay,
+    GuestRef guest,
+    RoomRef room
+) {
+
+    /**
+     * Constructor usado por las consultas JPQL (recibe las columnas planas del SELECT).
+     */
+    public ReservationSummaryDTO(Integer reservationId, String reservationCode, LocalDate entryDate,
+                                 LocalDate departureDate, Integer numberNights, String state,
+                                 Integer numAdults, Integer numChildren, BigDecimal pricePerNight,
+                                 BigDecimal roomSubtotal, BigDecimal totalConsumption, BigDecimal totalPay,
+                                 Integer idGuest, String names, String surnames,
+                                 Integer idRoom, String roomNumber, Integer idTipo, String nameType) {
+        this(reservationId, reservationCode, entryDate, departureDate, numberNights, state,
+             numAdults, numChildren, pricePerNight, roomSubtotal, totalConsumption, totalPay,
+             new GuestRef(idGuest, names, surnames),
+             new RoomRef(idRoom, roomNumber, new RoomTypeRef(idTipo, nameType)));
+    }
+
+    /**
+     * Datos mínimos del huésped (sin email, DNI ni contraseña).
+     */
+    public record GuestRef(Integer idGuest, String names, String surnames) {}
+
+    /**
+     * Datos mínimos de la habitación asignada.
+     */
+    public record RoomRef(Integer idRoom, String roomNumber, RoomTypeRef roomType) {}
+
+    /**
+     * Datos mínimos de la categoría de la habitación.
+     */
+    public record RoomTypeRef(Integer idTipo, String nameType) {}
+}
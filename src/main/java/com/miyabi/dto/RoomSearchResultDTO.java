@@ -0,0 +1,129 @@
+package com.miyabi.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object (DTO) con un resultado del buscador de habitaciones por fechas.
+ * Conserva los mismos nombres de campo que la entidad RoomType (idTipo, nameType, basePrice...)
+ * para que el widget de reservas pueda pintar las tarjetas sin cambios, y agrega los datos
+ * propios de la búsqueda: noches, precio total de la estadía y habitaciones libres.
+ */
+public class RoomSearchResultDTO {
+
+    // Datos de la categoría (se muestran en la tarjeta)
+    private Integer idTipo;
+    private String nameType;
+    private String shortDescription;
+    private String imageUrl;
+    private String roomSize;
+    private String bedType;
+    private Integer capacityPeople;
+    private BigDecimal basePrice;
+
+    // Datos de la búsqueda
+    private int nights;
+    private BigDecimal totalPrice;      // Suma de las tarifas de cada noche (base o temporada alta)
+    private int freeRooms;              // Habitaciones físicas libres durante toda la estadía
+    private Integer roomId;             // Primera habitación libre, la que se enviará al confirmar
+
+    public RoomSearchResultDTO() {
+    }
+
+    // ── Getters y Setters ──────────────────────────────────────────────────
+
+    public Integer getIdTipo() {
+        return idTipo;
+    }
+
+    public void setIdTipo(Integer idTipo) {
+        this.idTipo = idTipo;
+    }
+
+    public String getNameType() {
+        return nameType;
+    }
+
+    public void setNameType(String nameType) {
+        this.nameType = nameType;
+    }
+
+    public String getShortDescription() {
+        return shortDescription;
+    }
+
+    public void setShortDescription(String shortDescription) {
+        this.shortDescription = shortDescription;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public String getRoomSize() {
+        return roomSize;
+    }
+
+    public void setRoomSize(String roomSize) {
+        this.roomSize = roomSize;
+    }
+
+    public String getBedType() {
+        return bedType;
+    }
+
+    public void setBedType(String bedType) {
+        this.bedType = bedType;
+    }
+
+    public Integer getCapacityPeople() {
+        return capacityPeople;
+    }
+
+    public void setCapacityPeople(Integer capacityPeople) {
+        this.capacityPeople = capacityPeople;
+    }
+
+    public BigDecimal getBasePrice() {
+        return basePrice;
+    }
+
+    public void setBasePrice(BigDecimal basePrice) {
+        this.basePrice = basePrice;
+    }
+
+    public int getNights() {
+        return nights;
+    }
+
+    public void setNights(int nights) {
+        this.nights = nights;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public void setTotalPrice(BigDecimal totalPrice) {
+        this.totalPrice = totalPrice;
+    }
+
+    public int getFreeRooms() {
+        return freeRooms;
+    }
+
+    public void setFreeRooms(int freeRooms) {
+        this.freeRooms = freeRooms;
+    }
+
+    public Integer getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Integer roomId) {
+        this.roomId = roomId;
+    }
+}
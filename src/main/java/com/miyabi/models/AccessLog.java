@@ -13,10 +13,14 @@ import java.time.LocalDateTime;
 public class AccessLog {
 
     /**
-     * Llave primaria de la tabla (Primary Key).
+     * Llave primaria. Los IDs se reservan de a 50 en la tabla "id_sequences" (fila "access_log")
+     * en lugar de usar AUTO_INCREMENT: Hibernate conoce el ID antes del INSERT y puede
+     * enviar muchos registros en un solo lote JDBC (hibernate.jdbc.batch_size).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Indica que el ID es auto-incremental (Identity en SQL Server).
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "access_log_ids")
+    @TableGenerator(name = "access_log_ids", table = "id_sequences", pkColumnName = "sequence_name",
+                    valueColumnName = "next_val", pkColumnValue = "access_log", allocationSize = 50)
     @Column(name = "access_id")
     private Integer idAccess;
 
@@ -45,7 +49,7 @@ public class AccessLog {
      * Relación de Llave Foránea (Foreign Key) con la tabla de Empleados (User).
      * @ManyToOne indica que "Muchos registros de acceso pueden pertenecer a Un solo empleado".
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id") // Nombre de la columna física en la tabla access_log
     private User user;
 
@@ -53,7 +57,7 @@ public class AccessLog {
      * Relación de Llave Foránea (Foreign Key) con la tabla de Clientes (Guest).
      * @ManyToOne indica que "Muchos registros de acceso pueden pertenecer a Un solo huésped".
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "guest_id") // Nombre de la columna física en la tabla access_log
     private Guest guest;
 
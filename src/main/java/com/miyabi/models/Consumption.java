@@ -11,14 +11,20 @@ import java.time.LocalDateTime;
  * ¡NOTA PARA LA BOLETA!: De aquí se extrae el "detalle" para imprimir el recibo final.
  */
 @Entity // Indica a JPA/Hibernate que esta clase mapea una tabla de la BD.
-@Table(name = "consumption") // Nombre exacto de la tabla en SQL Server.
+@Table(name = "consumption", // Nombre exacto de la tabla en SQL Server.
+       // Consumos de una reserva (ver migración V2__hot_query_indexes.sql)
+       indexes = @Index(name = "idx_consumption_reservation", columnList = "reservation_id, service_id"))
 public class Consumption {
 
     /**
-     * Llave primaria (Primary Key) auto-incremental.
+     * Llave primaria. Los IDs se reservan de a 50 en la tabla "id_sequences" (fila "consumption")
+     * en lugar de usar AUTO_INCREMENT: Hibernate conoce el ID antes del INSERT y puede
+     * enviar muchos registros en un solo lote JDBC (hibernate.jdbc.batch_size).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "consumption_ids")
+    @TableGenerator(name = "consumption_ids", table = "id_sequences", pkColumnName = "sequence_name",
+                    valueColumnName = "next_val", pkColumnValue = "consumption", allocationSize = 50)
     @Column(name = "consumption_id")
     private Integer idConsumption;
 
@@ -62,7 +68,7 @@ public class Consumption {
      * @ManyToOne: "Muchos consumos pertenecen a una sola reserva".
      * 'nullable = false' indica que un consumo no puede existir si no está amarrado a una reserva.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "reservation_id", nullable = false)
     private Reservation reservation;
 
@@ -70,7 +76,7 @@ public class Consumption {
      * Relación de Llave Foránea con el Catálogo de Servicios (ServiceCatalog).
      * @ManyToOne: "Muchos consumos pueden ser del mismo servicio (ej. muchas personas piden Cerveza)".
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "service_id", nullable = false)
     private ServiceCatalog service;
 
@@ -78,7 +84,7 @@ public class Consumption {
      * Relación de Llave Foránea con el Usuario/Empleado (User) que registró el consumo en el sistema.
      * Útil para auditorías (saber qué recepcionista o mozo cargó el gasto a la habitación).
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_registration_id")
     private User userRegistration;
 
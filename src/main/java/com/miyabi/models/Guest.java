@@ -3,12 +3,15 @@ package com.miyabi.models;
 import java.time.LocalDateTime;
 import jakarta.persistence.*;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 /**
  * Entidad (Modelo) que representa la tabla "guests" (Huéspedes/Clientes) en la base de datos.
  * Almacena los datos personales, de contacto y credenciales de acceso de los clientes del hotel.
  */
 @Entity // Indica que esta clase es una entidad gestionada por JPA/Hibernate.
 @Table(name = "guests") // Mapea esta clase a la tabla "guests" en SQL Server.
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Guest {
 
     /**
@@ -0,0 +1,115 @@
+package com.miyabi.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * Entidad (Modelo) que representa la tabla "idempotency_keys".
+ * Guarda la respuesta de cada confirmación de reserva enviada con la cabecera "Idempotency-Key",
+ * para que los reintentos del cliente (ej. apps móviles tras un timeout) reciban la misma
+ * respuesta en vez de crear otra reserva y otro pago.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+
+    /**
+     * Clave enviada por el cliente (generalmente un UUID).
+     */
+    @Id
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
+    /**
+     * Huella (SHA-256) del cuerpo de la petición: detecta si se reutiliza la clave con otros datos.
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * Código HTTP de la respuesta. Es null mientras la primera ejecución sigue en curso.
+     */
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    /**
+     * Cuerpo JSON de la respuesta que se repite a los reintentos.
+     */
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Momento en que la ejecución en curso reclamó la clave. Si vence sin respuesta
+     * (ej. la instancia se cayó), otra ejecución puede tomarla.
+     */
+    @Column(name = "claimed_at", nullable = false)
+    private LocalDateTime claimedAt;
+
+    /**
+     * Constructor vacío requerido obligatoriamente por el framework JPA.
+     */
+    public IdempotencyRecord() {}
+
+    public IdempotencyRecord(String idempotencyKey, String requestHash) {
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.createdAt = LocalDateTime.now();
+        this.claimedAt = this.createdAt;
+    }
+
+    // ==========================================
+    // GETTERS Y SETTERS
+    // ==========================================
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public Integer getStatusCode() {
+        return statusCode;
+    }
+
+    public void setStatusCode(Integer statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public void setResponseBody(String responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getClaimedAt() {
+        return claimedAt;
+    }
+
+    public void setClaimedAt(LocalDateTime claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+}
@@ -13,10 +13,14 @@ import java.time.LocalDateTime;
 public class Payments {
 
     /**
-     * Llave primaria auto-incremental.
+     * Llave primaria. Los IDs se reservan de a 50 en la tabla "id_sequences" (fila "payments")
+     * en lugar de usar AUTO_INCREMENT: Hibernate conoce el ID antes del INSERT y puede
+     * enviar muchos registros en un solo lote JDBC (hibernate.jdbc.batch_size).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "payment_ids")
+    @TableGenerator(name = "payment_ids", table = "id_sequences", pkColumnName = "sequence_name",
+                    valueColumnName = "next_val", pkColumnValue = "payments", allocationSize = 50)
     @Column(name = "payment_id")
     private Integer idPayment;
 
@@ -65,7 +69,7 @@ public class Payments {
      * Regla de negocio: "Una reserva tiene un único registro de pago asociado, y viceversa".
      * 'unique = true' asegura a nivel de base de datos que no se puedan cobrar dos 'Payments' a la misma reserva.
      */
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "reservation_id", nullable = false, unique = true)
     private Reservation reservation;
 
@@ -73,7 +77,7 @@ public class Payments {
      * Relación de Llave Foránea con el empleado (User) que procesó el cobro.
      * Vital para el cuadre de caja (saber qué recepcionista recibió el dinero).
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_charge_id")
     private User userCharge;
 
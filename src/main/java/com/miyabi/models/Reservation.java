@@ -5,13 +5,28 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import jakarta.persistence.*;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 /**
  * Entidad (Modelo) principal del sistema, representa la tabla "reservations".
  * Centraliza toda la información sobre la estadía de un huésped: fechas esperadas, 
  * precios, quién lo atendió y la habitación asignada.
  */
 @Entity
-@Table(name = "reservations")
+// Índices creados por las migraciones V2__hot_query_indexes.sql y V4__reservation_change_tracking.sql (se declaran aquí para que el esquema
+// que genera Hibernate en desarrollo sea igual al de producción).
+@Table(name = "reservations", indexes = {
+    @Index(name = "idx_reservations_room_dates", columnList = "room_id, entry_date, departure_date"),
+    @Index(name = "idx_reservations_guest", columnList = "guest_id"),
+    @Index(name = "idx_reservations_state_entry", columnList = "state, entry_date, reservation_id"),
+    @Index(name = "idx_reservations_entry", columnList = "entry_date, reservation_id"),
+    @Index(name = "idx_reservations_departure", columnList = "departure_date, state"),
+    @Index(name = "idx_reservations_updated", columnList = "updated_at, reservation_id")
+})
+// Las relaciones son LAZY: cada caso de uso declara qué necesita con un @EntityGraph en ReservationRepository.
+// hibernateLazyInitializer/handler son campos internos de los proxies de Hibernate y no deben ir al JSON.
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Reservation {
 
     /**
@@ -109,32 +124,41 @@ public class Reservation {
     @Column(name = "checkout_date")
     private LocalDateTime checkOut;
 
+    /**
+     * Última modificación de la fila. La mantiene la BD (DEFAULT / ON UPDATE CURRENT_TIMESTAMP), no Java:
+     * con ella cada instancia detecta los cambios hechos por las demás (ver AvailabilityRefreshService).
+     */
+    @JsonIgnore
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private LocalDateTime updatedAt;
+
     /**
      * Relación con el Cliente (Un huésped puede tener muchas reservas a lo largo de los años).
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "guest_id", nullable = false)
     private Guest guest;
 
     /**
      * Relación con la Habitación asignada.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "room_id", nullable = false)
     private Room room;
 
     /**
      * Empleado (Usuario) en turno que atendió al cliente a su llegada (Check-In).
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id_checkin")
     private User userCheckin;
 
     /**
      * Empleado (Usuario) en turno que le cobró y despidió al cliente (Check-Out).
      */
-    @ManyToOne
-    @JoinColumn(name = "id_usuario_checkout")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id_checkout")
     private User userCheckout;
 
     public Reservation() {}
@@ -271,6 +295,10 @@ public class Reservation {
         this.checkOut = checkOut;
     }
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
     public Guest getGuest() {
         return guest;
     }
@@ -0,0 +1,57 @@
+package com.miyabi.models;
+
+import jakarta.persistence.*;
+
+/**
+ * Entidad (Modelo) que representa la tabla "reservation_code_blocks".
+ * Guarda, por año, el siguiente número de reserva que todavía no se entregó.
+ * Cada instancia de la aplicación reserva un bloque de números de una sola vez
+ * (ej. del 101 al 150) y luego los reparte desde memoria, sin consultar la BD por cada reserva.
+ */
+@Entity
+@Table(name = "reservation_code_blocks")
+public class ReservationCodeBlock {
+
+    /**
+     * Año de los códigos (Ej. 2026 para RES-2026-00001). Es la llave primaria: una fila por año.
+     */
+    @Id
+    @Column(name = "code_year")
+    private Integer codeYear;
+
+    /**
+     * Primer número que aún no pertenece a ningún bloque.
+     */
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    /**
+     * Constructor vacío requerido obligatoriamente por el framework JPA.
+     */
+    public ReservationCodeBlock() {}
+
+    public ReservationCodeBlock(Integer codeYear, Long nextValue) {
+        this.codeYear = codeYear;
+        this.nextValue = nextValue;
+    }
+
+    // ==========================================
+    // GETTERS Y SETTERS
+    // ==========================================
+
+    public Integer getCodeYear() {
+        return codeYear;
+    }
+
+    public void setCodeYear(Integer codeYear) {
+        this.codeYear = codeYear;
+    }
+
+    public Long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(Long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
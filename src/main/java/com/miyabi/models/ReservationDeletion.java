@@ -0,0 +1,45 @@
+package com.miyabi.models;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * Entidad (Modelo) que representa la tabla "reservation_deletions".
+ * Marca de una reserva eliminada: las demás instancias de la aplicación la leen para quitarla
+ * de su índice de disponibilidad (la fila de "reservations" ya no existe para avisarles).
+ */
+@Entity
+@Table(name = "reservation_deletions", indexes = {
+    @Index(name = "idx_reservation_deletions_deleted", columnList = "deleted_at")
+})
+public class ReservationDeletion {
+
+    @Id
+    @Column(name = "reservation_id")
+    private Integer reservationId;
+
+    /**
+     * Momento de la eliminación (lo pone la BD, con el mismo reloj que reservations.updated_at).
+     */
+    @Column(name = "deleted_at", insertable = false, updatable = false,
+            columnDefinition = "DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)")
+    private LocalDateTime deletedAt;
+
+    /**
+     * Constructor vacío requerido obligatoriamente por el framework JPA.
+     */
+    public ReservationDeletion() {}
+
+    public ReservationDeletion(Integer reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public Integer getReservationId() {
+        return reservationId;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+}
@@ -2,6 +2,11 @@ package com.miyabi.models;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 /**
  * Entidad (Modelo) que representa la tabla "roles" en la base de datos.
  * Define los niveles de acceso y permisos para el personal interno del hotel.
@@ -9,6 +14,10 @@ import jakarta.persistence.*;
  */
 @Entity // Indica a JPA/Hibernate que esta clase mapea una tabla de la base de datos.
 @Table(name = "roles") // Nombre físico de la tabla en SQL Server.
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+// Catálogo de referencia: casi nunca cambia (caché de 2do nivel)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Rol {
 
     /**
@@ -3,6 +3,11 @@ package com.miyabi.models;
 import java.time.LocalDate;
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 /**
  * Entidad (Modelo) que representa la tabla "rooms" (Habitaciones físicas) en la base de datos.
  * Esta clase maneja el inventario real del hotel (Ej. Habitación 101, 102, 205).
@@ -11,6 +16,10 @@ import jakarta.persistence.*;
  */
 @Entity // Indica a JPA/Hibernate que esta clase es una tabla.
 @Table(name = "rooms") // Mapea exactamente con el nombre de la tabla en SQL Server.
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+// Catálogo de referencia: se lee en cada reserva y cambia pocas veces (caché de 2do nivel)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Room {
 
     /**
@@ -66,7 +75,7 @@ public class Room {
      * @ManyToOne: "Muchas habitaciones físicas pueden pertenecer a una misma categoría (Ej. 10 habitaciones son Suite)".
      * 'nullable = false': Una habitación no puede existir en el sistema si no se le asigna una categoría.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "type_id", nullable = false)
     private RoomType roomType;
 
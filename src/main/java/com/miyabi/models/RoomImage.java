@@ -2,6 +2,9 @@ package com.miyabi.models;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 /**
  * Entidad (Modelo) que representa la tabla "room_images" en la base de datos.
  * Maneja la galería de fotos para cada tipo de habitación.
@@ -9,6 +12,9 @@ import jakarta.persistence.*;
  */
 @Entity
 @Table(name = "room_images")
+// Galería de la categoría: acompaña a RoomType.images en la caché de 2do nivel
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class RoomImage {
 
     /**
@@ -52,7 +58,7 @@ public class RoomImage {
      * Relaciona la foto con la categoría (ej. Suite, Matrimonial) y no con la habitación física 101,
      * así ahorran espacio en la base de datos al no repetir fotos por cada cuarto igual.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "type_id", nullable = false)
     private RoomType roomType;
 
@@ -1,9 +1,14 @@
 package com.miyabi.models;
 
 import jakarta.persistence.*;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.math.BigDecimal;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -14,6 +19,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  */
 @Entity
 @Table(name = "room_type")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+// Catálogo de referencia: se lee en cada reserva y en cada página (caché de 2do nivel)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class RoomType {
 	
     /**
@@ -120,11 +129,14 @@ public class RoomType {
 
     /**
      * Relación Uno a Muchos con las imágenes de la galería.
-     * 'fetch = FetchType.EAGER': Carga las imágenes automáticamente junto con el tipo de cuarto.
+     * LAZY (por defecto en @OneToMany): solo se cargan donde se muestran (catálogo público de
+     * habitaciones, ver RoomTypeRepository.findAllWithImages), no cada vez que se lee un tipo.
+     * '@Cache': la lista de IDs de imágenes también queda en la caché de 2do nivel.
      * 'JsonIgnore': Evita bucles infinitos al convertir a JSON para la API.
      */
     @com.fasterxml.jackson.annotation.JsonIgnore
-    @OneToMany(mappedBy = "roomType", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @OneToMany(mappedBy = "roomType", cascade = CascadeType.ALL)
     private List<RoomImage> images;
 
     /**
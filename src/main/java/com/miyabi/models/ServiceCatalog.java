@@ -1,6 +1,11 @@
 package com.miyabi.models;
 
 import jakarta.persistence.*;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.math.BigDecimal;
 
 /**
@@ -10,6 +15,10 @@ import java.math.BigDecimal;
  */
 @Entity // Indica que esta clase es una entidad persistente de JPA.
 @Table(name = "services_catalog") // Mapea a la tabla física en SQL Server.
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+// Catálogo de referencia: cambia pocas veces al mes (caché de 2do nivel)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class ServiceCatalog {
 
     /**
@@ -3,6 +3,8 @@ package com.miyabi.models;
 import java.time.LocalDateTime;
 import jakarta.persistence.*;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 /**
  * Entidad (Modelo) que representa la tabla "users" en la base de datos.
  * Define a los usuarios internos del sistema (Administradores, Recepcionistas, etc.).
@@ -10,6 +12,7 @@ import jakarta.persistence.*;
  */
 @Entity // Indica a JPA que esta clase debe mapearse como una tabla en la BD.
 @Table(name = "users") // Nombre físico de la tabla en SQL Server.
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class User {
 
     /**
@@ -64,7 +67,7 @@ public class User {
      * @ManyToOne: "Muchos usuarios pueden compartir el mismo Rol (ej. varios recepcionistas)".
      * 'nullable = false': Todo usuario interno debe tener un rol asignado obligatoriamente.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "rol_id", nullable = false)
     private Rol rol;
 
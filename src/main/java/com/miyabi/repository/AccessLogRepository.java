@@ -1,7 +1,9 @@
 package com.miyabi.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.miyabi.models.AccessLog;
+import java.util.List;
 
 /**
  * Interfaz de Repositorio para la entidad AccessLog.
@@ -18,4 +20,12 @@ public interface AccessLogRepository extends JpaRepository<AccessLog, Integer> {
      * - findAll(): Para obtener el historial completo de accesos (auditoría).
      * - findById(id): Para buscar un registro específico por su ID.
      */
+
+    /**
+     * Historial de auditoría (/api/access-logs): cada registro va con su empleado (y rol) o huésped,
+     * así que se traen en la misma consulta (las relaciones son LAZY).
+     */
+    @Override
+    @EntityGraph(attributePaths = {"user", "user.rol", "guest"})
+    List<AccessLog> findAll();
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.miyabi.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,8 +19,23 @@ public interface ConsumptionRepository extends JpaRepository<Consumption, Intege
      * @param reservationId ID de la reserva.
      * @return Lista de objetos Consumption.
      */
+    @EntityGraph(attributePaths = {"reservation", "reservation.guest", "reservation.room", "reservation.room.roomType",
+                                   "reservation.userCheckin", "reservation.userCheckin.rol",
+                                   "reservation.userCheckout", "reservation.userCheckout.rol",
+                                   "service", "userRegistration", "userRegistration.rol"})
     List<Consumption> findByReservation_ReservationId(Integer reservationId);
 
+    /**
+     * Listado JSON de consumos (/api/consumptions): la API devuelve cada consumo con su reserva,
+     * servicio y empleado, así que se traen en la misma consulta (las relaciones son LAZY).
+     */
+    @Override
+    @EntityGraph(attributePaths = {"reservation", "reservation.guest", "reservation.room", "reservation.room.roomType",
+                                   "reservation.userCheckin", "reservation.userCheckin.rol",
+                                   "reservation.userCheckout", "reservation.userCheckout.rol",
+                                   "service", "userRegistration", "userRegistration.rol"})
+    List<Consumption> findAll();
+
     /**
      * Consulta Nativa (SQL): Utilizada específicamente para la generación de la Boleta/Reporte.
      * Realiza un INNER JOIN entre la tabla de consumos y el catálogo de servicios para 
@@ -1,7 +1,11 @@
 package com.miyabi.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.miyabi.models.Guest;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -27,4 +31,14 @@ public interface GuestRepository extends JpaRepository<Guest, Integer> {
      * @return Un Optional con el objeto Guest encontrado.
      */
     Optional<Guest> findByEmail(String email);
-}
\ No newline at end of file
+
+    /**
+     * Buscador con autocompletado de la intranet: huéspedes cuyo DNI, nombre, apellido o email
+     * empiezan con el texto escrito. Al buscar por prefijo (LIKE 'texto%') la BD puede usar los
+     * índices de esas columnas, y el Pageable limita el resultado a unas pocas sugerencias.
+     * @param prefix Texto escrito, ya escapado y terminado en '%'.
+     */
+    @Query("SELECT g FROM Guest g WHERE g.dni LIKE :prefix OR g.names LIKE :prefix "
+         + "OR g.surnames LIKE :prefix OR g.email LIKE :prefix ORDER BY g.surnames, g.names")
+    List<Guest> searchByPrefix(@Param("prefix") String prefix, Pageable pageable);
+}
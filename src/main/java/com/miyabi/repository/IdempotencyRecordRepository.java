@@ -0,0 +1,41 @@
+package com.miyabi.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.miyabi.models.IdempotencyRecord;
+
+/**
+ * Interfaz de Repositorio para la entidad IdempotencyRecord (respuestas guardadas por Idempotency-Key).
+ */
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Limpieza periódica: elimina las claves más antiguas que la fecha indicada.
+     * @return Cantidad de registros eliminados.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :limit")
+    int deleteOlderThan(@Param("limit") LocalDateTime limit);
+
+    /**
+     * Toma una clave reclamada por una ejecución que nunca respondió (sin código de estado) y cuyo
+     * reclamo es anterior a "expiredBefore". La condición se evalúa en el mismo UPDATE, así que
+     * entre varias instancias solo una logra tomarla.
+     * @return 1 si se tomó la clave; 0 si ya tiene respuesta o su reclamo sigue vigente.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.requestHash = :requestHash, r.claimedAt = :claimedAt "
+         + "WHERE r.idempotencyKey = :key AND r.statusCode IS NULL AND r.claimedAt < :expiredBefore")
+    int takeOverExpiredClaim(@Param("key") String key,
+                             @Param("requestHash") String requestHash,
+                             @Param("claimedAt") LocalDateTime claimedAt,
+                             @Param("expiredBefore") LocalDateTime expiredBefore);
+}
@@ -1,7 +1,9 @@
 package com.miyabi.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.miyabi.models.Payments;
+import java.util.List;
 
 /**
  * Interfaz de Repositorio para la entidad Payments.
@@ -17,5 +19,20 @@ public interface PaymentsRepository extends JpaRepository<Payments, Integer> {
      * * @param reservationId Identificador único de la reserva.
      * @return El objeto Payments vinculado a dicha reserva.
      */
+    @EntityGraph(attributePaths = {"reservation", "reservation.guest", "reservation.room", "reservation.room.roomType",
+                                   "reservation.userCheckin", "reservation.userCheckin.rol",
+                                   "reservation.userCheckout", "reservation.userCheckout.rol",
+                                   "userCharge", "userCharge.rol"})
     Payments findByReservation_ReservationId(Integer reservationId);
+
+    /**
+     * Listado JSON de pagos (/api/payments): cada pago va con su reserva y el empleado que cobró,
+     * así que se traen en la misma consulta (las relaciones son LAZY).
+     */
+    @Override
+    @EntityGraph(attributePaths = {"reservation", "reservation.guest", "reservation.room", "reservation.room.roomType",
+                                   "reservation.userCheckin", "reservation.userCheckin.rol",
+                                   "reservation.userCheckout", "reservation.userCheckout.rol",
+                                   "userCharge", "userCharge.rol"})
+    List<Payments> findAll();
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.miyabi.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.miyabi.models.ReservationCodeBlock;
+
+import jakarta.persistence.LockModeType;
+
+/**
+ * Interfaz de Repositorio para la entidad ReservationCodeBlock (secuencia de códigos de reserva).
+ */
+public interface ReservationCodeBlockRepository extends JpaRepository<ReservationCodeBlock, Integer> {
+
+    /**
+     * Lee la fila del año bloqueándola (SELECT ... FOR UPDATE) hasta el fin de la transacción.
+     * Así, si dos instancias de la aplicación piden un bloque al mismo tiempo, la segunda espera
+     * a que la primera avance el contador y nunca reciben el mismo rango.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM ReservationCodeBlock b WHERE b.codeYear = :year")
+    Optional<ReservationCodeBlock> findForUpdate(@Param("year") Integer year);
+}
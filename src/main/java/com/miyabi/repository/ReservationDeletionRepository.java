@@ -0,0 +1,44 @@
+package com.miyabi.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.miyabi.models.ReservationDeletion;
+
+/**
+ * Interfaz de Repositorio para la entidad ReservationDeletion (reservas eliminadas).
+ */
+public interface ReservationDeletionRepository extends JpaRepository<ReservationDeletion, Integer> {
+
+    /**
+     * Eliminaciones desde una fecha, en orden (paginación por cursor: fecha, ID).
+     */
+    @Query("SELECT d FROM ReservationDeletion d "
+         + "WHERE d.deletedAt >= :afterTime AND (d.deletedAt > :afterTime OR d.reservationId > :afterId) "
+         + "ORDER BY d.deletedAt, d.reservationId")
+    List<ReservationDeletion> findDeletedAfter(@Param("afterTime") LocalDateTime afterTime,
+                                               @Param("afterId") Integer afterId,
+                                               Pageable pageable);
+
+    /**
+     * Eliminación más reciente (marca de agua inicial de la actualización incremental).
+     */
+    @Query("SELECT MAX(d.deletedAt) FROM ReservationDeletion d")
+    LocalDateTime findLastDeletedAt();
+
+    /**
+     * Limpieza periódica: las marcas más antiguas ya las leyeron todas las instancias.
+     * @return Cantidad de marcas eliminadas.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReservationDeletion d WHERE d.deletedAt < :limit")
+    int deleteOlderThan(@Param("limit") LocalDateTime limit);
+}
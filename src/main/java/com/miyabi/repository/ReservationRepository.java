@@ -1,24 +1,56 @@
 package com.miyabi.repository;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import com.miyabi.dto.DashboardStatsDTO;
+import com.miyabi.dto.ReservationStayDTO;
+import com.miyabi.dto.ReservationSummaryDTO;
 import com.miyabi.models.Reservation;
+import jakarta.persistence.QueryHint;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Interfaz de Repositorio para la entidad Reservation.
  * Es el repositorio con mayor carga de lógica de datos, ya que alimenta tanto
  * el portal del cliente como el Dashboard administrativo del hotel.
+ *
+ * Las relaciones de Reservation son LAZY: cada caso de uso declara con @EntityGraph qué relaciones
+ * necesita, y se traen en la misma consulta SQL (sin consultas extra por fila ni JOINs innecesarios).
  */
 public interface ReservationRepository extends JpaRepository<Reservation, Integer> {
     
     /**
-     * Obtiene el historial de reservas de un cliente específico.
+     * Columnas de los listados JSON de reservas (ver ReservationSummaryDTO): una sola consulta SQL
+     * con JOIN a huésped, habitación y tipo, sin cargar entidades ni relaciones EAGER.
+     */
+    String SUMMARY_SELECT = "SELECT new com.miyabi.dto.ReservationSummaryDTO(r.reservationId, r.reservationCode, "
+         + "r.entryDate, r.departureDate, r.numberNights, r.state, r.numAdults, r.numChildren, r.pricePerNight, "
+         + "r.roomSubtotal, r.totalConsumption, r.totalPay, g.idGuest, g.names, g.surnames, "
+         + "rm.idRoom, rm.roomNumber, rt.idTipo, rt.nameType) "
+         + "FROM Reservation r JOIN r.guest g JOIN r.room rm JOIN rm.roomType rt ";
+
+    /**
+     * Listado JSON de todas las reservas (proyección liviana), en orden de registro.
+     */
+    @Query(SUMMARY_SELECT + "ORDER BY r.reservationId")
+    List<ReservationSummaryDTO> findAllSummaries();
+
+    /**
+     * Obtiene el historial de reservas de un cliente específico (proyección liviana), en orden de registro.
      * Utilizado para poblar la vista "Mis Reservas" en el portal del huésped.
      */
-    List<Reservation> findByGuest_IdGuest(Integer idGuest);
+    @Query(SUMMARY_SELECT + "WHERE g.idGuest = :idGuest ORDER BY r.reservationId")
+    List<ReservationSummaryDTO> findSummariesByGuest(@Param("idGuest") Integer idGuest);
 
     /**
      * Busca una reserva por su código público (Ej. RES-2026-X).
@@ -28,31 +60,130 @@ public interface ReservationRepository extends JpaRepository<Reservation, Intege
 
     /**
      * Consulta JPQL para el Dashboard de Finanzas.
-     * Suma todos los ingresos generados por reservas, excluyendo aquellas que fueron canceladas.
-     * @return El monto total recaudado por el hotel.
-     */
-    @Query("SELECT SUM(r.totalPay) FROM Reservation r WHERE r.state != 'Cancelled'")
-    BigDecimal sumTotalRevenue();
-
-    /**
-     * Reporte Estadístico: Cuenta cuántas reservas hay en un estado específico.
-     * (Ej. Cuántas hay "Pending", "Confirmed" o "Completed").
+     * En una sola lectura de la tabla calcula los ingresos (excluyendo reservas canceladas),
+     * las reservas pendientes y confirmadas, y el total de habitaciones del hotel.
+     * (Antes eran cuatro consultas separadas por cada carga del panel).
      */
-    long countByState(String state);
+    @Query("SELECT new com.miyabi.dto.DashboardStatsDTO(" +
+           " COALESCE(SUM(CASE WHEN r.state <> 'Cancelled' THEN r.totalPay END), 0)," +
+           " COALESCE(SUM(CASE WHEN r.state = 'Pending' THEN 1L ELSE 0L END), 0L)," +
+           " COALESCE(SUM(CASE WHEN r.state = 'Confirmed' THEN 1L ELSE 0L END), 0L)," +
+           " (SELECT COUNT(rm) FROM Room rm)) " +
+           "FROM Reservation r")
+    DashboardStatsDTO getDashboardStats();
     
     /**
      * Obtiene las últimas 5 reservas registradas en el sistema.
      * Ideal para la tabla de "Movimientos Recientes" en el inicio del panel administrativo.
+     * Caso de uso "dashboard": la tabla muestra el nombre del huésped y el número de habitación.
      */
+    @EntityGraph(attributePaths = {"guest", "room"})
     List<Reservation> findTop5ByOrderByReservationIdDesc();
 
     /**
      * Consulta de Optimización para la Boleta (Receipt).
-     * 'JOIN FETCH' obliga a JPA a traer los datos del Huésped y la Habitación en una sola
-     * consulta SQL (Eager Loading), evitando el problema de rendimiento "N+1 select".
+     * Caso de uso "boleta": el @EntityGraph obliga a JPA a traer el Huésped, la Habitación y su
+     * categoría (nombre de la estadía) en una sola consulta SQL, evitando el problema "N+1 select".
      * @param reservationId ID de la reserva a facturar.
      * @return Objeto Reservation con sus relaciones cargadas.
      */
-    @Query("SELECT r FROM Reservation r JOIN FETCH r.guest JOIN FETCH r.room WHERE r.reservationId = :reservationId")
+    @EntityGraph(attributePaths = {"guest", "room", "room.roomType"})
+    @Query("SELECT r FROM Reservation r WHERE r.reservationId = :reservationId")
     Reservation getReceiptMainData(@Param("reservationId") Integer reservationId);
-}
\ No newline at end of file
+
+    /**
+     * Caso de uso "formulario de edición" de la intranet: precarga el huésped y la habitación
+     * (con su categoría y tarifa para la vista previa del total).
+     */
+    @EntityGraph(attributePaths = {"guest", "room", "room.roomType"})
+    @Query("SELECT r FROM Reservation r WHERE r.reservationId = :reservationId")
+    Optional<Reservation> findForEdit(@Param("reservationId") Integer reservationId);
+
+    /**
+     * ID más alto registrado (marca de agua para la actualización incremental del índice de disponibilidad).
+     */
+    @Query("SELECT MAX(r.reservationId) FROM Reservation r")
+    Integer findMaxReservationId();
+
+    /**
+     * Última modificación registrada (marca de agua inicial de la actualización incremental del índice).
+     */
+    @Query("SELECT MAX(r.updatedAt) FROM Reservation r")
+    LocalDateTime findLastUpdatedAt();
+
+    /**
+     * Carga inicial del índice de disponibilidad: recorre como flujo (Stream) solo las reservas
+     * activas (no canceladas y con salida desde hoy), proyectadas a lo mínimo.
+     * El fetch size hace que el driver traiga las filas por bloques en vez de todas de golpe
+     * (en MySQL requiere useCursorFetch=true en la URL de conexión).
+     * ¡OJO!: El Stream debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @param maxId Marca de agua: solo reservas con ID menor o igual.
+     * @param today Fecha actual.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.miyabi.dto.ReservationStayDTO(r.reservationId, r.room.idRoom, r.room.roomType.idTipo, "
+         + "r.entryDate, r.departureDate, r.state, r.updatedAt) FROM Reservation r "
+         + "WHERE r.reservationId <= :maxId AND r.state <> 'Cancelled' AND r.departureDate >= :today")
+    Stream<ReservationStayDTO> streamActiveStays(@Param("maxId") Integer maxId, @Param("today") LocalDate today);
+
+    /**
+     * Actualización incremental del índice: reservas creadas o modificadas (fechas, habitación,
+     * cancelación) desde una fecha, por otra instancia o directamente en la BD. Se recorren por
+     * cursor (updatedAt, ID) para no saltear filas con la misma fecha entre una página y otra.
+     * Usa el índice idx_reservations_updated.
+     */
+    @Query("SELECT new com.miyabi.dto.ReservationStayDTO(r.reservationId, r.room.idRoom, r.room.roomType.idTipo, "
+         + "r.entryDate, r.departureDate, r.state, r.updatedAt) FROM Reservation r "
+         + "WHERE r.updatedAt >= :afterTime AND (r.updatedAt > :afterTime OR r.reservationId > :afterId) "
+         + "ORDER BY r.updatedAt, r.reservationId")
+    List<ReservationStayDTO> findStaysChangedAfter(@Param("afterTime") LocalDateTime afterTime,
+                                                   @Param("afterId") Integer afterId,
+                                                   Pageable pageable);
+
+    /**
+     * Listado paginado de la intranet por cursor ("keyset"): de la fecha de ingreso más reciente
+     * a la más antigua, desempatando por ID. La página siguiente empieza justo después de la
+     * última fila mostrada (afterDate, afterId), por lo que el costo es el mismo en la página 1
+     * que en la 500 (con OFFSET la BD tendría que recorrer y descartar todas las filas anteriores).
+     * Los filtros en null no se aplican. Huésped, habitación y tipo se traen en la misma consulta.
+     * El cursor se escribe como "entryDate <= afterDate AND (...)": así la BD puede empezar la
+     * lectura en el índice por fecha (idx_reservations_entry / idx_reservations_state_entry)
+     * en lugar de evaluar el OR fila por fila.
+     * @param pageable Solo define el tamaño de la página (siempre la primera: el cursor hace el resto).
+     */
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.guest JOIN FETCH r.room rm JOIN FETCH rm.roomType "
+         + "WHERE (:state IS NULL OR r.state = :state) "
+         + "AND (:fromDate IS NULL OR r.entryDate >= :fromDate) "
+         + "AND (:toDate IS NULL OR r.entryDate <= :toDate) "
+         + "AND (:afterDate IS NULL OR (r.entryDate <= :afterDate "
+         + "     AND (r.entryDate < :afterDate OR r.reservationId < :afterId))) "
+         + "ORDER BY r.entryDate DESC, r.reservationId DESC")
+    List<Reservation> findPage(@Param("state") String state,
+                               @Param("fromDate") LocalDate fromDate,
+                               @Param("toDate") LocalDate toDate,
+                               @Param("afterDate") LocalDate afterDate,
+                               @Param("afterId") Integer afterId,
+                               Pageable pageable);
+
+    /**
+     * Contadores de las tarjetas de la intranet: cantidad de reservas por estado en una sola consulta.
+     * @return Filas [estado, cantidad].
+     */
+    @Query("SELECT r.state, COUNT(r) FROM Reservation r GROUP BY r.state")
+    List<Object[]> countGroupedByState();
+
+    /**
+     * IDs de las reservas cuyas boletas entran en la exportación masiva (cierre de mes de contabilidad):
+     * rango por fecha de salida (el día en que se emite la boleta) y/o estado. Los filtros en null
+     * no se aplican. Solo se traen los IDs: los datos de cada boleta se leen al generarla.
+     * Usa el índice idx_reservations_departure (departure_date, state).
+     */
+    @Query("SELECT r.reservationId FROM Reservation r "
+         + "WHERE (:fromDate IS NULL OR r.departureDate >= :fromDate) "
+         + "AND (:toDate IS NULL OR r.departureDate <= :toDate) "
+         + "AND (:state IS NULL OR r.state = :state) "
+         + "ORDER BY r.departureDate, r.reservationId")
+    List<Integer> findIdsForReceiptExport(@Param("fromDate") LocalDate fromDate,
+                                          @Param("toDate") LocalDate toDate,
+                                          @Param("state") String state);
+}
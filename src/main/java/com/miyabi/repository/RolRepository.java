@@ -1,7 +1,11 @@
 package com.miyabi.repository;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import com.miyabi.models.Rol;
+import jakarta.persistence.QueryHint;
+import java.util.List;
 
 /**
  * Interfaz de Repositorio para la entidad Rol.
@@ -17,4 +21,11 @@ public interface RolRepository extends JpaRepository<Rol, Integer> {
      * 2. Validar la existencia de roles específicos durante la configuración del sistema.
      * 3. Listar roles en formularios de registro de usuarios internos.
      */
+
+    /**
+     * Listado de roles desde la caché de consultas de Hibernate (los roles casi nunca cambian).
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Rol> findAll();
 }
\ No newline at end of file
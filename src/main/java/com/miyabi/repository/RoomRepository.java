@@ -1,14 +1,38 @@
 package com.miyabi.repository;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import com.miyabi.models.Room;
+import jakarta.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Interfaz de Repositorio para la entidad Room (Habitaciones físicas).
  * Proporciona el acceso a datos para gestionar el inventario de cuartos del hotel.
+ * Casi todos los usos de una habitación necesitan su categoría (nombre, precio, capacidad),
+ * por eso las lecturas la traen en la misma consulta (@EntityGraph) aunque la relación sea LAZY.
+ * Los listados quedan además en la caché de consultas de Hibernate (HINT_CACHEABLE).
  */
 public interface RoomRepository extends JpaRepository<Room, Integer> {
+
+    @Override
+    @EntityGraph(attributePaths = "roomType")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Room> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "roomType")
+    Optional<Room> findById(Integer id);
+
+    @Override
+    @EntityGraph(attributePaths = "roomType")
+    List<Room> findAllById(Iterable<Integer> ids);
     
     /**
      * Query Method: Filtra las habitaciones según su estado operativo.
@@ -18,5 +42,16 @@ public interface RoomRepository extends JpaRepository<Room, Integer> {
      * * @param state El estado a consultar (ej. "Available", "Occupied", "Maintenance").
      * @return Lista de habitaciones que coinciden con dicho estado.
      */
+    @EntityGraph(attributePaths = "roomType")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Room> findByState(String state);
-}
\ No newline at end of file
+
+    /**
+     * Buscador con autocompletado de la intranet: habitaciones cuyo número o categoría
+     * empiezan con el texto escrito (Ej. "20" → 201, 202...; "Sui" → todas las Suite).
+     * @param prefix Texto escrito, ya escapado y terminado en '%'.
+     */
+    @Query("SELECT rm FROM Room rm JOIN FETCH rm.roomType rt "
+         + "WHERE rm.roomNumber LIKE :prefix OR rt.nameType LIKE :prefix ORDER BY rm.roomNumber")
+    List<Room> searchByPrefix(@Param("prefix") String prefix, Pageable pageable);
+}
@@ -1,7 +1,13 @@
 package com.miyabi.repository;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import com.miyabi.models.RoomType;
+import jakarta.persistence.QueryHint;
+import java.util.List;
 
 /**
  * Interfaz de Repositorio para la entidad RoomType (Categorías de Habitación).
@@ -17,4 +23,21 @@ public interface RoomTypeRepository extends JpaRepository<RoomType, Integer> {
      * - findById(id): Para obtener los detalles específicos (incluyendo el JSON de amenities) 
      * cuando el cliente selecciona una categoría para reservar.
      */
+
+    /**
+     * Listado de categorías: el resultado queda en la caché de consultas de Hibernate
+     * (se invalida solo cuando cambia la tabla room_type).
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<RoomType> findAll();
+
+    /**
+     * Caso de uso "catálogo público" (/rooms): las categorías con su carrusel de imágenes
+     * en una sola consulta (las imágenes son LAZY y el resto de la aplicación no las usa).
+     */
+    @EntityGraph(attributePaths = "images")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT rt FROM RoomType rt")
+    List<RoomType> findAllWithImages();
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package com.miyabi.repository;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import com.miyabi.models.ServiceCatalog;
+import jakarta.persistence.QueryHint;
 import java.util.List;
 
 /**
@@ -10,13 +13,21 @@ import java.util.List;
  * y productos (Room Service, Spa, Lavandería, etc.).
  */
 public interface ServiceCatalogRepository extends JpaRepository<ServiceCatalog, Integer> {
+
+    /**
+     * Catálogo completo (panel del administrador), desde la caché de consultas de Hibernate.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<ServiceCatalog> findAll();
     
     /**
      * Query Method: Busca servicios filtrándolos por su estado de disponibilidad.
      * Es utilizado por el recepcionista para cargar únicamente los servicios 
      * que se pueden facturar actualmente al huésped.
      * * @param available Estado de disponibilidad (1 para Activo, 0 para Inactivo).
-     * @return Lista de servicios filtrados.
+     * @return Lista de servicios filtrados (desde la caché de consultas mientras el catálogo no cambie).
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ServiceCatalog> findByAvailable(Integer available);
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.miyabi.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.miyabi.models.User;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -18,5 +20,18 @@ public interface UserRepository extends JpaRepository<User, Integer> {
      * @return Un Optional que contiene al Usuario si las credenciales coinciden, 
      * lo que permite evitar errores de 'NullPointerException' si el correo no existe.
      */
+    @EntityGraph(attributePaths = "rol")
     Optional<User> findByEmail(String email);
+
+    /**
+     * Listado del panel de personal: la tabla y la API muestran el rol de cada usuario,
+     * así que se trae en la misma consulta (la relación es LAZY).
+     */
+    @Override
+    @EntityGraph(attributePaths = "rol")
+    List<User> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "rol")
+    Optional<User> findById(Integer id);
 }
\ No newline at end of file
@@ -0,0 +1,257 @@
+package com.miyabi.service;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.miyabi.dto.AvailabilityDeltaDTO;
+import com.miyabi.service.RoomInventoryService.RoomTypeStock;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Difusor de cambios de disponibilidad en vivo (Server-Sent Events) para el calendario de reservas.
+ *
+ * FLUJO:
+ * 1. El AvailabilityIndexService avisa qué tipo y qué noches cambiaron (reserva creada, editada,
+ *    cancelada, retención, etc.). Aquí solo se anota el cambio en una cola.
+ * 2. Un único hilo difusor junta los cambios acumulados, calcula las habitaciones libres de cada
+ *    noche afectada una sola vez y deja el mismo lote (inmutable) en la cola de cada suscriptor.
+ * 3. Un pequeño grupo de hilos envía los lotes a los navegadores.
+ *
+ * Cada suscriptor tiene una cola acotada de lotes: un navegador lento no frena a los demás ni
+ * acumula memoria. Si su cola se llena, se descartan sus lotes pendientes y se le envía un evento
+ * "resync" para que vuelva a pedir la disponibilidad completa.
+ */
+@Service
+public class AvailabilityBroadcaster implements AvailabilityIndexService.OccupancyListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityBroadcaster.class);
+
+    // Lotes pendientes por suscriptor antes de considerarlo "atrasado".
+    private static final int SUBSCRIBER_BUFFER = 16;
+
+    // Solo se notifican noches dentro de este horizonte (el calendario no muestra más allá).
+    private static final int HORIZON_DAYS = 730;
+
+    private final AvailabilityIndexService availabilityIndexService;
+    private final RoomInventoryService roomInventoryService;
+    private final long timeoutMillis;
+
+    private final BlockingQueue<Change> changes = new LinkedBlockingQueue<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newFixedThreadPool(2, daemon("miyabi-sse-sender"));
+    private final Thread broadcaster;
+
+    public AvailabilityBroadcaster(AvailabilityIndexService availabilityIndexService,
+                                   RoomInventoryService roomInventoryService,
+                                   @Value("${miyabi.availability.stream-timeout-ms:1800000}") long timeoutMillis) {
+        this.availabilityIndexService = availabilityIndexService;
+        this.roomInventoryService = roomInventoryService;
+        this.timeoutMillis = timeoutMillis;
+
+        this.broadcaster = daemon("miyabi-sse-broadcaster").newThread(this::run);
+        this.broadcaster.start();
+        availabilityIndexService.addListener(this);
+    }
+
+    /**
+     * Abre un stream para un calendario. El navegador (EventSource) se reconecta solo al vencer.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Cantidad de calendarios conectados.
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void onOccupancyChanged(int typeId, long fromDay, long toDay) {
+        changes.add(new Change(typeId, fromDay, toDay));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        broadcaster.interrupt();
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    // ── Hilo difusor ───────────────────────────────────────────────────────
+
+    private void run() {
+        List<Change> batch = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(changes.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            changes.drainTo(batch);
+            try {
+                if (!subscribers.isEmpty()) {
+                    List<AvailabilityDeltaDTO> deltas = toDeltas(batch);
+                    if (!deltas.isEmpty()) {
+                        publish(List.copyOf(deltas));
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("No se pudo difundir el cambio de disponibilidad", e);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Junta los cambios por tipo (un solo rango por tipo) y calcula las habitaciones libres
+     * de cada noche afectada, por tipo y del hotel completo, con una sola lectura del índice.
+     */
+    private List<AvailabilityDeltaDTO> toDeltas(List<Change> batch) {
+        long today = LocalDate.now().toEpochDay();
+        long horizon = today + HORIZON_DAYS;
+
+        Map<Integer, long[]> rangeByType = new HashMap<>();
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (Change change : batch) {
+            long from = Math.max(change.fromDay(), today);
+            long to = Math.min(change.toDay(), horizon);
+            if (from >= to) {
+                continue;
+            }
+            rangeByType.merge(change.typeId(), new long[] { from, to },
+                    (a, b) -> new long[] { Math.min(a[0], b[0]), Math.max(a[1], b[1]) });
+            first = Math.min(first, from);
+            last = Math.max(last, to);
+        }
+        if (rangeByType.isEmpty()) {
+            return List.of();
+        }
+
+        // Ocupación de todos los tipos en el rango total: da también las libres del hotel (lo que bloquea el calendario)
+        int span = (int) (last - first);
+        List<Integer> typeIds = new ArrayList<>();
+        for (RoomTypeStock stock : roomInventoryService.findAll()) {
+            typeIds.add(stock.typeId());
+        }
+        Map<Integer, int[]> occupancy = availabilityIndexService.occupancy(typeIds, LocalDate.ofEpochDay(first), span);
+        int[] hotelFree = new int[span];
+        Arrays.fill(hotelFree, roomInventoryService.totalRooms());
+        for (int[] occupied : occupancy.values()) {
+            for (int i = 0; i < span; i++) {
+                hotelFree[i] -= occupied[i];
+            }
+        }
+
+        List<AvailabilityDeltaDTO> deltas = new ArrayList<>();
+        for (Map.Entry<Integer, long[]> entry : rangeByType.entrySet()) {
+            RoomTypeStock stock = roomInventoryService.findByType(entry.getKey());
+            int capacity = stock != null ? stock.capacity() : 0;
+            int[] occupied = occupancy.get(entry.getKey());
+            for (long day = entry.getValue()[0]; day < entry.getValue()[1]; day++) {
+                int i = (int) (day - first);
+                int free = Math.max(capacity - (occupied != null ? occupied[i] : 0), 0);
+                deltas.add(new AvailabilityDeltaDTO(LocalDate.ofEpochDay(day).toString(), entry.getKey(), free,
+                        Math.max(hotelFree[i], 0)));
+            }
+        }
+        return deltas;
+    }
+
+    private void publish(List<AvailabilityDeltaDTO> deltas) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.pending.offer(deltas)) {
+                // Suscriptor atrasado: descarta lo pendiente y le pide recargar todo
+                subscriber.pending.clear();
+                subscriber.resync.set(true);
+            }
+            if (subscriber.scheduled.compareAndSet(false, true)) {
+                senders.execute(() -> flush(subscriber));
+            }
+        }
+    }
+
+    /**
+     * Envía al navegador todo lo pendiente del suscriptor (nunca dos hilos para el mismo suscriptor).
+     */
+    private void flush(Subscriber subscriber) {
+        try {
+            do {
+                if (subscriber.resync.getAndSet(false)) {
+                    subscriber.emitter.send(SseEmitter.event().name("resync").data(""));
+                }
+                List<AvailabilityDeltaDTO> deltas;
+                while ((deltas = subscriber.pending.poll()) != null) {
+                    subscriber.emitter.send(SseEmitter.event().name("availability").data(deltas));
+                }
+                subscriber.scheduled.set(false);
+                // Si llegó algo justo después de vaciar la cola, sigue este mismo hilo
+            } while ((!subscriber.pending.isEmpty() || subscriber.resync.get())
+                    && subscriber.scheduled.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            // El navegador se desconectó
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Navegador conectado y su cola acotada de lotes pendientes.
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<List<AvailabilityDeltaDTO>> pending = new ArrayBlockingQueue<>(SUBSCRIBER_BUFFER);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean resync = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    /**
+     * Cambio de ocupación anotado por el índice.
+     */
+    private record Change(int typeId, long fromDay, long toDay) {}
+}
@@ -0,0 +1,575 @@
+package com.miyabi.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.miyabi.dto.ReservationStayDTO;
+import com.miyabi.models.Reservation;
+
+/**
+ * Índice de ocupación en memoria del hotel.
+ * Se llena al arrancar la aplicación (AvailabilityRefreshService) y luego se mantiene al día
+ * con cada reserva creada, editada o eliminada a través del ReservationService.
+ * Gracias a esto, el calendario de reservas ya no necesita leer toda la tabla
+ * "reservations" en cada visita.
+ *
+ * CONCURRENCIA: cada habitación se protege con un candado "rayado" (lock striping):
+ * hay un número fijo de candados y cada room_id cae siempre en el mismo. Dos reservas de
+ * habitaciones distintas avanzan en paralelo; dos reservas de la misma habitación se atienden
+ * una por una, y la segunda falla rápido si la primera ya ocupó esas fechas.
+ *
+ * RETENCIONES: las retenciones temporales del carrito (InventoryHoldService) se guardan en el
+ * mismo índice con clave negativa (-holdKey). Así ocupan la habitación y restan del calendario
+ * igual que una reserva, sin duplicar estructuras ni cálculos.
+ *
+ * CARGA INICIAL: el servidor web ya atiende peticiones mientras se ejecuta el warm-up. Hasta que
+ * termina (markLoaded), las consultas y las reservas esperan en lugar de responder con un índice
+ * vacío (todo libre). Los balanceadores, además, no envían tráfico hasta que la aplicación se
+ * reporta lista (/actuator/health/readiness), y eso ocurre después del warm-up.
+ *
+ * CAMBIOS LOCALES Y ACTUALIZACIÓN INCREMENTAL: una lectura de la BD que empezó antes de que se
+ * confirmara un cambio hecho en esta instancia trae la versión anterior de la reserva. Cada
+ * lectura tiene un número de generación (beginRefresh); las filas de reservas con un cambio local
+ * en curso, o confirmado después de que empezó esa lectura, se ignoran (ver apply).
+ */
+@Service
+public class AvailabilityIndexService {
+
+    // Cantidad de candados para las habitaciones (potencia de 2 para repartir con una máscara).
+    private static final int ROOM_STRIPES = 64;
+
+    // Tiempo máximo de espera por el candado de una habitación antes de rendirse.
+    private static final long ROOM_LOCK_TIMEOUT_MS = 200;
+
+    // Tiempo máximo que una consulta espera a que termine la carga inicial.
+    private static final long WARM_UP_WAIT_SECONDS = 30;
+
+    // Ocupación por noche y por tipo de habitación.
+    private final OccupancyCalendar calendar = new OccupancyCalendar();
+
+    // Estadías activas por habitación física (para detectar cruces de fechas al reservar).
+    private final RoomStayIndex roomStays = new RoomStayIndex();
+
+    // Última versión registrada de cada reserva (permite "deshacer" su aporte al editarla o eliminarla).
+    private final Map<Integer, Stay> staysByReservation = new ConcurrentHashMap<>();
+
+    // El calendario tiene muchas lecturas (widget de reservas) y pocas escrituras.
+    private final ReadWriteLock calendarLock = new ReentrantReadWriteLock();
+
+    // Candados por habitación (room_id & (ROOM_STRIPES - 1)).
+    private final ReentrantLock[] roomLocks = new ReentrantLock[ROOM_STRIPES];
+
+    // Interesados en los cambios de ocupación (ej. el stream SSE del calendario).
+    private final List<OccupancyListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Se abre cuando termina la carga inicial (markLoaded).
+    private final CountDownLatch loaded = new CountDownLatch(1);
+
+    // Generación de la lectura incremental en curso (beginRefresh).
+    private final AtomicLong refreshGeneration = new AtomicLong();
+
+    // Reservas con cambios locales que una lectura de la BD anterior no debe pisar.
+    private final Map<Integer, LocalChange> localChanges = new ConcurrentHashMap<>();
+
+    public AvailabilityIndexService() {
+        for (int i = 0; i < ROOM_STRIPES; i++) {
+            roomLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Carga inicial (warm-up): agrega al índice un bloque de reservas leídas de la BD.
+     * Las reservas que ya están en el índice se omiten, porque las que se crearon o editaron
+     * durante la carga ya vienen más frescas desde el ReservationService.
+     * @param rows Bloque de reservas activas (AvailabilityRefreshService las lee por bloques).
+     */
+    public void warmUp(List<ReservationStayDTO> rows) {
+        for (ReentrantLock roomLock : roomLocks) {
+            roomLock.lock();
+        }
+        calendarLock.writeLock().lock();
+        try {
+            for (ReservationStayDTO row : rows) {
+                Stay stay = toStay(row);
+                if (stay != null && !staysByReservation.containsKey(row.reservationId())) {
+                    calendar.add(stay.typeId(), stay.fromDay(), stay.toDay(), 1);
+                    roomStays.add(stay.roomId(), row.reservationId(), stay.fromDay(), stay.toDay());
+                    staysByReservation.put(row.reservationId(), stay);
+                }
+            }
+        } finally {
+            calendarLock.writeLock().unlock();
+            for (ReentrantLock roomLock : roomLocks) {
+                roomLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Fin de la carga inicial: desde ahora las consultas y reservas usan el índice.
+     */
+    public void markLoaded() {
+        loaded.countDown();
+    }
+
+    /**
+     * Registra un interesado en los cambios de ocupación.
+     */
+    public void addListener(OccupancyListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Inicio de una lectura incremental de la BD.
+     * @return Generación de la lectura, que se pasa a apply() y remove().
+     */
+    public long beginRefresh() {
+        long generation = refreshGeneration.incrementAndGet();
+        // Los cambios locales ya confirmados antes de esta lectura no necesitan protección
+        for (Integer reservationId : localChanges.keySet()) {
+            localChanges.computeIfPresent(reservationId,
+                    (id, change) -> change.isVisibleTo(generation) ? null : change);
+        }
+        return generation;
+    }
+
+    /**
+     * Aplica una reserva leída de la BD por la actualización incremental (alta, cambio o cancelación).
+     * Si el índice ya la tiene igual (Ej. se volvió a leer por el margen de solapamiento), no hace nada.
+     * Tampoco la aplica si la reserva tiene un cambio local que esa lectura todavía no veía.
+     * @param generation Generación de la lectura (beginRefresh).
+     */
+    public void apply(ReservationStayDTO row, long generation) {
+        if (isShadowedByLocalChange(row.reservationId(), generation)) {
+            return;
+        }
+        Stay stay = toStay(row);
+        if (!Objects.equals(staysByReservation.get(row.reservationId()), stay)) {
+            replace(row.reservationId(), stay, false);
+        }
+    }
+
+    /**
+     * Quita una reserva eliminada en la BD, leída por la actualización incremental.
+     * @param generation Generación de la lectura (beginRefresh).
+     */
+    public void remove(Integer reservationId, long generation) {
+        if (staysByReservation.containsKey(reservationId) && !isShadowedByLocalChange(reservationId, generation)) {
+            replace(reservationId, null, false);
+        }
+    }
+
+    /**
+     * RESERVA ATÓMICA DE LA HABITACIÓN (compare-and-set sobre el índice):
+     * Con el candado de la habitación tomado, verifica que las fechas estén libres y las ocupa
+     * en el mismo paso. Se llama dentro de la transacción de la reserva, después del INSERT;
+     * si la transacción hace rollback, las fechas se liberan automáticamente.
+     * @param reservation Reserva ya guardada (con ID) que se quiere ocupar o actualizar.
+     * @throws RuntimeException si la habitación ya está ocupada en esas fechas o si otra
+     *         reserva de la misma habitación está en curso.
+     */
+    public void reserve(Reservation reservation) {
+        awaitLoaded();
+        Integer reservationId = reservation.getReservationId();
+        trackLocalChange(reservationId);
+        Stay previous = replace(reservationId, toStay(reservation), true);
+
+        onRollback(() -> replace(reservationId, previous, false));
+    }
+
+    /**
+     * Igual que reserve(), pero consumiendo una retención del carrito: con el candado de la
+     * habitación retenida tomado, libera la retención y ocupa las fechas de la reserva, de modo
+     * que nadie más pueda colarse entre ambos pasos. La retención se consume aunque la reserva falle.
+     * @param reservation Reserva ya guardada (con ID).
+     * @param holdKey Clave interna de la retención (InventoryHoldService).
+     */
+    public void reserve(Reservation reservation, int holdKey) {
+        List<ReentrantLock> held = lockRooms(staysByReservation.get(-holdKey), null);
+        try {
+            replace(-holdKey, null, false);
+            reserve(reservation);
+        } finally {
+            for (ReentrantLock roomLock : held) {
+                roomLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Retiene una habitación para [entrada, salida) mientras el huésped termina el checkout.
+     * La retención cuenta como ocupación en todos los cálculos hasta que se libere.
+     * @throws RuntimeException si la habitación ya está ocupada o retenida en esas fechas.
+     */
+    public void hold(int holdKey, int roomId, int typeId, LocalDate entryDate, LocalDate departureDate) {
+        awaitLoaded();
+        replace(-holdKey, new Stay(roomId, typeId, entryDate.toEpochDay(), departureDate.toEpochDay()), true);
+    }
+
+    /**
+     * Libera una retención (vencida, cancelada por el huésped o ya convertida en reserva).
+     */
+    public void releaseHold(int holdKey) {
+        replace(-holdKey, null, false);
+    }
+
+    /**
+     * Registra (o actualiza) una reserva en el índice sin validar conflictos.
+     * Si hay una transacción activa, el cambio se aplica recién cuando se confirma (commit),
+     * para que un rollback no deje noches ocupadas "fantasma".
+     */
+    public void register(Reservation reservation) {
+        trackLocalChange(reservation.getReservationId());
+        Stay stay = toStay(reservation);
+        afterCommit(() -> replace(reservation.getReservationId(), stay, false));
+    }
+
+    /**
+     * Retira una reserva del índice (ej. cuando se elimina de la base de datos).
+     */
+    public void unregister(Integer reservationId) {
+        trackLocalChange(reservationId);
+        afterCommit(() -> replace(reservationId, null, false));
+    }
+
+    /**
+     * Devuelve las fechas (desde hoy) en las que no queda ninguna habitación libre.
+     * ALGORITMO DE BARRIDO (sweep line): cada estadía activa aporta dos eventos, "entra" el día
+     * de ingreso y "sale" el día de salida. Se ordenan los eventos y se recorren una sola vez
+     * llevando la cuenta de habitaciones ocupadas; los tramos donde la cuenta alcanza la capacidad
+     * son las fechas llenas. Costo O(n log n) sobre las estadías activas, sin recorrer día por día.
+     * @param typeId Tipo de habitación a evaluar, o null para el hotel completo.
+     * @param capacity Habitaciones vendibles de ese tipo (o del hotel).
+     * @return Fechas llenas en orden ascendente.
+     */
+    public List<LocalDate> findFullyBookedDates(Integer typeId, int capacity) {
+        List<LocalDate> dates = new ArrayList<>();
+        if (capacity <= 0) {
+            return dates;
+        }
+        awaitLoaded();
+        long today = LocalDate.now().toEpochDay();
+
+        // 1. Eventos de las estadías activas (las que todavía tienen noches desde hoy).
+        //    Se codifican como día * 2 + tipo, con salida = 0 y entrada = 1: al ordenar,
+        //    en un mismo día las salidas van antes que las entradas (esa noche ya está libre).
+        long[] events;
+        int count = 0;
+        calendarLock.readLock().lock();
+        try {
+            events = new long[staysByReservation.size() * 2];
+            for (Stay stay : staysByReservation.values()) {
+                if (stay.toDay() <= today || (typeId != null && stay.typeId() != typeId)) {
+                    continue;
+                }
+                events[count++] = Math.max(stay.fromDay(), today) * 2 + 1;
+                events[count++] = stay.toDay() * 2;
+            }
+        } finally {
+            calendarLock.readLock().unlock();
+        }
+        Arrays.sort(events, 0, count);
+
+        // 2. Barrido: entre un evento y el siguiente la ocupación es constante
+        int occupied = 0;
+        for (int i = 0; i < count; i++) {
+            long day = events[i] >> 1;
+            if (i > 0 && occupied >= capacity) {
+                for (long d = events[i - 1] >> 1; d < day; d++) {
+                    dates.add(LocalDate.ofEpochDay(d));
+                }
+            }
+            occupied += (events[i] & 1) == 1 ? 1 : -1;
+        }
+        return dates;
+    }
+
+    /**
+     * Verifica, sin ir a la base de datos, si una habitación está libre para [entrada, salida).
+     * @param roomId Habitación física a consultar.
+     * @param entryDate Fecha de ingreso.
+     * @param departureDate Fecha de salida (ese día la habitación ya queda libre).
+     * @param excludedReservationId Reserva que se está editando (no choca consigo misma), o null.
+     */
+    public boolean isRoomFree(Integer roomId, LocalDate entryDate, LocalDate departureDate, Integer excludedReservationId) {
+        awaitLoaded();
+        ReentrantLock roomLock = roomLocks[stripeOf(roomId)];
+        roomLock.lock();
+        try {
+            return roomStays.isFree(roomId, entryDate.toEpochDay(), departureDate.toEpochDay(), excludedReservationId);
+        } finally {
+            roomLock.unlock();
+        }
+    }
+
+    /**
+     * Copia la ocupación de varios tipos de habitación para un rango de noches, en una sola lectura.
+     * @param typeIds Tipos de habitación a consultar.
+     * @param fromDate Primera noche del rango.
+     * @param days Cantidad de noches.
+     * @return Mapa type_id → arreglo de ocupación (posición "i" = fromDate + i días).
+     */
+    public Map<Integer, int[]> occupancy(Collection<Integer> typeIds, LocalDate fromDate, int days) {
+        awaitLoaded();
+        Map<Integer, int[]> result = new HashMap<>();
+        long fromDay = fromDate.toEpochDay();
+        calendarLock.readLock().lock();
+        try {
+            for (Integer typeId : typeIds) {
+                result.put(typeId, calendar.occupiedRange(typeId, fromDay, days));
+            }
+        } finally {
+            calendarLock.readLock().unlock();
+        }
+        return result;
+    }
+
+    // ── Lógica interna ──────────────────────────────────────────────────────
+
+    private void awaitLoaded() {
+        try {
+            if (!loaded.await(WARM_UP_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                throw new RuntimeException("La disponibilidad todavía se está cargando. Intente nuevamente en unos segundos.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("La disponibilidad todavía se está cargando. Intente nuevamente en unos segundos.");
+        }
+    }
+
+    /**
+     * Anota un cambio local de la reserva: en curso hasta que su transacción termine, y luego
+     * invisible para las lecturas de la BD que empezaron antes de ese momento.
+     */
+    private void trackLocalChange(Integer reservationId) {
+        if (reservationId == null) {
+            return;
+        }
+        localChanges.compute(reservationId, (id, change) -> change == null
+                ? new LocalChange(1, 0)
+                : new LocalChange(change.inFlight() + 1, change.visibleFrom()));
+        afterCompletion(() -> localChanges.compute(reservationId, (id, change) ->
+                new LocalChange(change.inFlight() - 1, refreshGeneration.get() + 1)));
+    }
+
+    private boolean isShadowedByLocalChange(Integer reservationId, long generation) {
+        LocalChange change = localChanges.get(reservationId);
+        return change != null && !change.isVisibleTo(generation);
+    }
+
+    /**
+     * Reemplaza la estadía registrada de una reserva por otra (o la quita si "next" es null).
+     * Toma los candados de la habitación anterior y de la nueva (siempre en el mismo orden
+     * para evitar deadlocks) y, si se pide, valida que la nueva no choque con otra estadía.
+     * @return La estadía que tenía la reserva antes del cambio (o null).
+     */
+    private Stay replace(Integer reservationId, Stay next, boolean checkConflict) {
+        if (reservationId == null) {
+            return null;
+        }
+        while (true) {
+            Stay previous = staysByReservation.get(reservationId);
+            List<ReentrantLock> held = lockRooms(previous, next);
+            try {
+                // Si otra operación cambió la habitación de esta reserva mientras esperábamos, reintenta
+                if (staysByReservation.get(reservationId) != previous) {
+                    continue;
+                }
+                if (checkConflict && next != null
+                        && !roomStays.isFree(next.roomId(), next.fromDay(), next.toDay(), reservationId)) {
+                    throw new RuntimeException("La habitación ya está reservada para las fechas seleccionadas.");
+                }
+
+                calendarLock.writeLock().lock();
+                try {
+                    if (previous != null) {
+                        calendar.add(previous.typeId(), previous.fromDay(), previous.toDay(), -1);
+                        roomStays.remove(previous.roomId(), reservationId, previous.fromDay());
+                        staysByReservation.remove(reservationId);
+                    }
+                    if (next != null) {
+                        calendar.add(next.typeId(), next.fromDay(), next.toDay(), 1);
+                        roomStays.add(next.roomId(), reservationId, next.fromDay(), next.toDay());
+                        staysByReservation.put(reservationId, next);
+                    }
+                } finally {
+                    calendarLock.writeLock().unlock();
+                }
+                notifyListeners(previous);
+                notifyListeners(next);
+                return previous;
+            } finally {
+                for (ReentrantLock roomLock : held) {
+                    roomLock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Toma los candados de las habitaciones involucradas en orden ascendente de stripe.
+     * Si alguno no se libera a tiempo, suelta los que ya tenía y falla rápido.
+     */
+    private List<ReentrantLock> lockRooms(Stay previous, Stay next) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        if (previous != null) {
+            stripes.add(stripeOf(previous.roomId()));
+        }
+        if (next != null) {
+            stripes.add(stripeOf(next.roomId()));
+        }
+
+        List<ReentrantLock> held = new ArrayList<>(stripes.size());
+        try {
+            for (Integer stripe : stripes) {
+                ReentrantLock roomLock = roomLocks[stripe];
+                if (!roomLock.tryLock(ROOM_LOCK_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    throw new RuntimeException("La habitación está siendo reservada en este momento. Intente nuevamente.");
+                }
+                held.add(roomLock);
+            }
+            return held;
+        } catch (InterruptedException | RuntimeException e) {
+            for (ReentrantLock roomLock : held) {
+                roomLock.unlock();
+            }
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("La reserva fue interrumpida.", e);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+
+    private void notifyListeners(Stay stay) {
+        if (stay == null) {
+            return;
+        }
+        for (OccupancyListener listener : listeners) {
+            listener.onOccupancyChanged(stay.typeId(), stay.fromDay(), stay.toDay());
+        }
+    }
+
+    private static int stripeOf(int roomId) {
+        return roomId & (ROOM_STRIPES - 1);
+    }
+
+    /**
+     * Convierte una reserva en la estadía que ocupa, o null si no ocupa habitación
+     * (cancelada o con datos incompletos).
+     */
+    private static Stay toStay(Reservation reservation) {
+        if (reservation.getReservationId() == null
+                || "Cancelled".equalsIgnoreCase(reservation.getState())
+                || reservation.getRoom() == null
+                || reservation.getRoom().getRoomType() == null
+                || reservation.getEntryDate() == null
+                || reservation.getDepartureDate() == null) {
+            return null;
+        }
+        return new Stay(
+            reservation.getRoom().getIdRoom(),
+            reservation.getRoom().getRoomType().getIdTipo(),
+            reservation.getEntryDate().toEpochDay(),
+            reservation.getDepartureDate().toEpochDay()
+        );
+    }
+
+    private static Stay toStay(ReservationStayDTO row) {
+        if ("Cancelled".equalsIgnoreCase(row.state())
+                || row.roomId() == null
+                || row.typeId() == null
+                || row.entryDate() == null
+                || row.departureDate() == null) {
+            return null;
+        }
+        return new Stay(row.roomId(), row.typeId(), row.entryDate().toEpochDay(), row.departureDate().toEpochDay());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static void onRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Interesado en los cambios de ocupación. Se llama con los candados del índice tomados,
+     * así que solo debe anotar el cambio y procesarlo en otro hilo.
+     */
+    public interface OccupancyListener {
+
+        /**
+         * La ocupación del tipo cambió en las noches [fromDay, toDay) (epoch days).
+         */
+        void onOccupancyChanged(int typeId, long fromDay, long toDay);
+    }
+
+    /**
+     * Datos mínimos de una estadía que necesita el índice.
+     */
+    private record Stay(int roomId, int typeId, long fromDay, long toDay) {}
+
+    /**
+     * Cambio local de una reserva.
+     * @param inFlight Transacciones todavía abiertas que la modificaron.
+     * @param visibleFrom Primera generación de lectura que ya ve el último cambio confirmado.
+     */
+    private record LocalChange(int inFlight, long visibleFrom) {
+
+        boolean isVisibleTo(long generation) {
+            return inFlight == 0 && generation >= visibleFrom;
+        }
+    }
+}
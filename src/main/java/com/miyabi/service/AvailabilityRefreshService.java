@@ -0,0 +1,178 @@
+package com.miyabi.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.miyabi.dto.ReservationStayDTO;
+import com.miyabi.models.ReservationDeletion;
+import com.miyabi.repository.ReservationDeletionRepository;
+import com.miyabi.repository.ReservationRepository;
+
+/**
+ * Mantiene cargado el índice de disponibilidad (AvailabilityIndexService) desde la BD.
+ *
+ * 1. WARM-UP: al arrancar, antes de que la aplicación se reporte lista (ApplicationRunner),
+ *    recorre como flujo las reservas activas y las carga por bloques. Así, después de un
+ *    despliegue las primeras visitas al calendario no pagan una lectura completa de la tabla.
+ * 2. ACTUALIZACIÓN INCREMENTAL: cada cierto tiempo lee las reservas creadas o modificadas
+ *    (reservations.updated_at) y las eliminadas (reservation_deletions) desde la última lectura,
+ *    y las aplica: altas, cambios de fechas o habitación, cancelaciones y bajas.
+ *
+ * La fecha de modificación se asigna al ejecutar el INSERT/UPDATE, no al confirmar: una transacción
+ * larga puede confirmar un cambio con fecha anterior a la última ya leída. Por eso cada lectura
+ * vuelve a empezar un margen antes (miyabi.availability.refresh-overlap-ms, 2 minutos por defecto);
+ * volver a aplicar una fila sin cambios no tiene efecto. Las filas de reservas que esta instancia
+ * está modificando (o que confirmó después de empezar la lectura) no se aplican: el índice ya
+ * tiene la versión más nueva (ver AvailabilityIndexService.beginRefresh).
+ */
+@Service
+public class AvailabilityRefreshService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityRefreshService.class);
+
+    // Filas por bloque al cargar el índice y al leer novedades.
+    private static final int BATCH_SIZE = 500;
+
+    // Marca de agua cuando la tabla todavía no tiene filas.
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationDeletionRepository reservationDeletionRepository;
+    private final AvailabilityIndexService availabilityIndexService;
+    private final Duration overlap;
+    private final Duration deletionsTtl;
+
+    // Marcas de agua: última modificación y última eliminación leídas (null = todavía no se cargó).
+    private volatile LocalDateTime lastUpdatedAt;
+    private volatile LocalDateTime lastDeletedAt;
+
+    public AvailabilityRefreshService(ReservationRepository reservationRepository,
+                                      ReservationDeletionRepository reservationDeletionRepository,
+                                      AvailabilityIndexService availabilityIndexService,
+                                      @Value("${miyabi.availability.refresh-overlap-ms:120000}") long overlapMillis,
+                                      @Value("${miyabi.availability.deletions-ttl-hours:168}") long deletionsTtlHours) {
+        this.reservationRepository = reservationRepository;
+        this.reservationDeletionRepository = reservationDeletionRepository;
+        this.availabilityIndexService = availabilityIndexService;
+        this.overlap = Duration.ofMillis(overlapMillis);
+        this.deletionsTtl = Duration.ofHours(deletionsTtlHours);
+    }
+
+    /**
+     * Carga inicial del índice. Se ejecuta una vez al arrancar, antes del evento ApplicationReady.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        // Las marcas se leen antes que las reservas: lo que cambie durante la carga se vuelve a leer después
+        LocalDateTime updatedMark = orEpoch(reservationRepository.findLastUpdatedAt());
+        LocalDateTime deletedMark = orEpoch(reservationDeletionRepository.findLastDeletedAt());
+        Integer maxId = reservationRepository.findMaxReservationId();
+        int mark = maxId != null ? maxId : 0;
+
+        int loaded = 0;
+        try (Stream<ReservationStayDTO> stays = reservationRepository.streamActiveStays(mark, LocalDate.now())) {
+            List<ReservationStayDTO> batch = new ArrayList<>(BATCH_SIZE);
+            Iterator<ReservationStayDTO> iterator = stays.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == BATCH_SIZE) {
+                    availabilityIndexService.warmUp(batch);
+                    loaded += batch.size();
+                    batch.clear();
+                }
+            }
+            availabilityIndexService.warmUp(batch);
+            loaded += batch.size();
+        }
+
+        lastDeletedAt = deletedMark;
+        lastUpdatedAt = updatedMark;
+        availabilityIndexService.markLoaded();
+        log.info("Índice de disponibilidad cargado: {} reservas activas en {} ms", loaded, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Actualización incremental: aplica las reservas creadas, modificadas o eliminadas desde la
+     * última lectura (menos el margen de solapamiento).
+     */
+    @Scheduled(fixedDelayString = "${miyabi.availability.refresh-ms:30000}",
+               initialDelayString = "${miyabi.availability.refresh-ms:30000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        LocalDateTime updatedMark = lastUpdatedAt;
+        if (updatedMark == null) {
+            return; // El warm-up todavía no terminó
+        }
+
+        long generation = availabilityIndexService.beginRefresh();
+
+        // 1. Altas y cambios (una cancelación es un cambio de estado: la reserva deja de ocupar)
+        LocalDateTime afterTime = updatedMark.minus(overlap);
+        Integer afterId = 0;
+        List<ReservationStayDTO> rows;
+        do {
+            rows = reservationRepository.findStaysChangedAfter(afterTime, afterId, PageRequest.of(0, BATCH_SIZE));
+            for (ReservationStayDTO row : rows) {
+                availabilityIndexService.apply(row, generation);
+                afterTime = row.updatedAt();
+                afterId = row.reservationId();
+                if (row.updatedAt().isAfter(updatedMark)) {
+                    updatedMark = row.updatedAt();
+                }
+            }
+        } while (rows.size() == BATCH_SIZE);
+        lastUpdatedAt = updatedMark;
+
+        // 2. Bajas
+        LocalDateTime deletedMark = lastDeletedAt;
+        afterTime = deletedMark.minus(overlap);
+        afterId = 0;
+        List<ReservationDeletion> deletions;
+        do {
+            deletions = reservationDeletionRepository.findDeletedAfter(afterTime, afterId, PageRequest.of(0, BATCH_SIZE));
+            for (ReservationDeletion deletion : deletions) {
+                availabilityIndexService.remove(deletion.getReservationId(), generation);
+                afterTime = deletion.getDeletedAt();
+                afterId = deletion.getReservationId();
+                if (deletion.getDeletedAt().isAfter(deletedMark)) {
+                    deletedMark = deletion.getDeletedAt();
+                }
+            }
+        } while (deletions.size() == BATCH_SIZE);
+        lastDeletedAt = deletedMark;
+    }
+
+    /**
+     * Borra las marcas de eliminación viejas (por defecto, de más de 7 días): todas las instancias
+     * ya las leyeron, y una instancia que arranca carga el índice desde cero.
+     */
+    @Scheduled(fixedDelayString = "${miyabi.availability.deletions-cleanup-ms:3600000}",
+               initialDelayString = "${miyabi.availability.deletions-cleanup-ms:3600000}")
+    public void purgeDeletions() {
+        int removed = reservationDeletionRepository.deleteOlderThan(LocalDateTime.now().minus(deletionsTtl));
+        if (removed > 0) {
+            log.info("Marcas de reservas eliminadas purgadas: {}", removed);
+        }
+    }
+
+    private static LocalDateTime orEpoch(LocalDateTime value) {
+        return value != null ? value : EPOCH;
+    }
+}
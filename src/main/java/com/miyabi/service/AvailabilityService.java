@@ -0,0 +1,205 @@
+package com.miyabi.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.miyabi.dto.MonthAvailabilityDTO;
+import com.miyabi.dto.RoomSearchResultDTO;
+import com.miyabi.models.RoomType;
+import com.miyabi.service.RoomInventoryService.RoomTypeStock;
+
+/**
+ * Motor de disponibilidad del calendario de reservas.
+ * Cruza el inventario vendible (RoomInventoryService) con la ocupación en memoria
+ * (AvailabilityIndexService) sin consultar la base de datos en cada petición.
+ */
+@Service
+public class AvailabilityService {
+
+    // Llave de la consulta de fechas llenas del hotel completo (los type_id empiezan en 1).
+    private static final int ALL_TYPES = 0;
+
+    private final RoomInventoryService roomInventoryService;
+    private final AvailabilityIndexService availabilityIndexService;
+
+    // Agrupan las peticiones idénticas que llegan al mismo tiempo (un solo cálculo por llave).
+    private final SingleFlight<YearMonth, MonthAvailabilityDTO> monthFlight = new SingleFlight<>();
+    private final SingleFlight<Integer, List<String>> unavailableDatesFlight = new SingleFlight<>();
+
+    public AvailabilityService(RoomInventoryService roomInventoryService,
+                               AvailabilityIndexService availabilityIndexService,
+                               MeterRegistry meterRegistry) {
+        this.roomInventoryService = roomInventoryService;
+        this.availabilityIndexService = availabilityIndexService;
+
+        // Métricas: /actuator/metrics/miyabi.availability.requests?tag=outcome:shared = cálculos ahorrados
+        registerCounters(meterRegistry, "month", monthFlight);
+        registerCounters(meterRegistry, "unavailable-dates", unavailableDatesFlight);
+    }
+
+    /**
+     * Disponibilidad del mes. Las peticiones simultáneas del mismo mes comparten un solo cálculo.
+     * @param month Mes a consultar.
+     * @return Disponibilidad del mes en formato columnar.
+     */
+    public MonthAvailabilityDTO getMonthAvailability(YearMonth month) {
+        return monthFlight.execute(month, () -> computeMonthAvailability(month));
+    }
+
+    /**
+     * Fechas (desde hoy) sin habitaciones libres, para bloquearlas en el calendario.
+     * Las peticiones simultáneas con el mismo filtro comparten un solo cálculo.
+     * @param typeId Tipo de habitación, o null para el hotel completo.
+     * @return Fechas en formato yyyy-MM-dd, o null si el tipo no tiene habitaciones a la venta.
+     */
+    public List<String> findUnavailableDates(Integer typeId) {
+        return unavailableDatesFlight.execute(typeId != null ? typeId : ALL_TYPES, () -> {
+            int capacity;
+            if (typeId != null) {
+                RoomTypeStock stock = roomInventoryService.findByType(typeId);
+                if (stock == null) {
+                    return null;
+                }
+                capacity = stock.capacity();
+            } else {
+                capacity = roomInventoryService.totalRooms();
+            }
+
+            // Si la ocupación de una fecha alcanza la capacidad, se bloquea
+            return availabilityIndexService.findFullyBookedDates(typeId, capacity).stream()
+                    .map(LocalDate::toString)
+                    .collect(Collectors.toUnmodifiableList());
+        });
+    }
+
+    /**
+     * Calcula, para cada día del mes, cuántas habitaciones quedan libres y cuál es
+     * la tarifa más barata que todavía se puede vender (base o temporada alta según la fecha).
+     * Se hace en una sola pasada sobre el rango de fechas del mes.
+     */
+    private MonthAvailabilityDTO computeMonthAvailability(YearMonth month) {
+        Collection<RoomTypeStock> stocks = roomInventoryService.findAll();
+        LocalDate firstDay = month.atDay(1);
+        int days = month.lengthOfMonth();
+
+        // 1. Ocupación de todos los tipos para el mes completo (una sola lectura del índice)
+        Map<Integer, int[]> occupancy = availabilityIndexService.occupancy(
+                stocks.stream().map(RoomTypeStock::typeId).collect(Collectors.toList()), firstDay, days);
+
+        int[] dayOffsets = new int[days];
+        int[] freeRooms = new int[days];
+        BigDecimal[] minPrices = new BigDecimal[days];
+
+        // 2. Recorre el mes una vez: suma habitaciones libres y busca el precio más bajo vendible
+        for (int d = 0; d < days; d++) {
+            LocalDate night = firstDay.plusDays(d);
+            dayOffsets[d] = d;
+
+            for (RoomTypeStock stock : stocks) {
+                int free = stock.capacity() - occupancy.get(stock.typeId())[d];
+                if (free <= 0) {
+                    continue;
+                }
+                freeRooms[d] += free;
+
+                BigDecimal price = roomInventoryService.priceFor(stock, night);
+                if (price != null && (minPrices[d] == null || price.compareTo(minPrices[d]) < 0)) {
+                    minPrices[d] = price;
+                }
+            }
+        }
+
+        return new MonthAvailabilityDTO(month.getYear(), month.getMonthValue(), dayOffsets, freeRooms, minPrices);
+    }
+
+    /**
+     * BUSCADOR DE HABITACIONES POR FECHAS:
+     * Devuelve los tipos de habitación que tienen al menos una habitación física libre durante
+     * toda la estadía y capacidad para todos los huéspedes, ordenados del más barato al más caro
+     * (a igual precio, primero el de menor capacidad, que es el que mejor se ajusta al grupo).
+     * Todo se resuelve en memoria: inventario + índice de estadías por habitación.
+     * @param checkIn Fecha de ingreso.
+     * @param checkOut Fecha de salida.
+     * @param adults Número de adultos.
+     * @param children Número de niños.
+     */
+    public List<RoomSearchResultDTO> searchRoomTypes(LocalDate checkIn, LocalDate checkOut, int adults, int children) {
+        int guests = adults + children;
+        int nights = (int) ChronoUnit.DAYS.between(checkIn, checkOut);
+        List<RoomSearchResultDTO> results = new ArrayList<>();
+
+        for (RoomTypeStock stock : roomInventoryService.findAll()) {
+            if (stock.capacityPeople() < guests) {
+                continue;
+            }
+
+            // Cuenta las habitaciones físicas libres de este tipo (cada consulta es O(log n))
+            int freeRooms = 0;
+            Integer firstFreeRoom = null;
+            for (int roomId : stock.roomIds()) {
+                if (availabilityIndexService.isRoomFree(roomId, checkIn, checkOut, null)) {
+                    freeRooms++;
+                    if (firstFreeRoom == null) {
+                        firstFreeRoom = roomId;
+                    }
+                }
+            }
+            if (freeRooms == 0) {
+                continue;
+            }
+
+            // Precio total de la estadía: cada noche con su tarifa de temporada
+            BigDecimal total = BigDecimal.ZERO;
+            for (LocalDate night = checkIn; night.isBefore(checkOut); night = night.plusDays(1)) {
+                BigDecimal price = roomInventoryService.priceFor(stock, night);
+                total = total.add(price != null ? price : BigDecimal.ZERO);
+            }
+
+            RoomType type = stock.roomType();
+            RoomSearchResultDTO result = new RoomSearchResultDTO();
+            result.setIdTipo(type.getIdTipo());
+            result.setNameType(type.getNameType());
+            result.setShortDescription(type.getShortDescription());
+            result.setImageUrl(type.getImageUrl());
+            result.setRoomSize(type.getRoomSize());
+            result.setBedType(type.getBedType());
+            result.setCapacityPeople(type.getCapacityPeople());
+            result.setBasePrice(type.getBasePrice());
+            result.setNights(nights);
+            result.setTotalPrice(total);
+            result.setFreeRooms(freeRooms);
+            result.setRoomId(firstFreeRoom);
+            results.add(result);
+        }
+
+        results.sort(Comparator.comparing(RoomSearchResultDTO::getTotalPrice)
+                .thenComparing(RoomSearchResultDTO::getCapacityPeople));
+        return results;
+    }
+
+    private static void registerCounters(MeterRegistry registry, String query, SingleFlight<?, ?> flight) {
+        FunctionCounter.builder("miyabi.availability.requests", flight, SingleFlight::computedCount)
+                .description("Consultas de disponibilidad calculadas")
+                .tag("query", query)
+                .tag("outcome", "computed")
+                .register(registry);
+        FunctionCounter.builder("miyabi.availability.requests", flight, SingleFlight::sharedCount)
+                .description("Consultas de disponibilidad atendidas con un cálculo en curso (ahorradas)")
+                .tag("query", query)
+                .tag("outcome", "shared")
+                .register(registry);
+    }
+}
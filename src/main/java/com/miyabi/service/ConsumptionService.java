@@ -15,10 +15,12 @@ import com.miyabi.repository.ConsumptionRepository;
 public class ConsumptionService {
 
     private final ConsumptionRepository consumptionRepository;
+    private final ReceiptCache receiptCache;
 
     // Inyección de dependencias por constructor
-    public ConsumptionService(ConsumptionRepository consumptionRepository) {
+    public ConsumptionService(ConsumptionRepository consumptionRepository, ReceiptCache receiptCache) {
         this.consumptionRepository = consumptionRepository;
+        this.receiptCache = receiptCache;
     }
 
     /**
@@ -62,6 +64,11 @@ public class ConsumptionService {
             consumption.setSubtotal(calculatedSubtotal);
         }
         
-        return consumptionRepository.save(consumption);
+        Consumption saved = consumptionRepository.save(consumption);
+        // La boleta de la reserva cambió: se descartan sus PDF ya generados
+        if (saved.getReservation() != null) {
+            receiptCache.invalidate(saved.getReservation().getReservationId());
+        }
+        return saved;
     }
 }
\ No newline at end of file
@@ -0,0 +1,232 @@
+package com.miyabi.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.miyabi.dto.GroupBookingRequestDTO;
+import com.miyabi.dto.GroupBookingResultDTO;
+import com.miyabi.models.Guest;
+import com.miyabi.models.Reservation;
+import com.miyabi.models.Room;
+import com.miyabi.repository.ReservationRepository;
+import com.miyabi.service.RoomInventoryService.RoomTypeStock;
+
+/**
+ * Reservas grupales (empresas, eventos): de 10 a 40 habitaciones para las mismas fechas en una sola
+ * operación, en lugar de un POST por habitación.
+ *
+ * FLUJO (todo o nada):
+ * 1. Se validan el huésped, las fechas y la ocupación de cada línea con las mismas reglas que una
+ *    reserva individual.
+ * 2. Se eligen las habitaciones en una sola pasada sobre el inventario y el índice de ocupación en
+ *    memoria (sin consultas por habitación): primero las pedidas por número, luego las pedidas por tipo.
+ * 3. Se cargan las habitaciones elegidas en una sola consulta, se generan todos los códigos de una vez
+ *    y se guardan todas las reservas en la misma transacción.
+ * 4. Se ocupan las fechas en el índice. Si otra reserva ganó alguna habitación entre el paso 2 y este,
+ *    se lanza la excepción: la transacción hace rollback y el índice libera también las habitaciones
+ *    del grupo que ya se habían ocupado.
+ */
+@Service
+public class GroupBookingService {
+
+    private final ReservationRepository reservationRepository;
+    private final GuestService guestService;
+    private final RoomService roomService;
+    private final RoomInventoryService roomInventoryService;
+    private final AvailabilityIndexService availabilityIndexService;
+    private final ReservationCodeAllocator reservationCodeAllocator;
+    private final int maxRooms;
+
+    public GroupBookingService(ReservationRepository reservationRepository, GuestService guestService,
+                               RoomService roomService, RoomInventoryService roomInventoryService,
+                               AvailabilityIndexService availabilityIndexService,
+                               ReservationCodeAllocator reservationCodeAllocator,
+                               @Value("${miyabi.group-booking.max-rooms:50}") int maxRooms) {
+        this.reservationRepository = reservationRepository;
+        this.guestService = guestService;
+        this.roomService = roomService;
+        this.roomInventoryService = roomInventoryService;
+        this.availabilityIndexService = availabilityIndexService;
+        this.reservationCodeAllocator = reservationCodeAllocator;
+        this.maxRooms = maxRooms;
+    }
+
+    /**
+     * Crea todas las reservas del grupo, o ninguna.
+     * @return Reservas creadas (código, habitación y total de cada una) y el total del grupo.
+     * @throws RuntimeException con el motivo si algún dato es inválido o falta alguna habitación.
+     */
+    @Transactional
+    public GroupBookingResultDTO book(GroupBookingRequestDTO request) {
+
+        // 1. VALIDACIONES GENERALES
+        if (request.guestId() == null) {
+            throw new RuntimeException("La reserva grupal debe estar asociada a un cliente.");
+        }
+        if (request.entryDate() == null || request.departureDate() == null
+                || !request.departureDate().isAfter(request.entryDate())) {
+            throw new RuntimeException("La fecha de salida debe ser posterior a la fecha de ingreso.");
+        }
+        if (request.items() == null || request.items().isEmpty()) {
+            throw new RuntimeException("La reserva grupal debe incluir al menos una habitación.");
+        }
+        Guest guest = guestService.findById(request.guestId());
+        if (guest == null) {
+            throw new RuntimeException("Cliente no encontrado en la base de datos.");
+        }
+
+        int requested = 0;
+        for (GroupBookingRequestDTO.Item item : request.items()) {
+            validateOccupancy(item);
+            if (item.roomId() == null && item.typeId() == null) {
+                throw new RuntimeException("Cada línea debe indicar una habitación o un tipo de habitación.");
+            }
+            requested += item.roomId() != null ? 1 : quantity(item);
+        }
+        if (requested > maxRooms) {
+            throw new RuntimeException("Una reserva grupal no puede superar las " + maxRooms + " habitaciones.");
+        }
+
+        // 2. ASIGNACIÓN DE HABITACIONES (una sola pasada en memoria)
+        LocalDate entryDate = request.entryDate();
+        LocalDate departureDate = request.departureDate();
+        Set<Integer> picked = new LinkedHashSet<>();
+        Map<Integer, GroupBookingRequestDTO.Item> itemByRoom = new HashMap<>();
+
+        // 2.1 Habitaciones pedidas por número (van primero para que el reparto por tipo no las tome)
+        for (GroupBookingRequestDTO.Item item : request.items()) {
+            if (item.roomId() == null) {
+                continue;
+            }
+            if (roomInventoryService.findByRoom(item.roomId()) == null) {
+                throw new RuntimeException("La habitación " + item.roomId() + " no existe o no está a la venta.");
+            }
+            if (!picked.add(item.roomId())) {
+                throw new RuntimeException("La habitación " + item.roomId() + " está repetida en la reserva grupal.");
+            }
+            if (!availabilityIndexService.isRoomFree(item.roomId(), entryDate, departureDate, null)) {
+                throw new RuntimeException("La habitación " + item.roomId() + " ya está reservada para las fechas seleccionadas.");
+            }
+            itemByRoom.put(item.roomId(), item);
+        }
+
+        // 2.2 Habitaciones pedidas por tipo: las primeras libres de ese tipo que nadie más del grupo tomó
+        for (GroupBookingRequestDTO.Item item : request.items()) {
+            if (item.roomId() != null) {
+                continue;
+            }
+            RoomTypeStock stock = roomInventoryService.findByType(item.typeId());
+            if (stock == null) {
+                throw new RuntimeException("El tipo de habitación " + item.typeId() + " no tiene habitaciones a la venta.");
+            }
+            int missing = quantity(item);
+            for (int roomId : stock.roomIds()) {
+                if (missing == 0) {
+                    break;
+                }
+                if (!picked.contains(roomId) && availabilityIndexService.isRoomFree(roomId, entryDate, departureDate, null)) {
+                    picked.add(roomId);
+                    itemByRoom.put(roomId, item);
+                    missing--;
+                }
+            }
+            if (missing > 0) {
+                throw new RuntimeException("No hay " + quantity(item) + " habitaciones libres del tipo "
+                        + stock.roomType().getNameType() + " para las fechas seleccionadas.");
+            }
+        }
+
+        // 3. ALTA DE TODAS LAS RESERVAS EN LA MISMA TRANSACCIÓN
+        Map<Integer, Room> rooms = new HashMap<>();
+        for (Room room : roomService.findAllById(picked)) {
+            rooms.put(room.getIdRoom(), room);
+        }
+        int nights = (int) ChronoUnit.DAYS.between(entryDate, departureDate);
+        List<String> codes = reservationCodeAllocator.nextCodes(picked.size());
+
+        List<Reservation> reservations = new ArrayList<>(picked.size());
+        for (Integer roomId : picked) {
+            Room room = rooms.get(roomId);
+            if (room == null) {
+                throw new RuntimeException("La habitación " + roomId + " no existe.");
+            }
+            GroupBookingRequestDTO.Item item = itemByRoom.get(roomId);
+            BigDecimal subtotal = subtotal(item, roomInventoryService.findByRoom(roomId), entryDate, nights);
+
+            Reservation reservation = new Reservation();
+            reservation.setGuest(guest);
+            reservation.setRoom(room);
+            reservation.setEntryDate(entryDate);
+            reservation.setDepartureDate(departureDate);
+            reservation.setNumberNights(nights);
+            reservation.setPricePerNight(subtotal.divide(BigDecimal.valueOf(nights), 2, RoundingMode.HALF_UP));
+            reservation.setRoomSubtotal(subtotal);
+            reservation.setTotalPay(subtotal); // Monto inicial sin consumos extras
+            reservation.setNumAdults(item.numAdults() != null ? item.numAdults() : 1);
+            reservation.setNumChildren(item.numChildren() != null ? item.numChildren() : 0);
+            reservation.setObservations(request.observations());
+            reservation.setReservationCode(codes.get(reservations.size()));
+            reservation.setState("Pending");
+            reservations.add(reservation);
+        }
+        List<Reservation> saved = reservationRepository.saveAll(reservations);
+
+        // 4. OCUPACIÓN DE LAS FECHAS: si alguna habitación ya no está libre, rollback de todo el grupo
+        List<GroupBookingResultDTO.Line> lines = new ArrayList<>(saved.size());
+        BigDecimal total = BigDecimal.ZERO;
+        for (Reservation reservation : saved) {
+            availabilityIndexService.reserve(reservation);
+            lines.add(new GroupBookingResultDTO.Line(reservation.getReservationId(), reservation.getReservationCode(),
+                    reservation.getRoom().getIdRoom(), reservation.getRoom().getRoomNumber(), reservation.getTotalPay()));
+            total = total.add(reservation.getTotalPay());
+        }
+        return new GroupBookingResultDTO(lines, total);
+    }
+
+    /**
+     * Mismas reglas de capacidad que una reserva individual (por habitación).
+     */
+    private static void validateOccupancy(GroupBookingRequestDTO.Item item) {
+        int adults = item.numAdults() != null ? item.numAdults() : 1;
+        int children = item.numChildren() != null ? item.numChildren() : 0;
+        if (adults + children > 6) {
+            throw new RuntimeException("No aceptamos reservas para más de 6 personas en una habitación.");
+        }
+        if (adults < 1) {
+            throw new RuntimeException("Debe haber al menos 1 adulto en cada habitación.");
+        }
+        if (item.roomId() == null && quantity(item) < 1) {
+            throw new RuntimeException("La cantidad de habitaciones por tipo debe ser al menos 1.");
+        }
+    }
+
+    private static int quantity(GroupBookingRequestDTO.Item item) {
+        return item.quantity() != null ? item.quantity() : 1;
+    }
+
+    /**
+     * Subtotal de la estadía: tarifa pactada × noches, o la suma de la tarifa de temporada de cada noche.
+     */
+    private BigDecimal subtotal(GroupBookingRequestDTO.Item item, RoomTypeStock stock, LocalDate entryDate, int nights) {
+        if (item.pricePerNight() != null) {
+            return item.pricePerNight().multiply(BigDecimal.valueOf(nights));
+        }
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < nights; i++) {
+            subtotal = subtotal.add(roomInventoryService.priceFor(stock, entryDate.plusDays(i)));
+        }
+        return subtotal;
+    }
+}
@@ -1,8 +1,10 @@
 package com.miyabi.service;
 
 import java.util.List;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import com.miyabi.dto.PickerOptionDTO;
 import com.miyabi.models.Guest;
 import com.miyabi.repository.GuestRepository;
 
@@ -27,6 +29,20 @@ public class GuestService {
         return guestRepository.findAll();
     }
 
+    /**
+     * Sugerencias para el selector de huéspedes de la intranet (autocompletado).
+     * Reemplaza a cargar todos los clientes en el formulario: solo viajan las primeras coincidencias.
+     * @param text Lo que el empleado lleva escrito (DNI, nombre, apellido o email).
+     * @param limit Cantidad máxima de sugerencias.
+     */
+    public List<PickerOptionDTO> search(String text, int limit) {
+        // Se escapan los comodines de LIKE para que "%" o "_" escritos por el usuario se busquen literalmente
+        String prefix = text.trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return guestRepository.searchByPrefix(prefix, PageRequest.of(0, limit)).stream()
+                .map(g -> new PickerOptionDTO(g.getIdGuest(), g.getNames() + " " + g.getSurnames() + " (" + g.getDni() + ")", null))
+                .toList();
+    }
+
     /**
      * Busca un huésped por su ID interno.
      */
@@ -0,0 +1,268 @@
+package com.miyabi.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rueda de temporizadores "hasheada" (hashed timer wheel).
+ * Sirve para vencer miles de tareas con plazo (ej. retenciones de habitaciones) sin crear
+ * una tarea programada por cada una: el tiempo se divide en "ticks" y cada tick tiene su
+ * casillero en un arreglo circular. Un único hilo avanza la rueda y vence el casillero actual.
+ *
+ * COSTOS: programar y cancelar son O(1); en cada tick solo se recorre un casillero.
+ * Los plazos más largos que una vuelta completa esperan con un contador de vueltas.
+ *
+ * Las altas y cancelaciones llegan por colas concurrentes y las aplica el propio hilo de la
+ * rueda, de modo que los casilleros nunca se tocan desde dos hilos a la vez.
+ */
+public class HashedTimerWheel {
+
+    private static final Logger log = LoggerFactory.getLogger(HashedTimerWheel.class);
+
+    // Máximo de altas que se pasan a la rueda en cada tick (evita que una ráfaga la frene).
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+
+    private final Queue<Timeout> additions = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancellations = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Thread worker;
+    private final long startTime;
+    private volatile boolean running = true;
+
+    // Solo lo usa el hilo de la rueda.
+    private long tick;
+
+    /**
+     * @param tickDuration Duración de cada tick (la precisión del vencimiento).
+     * @param unit Unidad de tickDuration.
+     * @param ticksPerWheel Cantidad de casilleros (se redondea a potencia de 2).
+     * @param threadName Nombre del hilo que avanza la rueda.
+     */
+    public HashedTimerWheel(long tickDuration, TimeUnit unit, int ticksPerWheel, String threadName) {
+        int size = Integer.highestOneBit(Math.max(ticksPerWheel, 2) - 1) << 1;
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.wheel = new Bucket[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::run, threadName);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Programa una tarea para que se ejecute pasado el plazo indicado (en el hilo de la rueda,
+     * por lo que debe ser corta).
+     * @return Manejador para cancelar la tarea antes de que venza.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("La rueda de temporizadores está detenida.");
+        }
+        long deadline = System.nanoTime() - startTime + unit.toNanos(delay);
+        Timeout timeout = new Timeout(this, task, deadline);
+        pending.incrementAndGet();
+        additions.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Cantidad de tareas programadas que aún no vencieron ni se cancelaron.
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    /**
+     * Detiene el hilo de la rueda; las tareas pendientes ya no se ejecutan.
+     */
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    // ── Hilo de la rueda ───────────────────────────────────────────────────
+
+    private void run() {
+        while (running) {
+            long deadline = tickNanos * (tick + 1);
+            long sleepNanos = deadline - (System.nanoTime() - startTime);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                }
+                continue; // Vuelve a medir: sleep puede despertar antes de tiempo
+            }
+            processCancellations();
+            transferAdditions();
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+
+    private void transferAdditions() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = additions.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state != Timeout.ST_INIT) {
+                continue; // Cancelada antes de entrar a la rueda
+            }
+            long ticks = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (ticks - tick) / wheel.length;
+            // Si el plazo ya pasó, va al casillero actual para vencer en este mismo tick
+            long slot = Math.max(ticks, tick);
+            wheel[(int) (slot & mask)].add(timeout);
+        }
+    }
+
+    private void processCancellations() {
+        Timeout timeout;
+        while ((timeout = cancellations.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * Manejador de una tarea programada en la rueda.
+     */
+    public static final class Timeout {
+
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final HashedTimerWheel timer;
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = ST_INIT;
+
+        // Datos de la lista del casillero (solo los toca el hilo de la rueda).
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(HashedTimerWheel timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancela la tarea si todavía no venció.
+         * @return true si se canceló; false si ya había vencido o se había cancelado antes.
+         */
+        public boolean cancel() {
+            if (!transition(ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            timer.pending.decrementAndGet();
+            timer.cancellations.add(this);
+            return true;
+        }
+
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+
+        private synchronized boolean transition(int expected, int target) {
+            if (state != expected) {
+                return false;
+            }
+            state = target;
+            return true;
+        }
+
+        private void expire() {
+            if (!transition(ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            timer.pending.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Falló una tarea de la rueda de temporizadores", e);
+            }
+        }
+    }
+
+    /**
+     * Casillero de la rueda: lista doblemente enlazada (alta y baja en O(1)).
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        /**
+         * Vence las tareas de esta vuelta y descuenta una vuelta a las demás.
+         */
+        void expire(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.deadline <= deadline) {
+                        timeout.expire();
+                    }
+                } else if (timeout.state == Timeout.ST_CANCELLED) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
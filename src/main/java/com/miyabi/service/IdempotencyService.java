@@ -0,0 +1,214 @@
+package com.miyabi.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.miyabi.models.IdempotencyRecord;
+import com.miyabi.repository.IdempotencyRecordRepository;
+
+/**
+ * Soporte de la cabecera "Idempotency-Key" para operaciones que no deben repetirse
+ * (la confirmación del checkout crea una reserva y un pago).
+ *
+ * 1. Memoria (LRU acotado): las respuestas recientes se repiten sin tocar la BD.
+ * 2. Tabla "idempotency_keys": sobrevive a reinicios y es compartida por todas las instancias.
+ *    La primera ejecución "reclama" la clave insertando la fila antes de ejecutar; si otra
+ *    instancia ya la reclamó, la inserción falla por llave duplicada y no se ejecuta dos veces.
+ *    El reclamo vence (miyabi.idempotency.claim-lease-ms, 5 minutos por defecto): si la instancia
+ *    se cayó antes de guardar la respuesta, el siguiente reintento toma la clave y ejecuta.
+ * 3. Duplicados simultáneos en la misma instancia esperan el resultado de la primera ejecución
+ *    en lugar de competir con ella.
+ *
+ * Solo se guardan las respuestas exitosas (2xx): si la operación falla, la clave se libera
+ * para que el cliente pueda reintentar.
+ */
+@Service
+public class IdempotencyService {
+
+    // Tiempo máximo que un duplicado espera a la primera ejecución.
+    private static final long WAIT_SECONDS = 30;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final long ttlHours;
+    private final Duration claimLease;
+
+    // Respuestas recientes (LRU: se descarta la menos usada al superar el máximo).
+    private final Map<String, Stored> recent;
+
+    // Ejecuciones en curso en esta instancia.
+    private final Map<String, CompletableFuture<Stored>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              @Value("${miyabi.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${miyabi.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${miyabi.idempotency.claim-lease-ms:300000}") long claimLeaseMillis) {
+        this.recordRepository = recordRepository;
+        this.ttlHours = ttlHours;
+        this.claimLease = Duration.ofMillis(claimLeaseMillis);
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Stored> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Ejecuta la operación una sola vez por clave y devuelve su respuesta (o la guardada).
+     * @param key Valor de la cabecera Idempotency-Key.
+     * @param requestHash Huella del cuerpo de la petición.
+     * @param operation Operación real; devuelve el código HTTP y el cuerpo de la respuesta.
+     * @return Respuesta a enviar; "replayed" indica que se repitió una respuesta anterior.
+     */
+    public Result execute(String key, String requestHash, Supplier<Result> operation) {
+        // 1. Respuesta reciente en memoria
+        Stored stored = recentGet(key);
+        if (stored != null) {
+            return replay(stored, requestHash);
+        }
+
+        // 2. ¿Ya hay una ejecución en curso con esta clave? Se espera su resultado
+        CompletableFuture<Stored> mine = new CompletableFuture<>();
+        CompletableFuture<Stored> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return awaitRunning(running, requestHash);
+        }
+
+        try {
+            Result result = executeOnce(key, requestHash, operation);
+            mine.complete(result.isSuccess() ? new Stored(requestHash, result.status(), result.body()) : null);
+            return result;
+        } catch (RuntimeException e) {
+            mine.complete(null);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Limpieza periódica de claves vencidas (por defecto, se guardan 24 horas).
+     */
+    @Scheduled(fixedDelayString = "${miyabi.idempotency.cleanup-ms:3600000}")
+    public void purgeExpired() {
+        recordRepository.deleteOlderThan(LocalDateTime.now().minusHours(ttlHours));
+    }
+
+    // ── Lógica interna ──────────────────────────────────────────────────────
+
+    private Result executeOnce(String key, String requestHash, Supplier<Result> operation) {
+        // 3. Respuesta guardada en la BD (ej. antes de un reinicio o en otra instancia)
+        IdempotencyRecord record = recordRepository.findById(key).orElse(null);
+        if (record != null && record.getStatusCode() != null) {
+            Stored stored = new Stored(record.getRequestHash(), record.getStatusCode(), record.getResponseBody());
+            recentPut(key, stored);
+            return replay(stored, requestHash);
+        }
+
+        if (record != null) {
+            // 4a. Reclamada y sin respuesta: se toma solo si el reclamo venció (la instancia se cayó)
+            LocalDateTime now = LocalDateTime.now();
+            if (recordRepository.takeOverExpiredClaim(key, requestHash, now, now.minus(claimLease)) == 0) {
+                return Result.conflict("La solicitud con esta clave todavía se está procesando.");
+            }
+            record.setRequestHash(requestHash);
+            record.setClaimedAt(now);
+        } else {
+            // 4b. Reclama la clave (falla si otra instancia la reclamó en este mismo instante)
+            record = new IdempotencyRecord(key, requestHash);
+            try {
+                recordRepository.saveAndFlush(record);
+            } catch (DataIntegrityViolationException e) {
+                return Result.conflict("La solicitud con esta clave todavía se está procesando.");
+            }
+        }
+
+        // 5. Ejecuta la operación real y guarda la respuesta (o libera la clave si falló)
+        Result result;
+        try {
+            result = operation.get();
+        } catch (RuntimeException e) {
+            recordRepository.deleteById(key);
+            throw e;
+        }
+        if (!result.isSuccess()) {
+            recordRepository.deleteById(key);
+            return result;
+        }
+        record.setStatusCode(result.status());
+        record.setResponseBody(result.body());
+        recordRepository.save(record);
+        recentPut(key, new Stored(requestHash, result.status(), result.body()));
+        return result;
+    }
+
+    private Result awaitRunning(CompletableFuture<Stored> running, String requestHash) {
+        try {
+            Stored stored = running.get(WAIT_SECONDS, TimeUnit.SECONDS);
+            if (stored == null) {
+                // La primera ejecución falló: el cliente puede reintentar con la misma clave
+                return Result.conflict("La solicitud original con esta clave falló. Intente nuevamente.");
+            }
+            return replay(stored, requestHash);
+        } catch (TimeoutException | ExecutionException e) {
+            return Result.conflict("La solicitud con esta clave todavía se está procesando.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.conflict("La solicitud con esta clave todavía se está procesando.");
+        }
+    }
+
+    private static Result replay(Stored stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            return new Result(422, "La clave de idempotencia ya se usó con otros datos.", false);
+        }
+        return new Result(stored.status(), stored.body(), true);
+    }
+
+    private Stored recentGet(String key) {
+        synchronized (recent) {
+            return recent.get(key);
+        }
+    }
+
+    private void recentPut(String key, Stored stored) {
+        synchronized (recent) {
+            recent.put(key, stored);
+        }
+    }
+
+    /**
+     * Respuesta guardada de una clave.
+     */
+    private record Stored(String requestHash, int status, String body) {}
+
+    /**
+     * Respuesta de una operación idempotente.
+     * @param status Código HTTP.
+     * @param body Cuerpo JSON (ya serializado) si fue exitosa; mensaje de error en texto plano si no.
+     * @param replayed true si es la repetición de una respuesta anterior.
+     */
+    public record Result(int status, String body, boolean replayed) {
+
+        public boolean isSuccess() {
+            return status >= 200 && status < 300;
+        }
+
+        static Result conflict(String message) {
+            return new Result(409, message, false);
+        }
+    }
+}
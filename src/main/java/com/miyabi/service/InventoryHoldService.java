@@ -0,0 +1,172 @@
+package com.miyabi.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.miyabi.dto.InventoryHoldDTO;
+import com.miyabi.models.Reservation;
+import com.miyabi.service.HashedTimerWheel.Timeout;
+import com.miyabi.service.RoomInventoryService.RoomTypeStock;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Retenciones temporales de habitaciones para el carrito de reservas.
+ * Cuando el huésped elige una habitación, se "aparta" por unos minutos para que nadie más
+ * llegue al checkout con la misma habitación. Si no confirma a tiempo, la retención vence sola.
+ *
+ * Los vencimientos los maneja una rueda de temporizadores (HashedTimerWheel) con un único hilo:
+ * programar y cancelar cuestan O(1), por lo que soporta decenas de miles de retenciones vivas.
+ * Las retenciones solo existen en memoria (son de corta duración y se pierden al reiniciar).
+ */
+@Service
+public class InventoryHoldService {
+
+    // Precisión del vencimiento y tamaño de la rueda (512 ticks de 1 s ≈ 8,5 min por vuelta).
+    private static final long TICK_SECONDS = 1;
+    private static final int WHEEL_SIZE = 512;
+
+    static final String INVALID_HOLD =
+            "La retención de la habitación venció o no corresponde a esta reserva. Vuelva a seleccionar la habitación.";
+
+    private final AvailabilityIndexService availabilityIndexService;
+    private final RoomInventoryService roomInventoryService;
+    private final long ttlSeconds;
+
+    private final HashedTimerWheel wheel = new HashedTimerWheel(TICK_SECONDS, TimeUnit.SECONDS, WHEEL_SIZE, "miyabi-holds");
+
+    // Retenciones vigentes por ID público.
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+
+    // Clave interna (numérica) con la que la retención se guarda en el índice de disponibilidad.
+    private final AtomicInteger nextKey = new AtomicInteger();
+
+    public InventoryHoldService(AvailabilityIndexService availabilityIndexService,
+                                RoomInventoryService roomInventoryService,
+                                @Value("${miyabi.holds.ttl-seconds:600}") long ttlSeconds) {
+        this.availabilityIndexService = availabilityIndexService;
+        this.roomInventoryService = roomInventoryService;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * Retiene una habitación para las fechas indicadas.
+     * @param roomId Habitación física (la que asignó el buscador).
+     * @param checkIn Fecha de ingreso.
+     * @param checkOut Fecha de salida.
+     * @return Datos de la retención, incluido su vencimiento.
+     * @throws RuntimeException si los datos no son válidos o la habitación ya no está libre.
+     */
+    public InventoryHoldDTO place(Integer roomId, LocalDate checkIn, LocalDate checkOut) {
+        if (!checkOut.isAfter(checkIn)) {
+            throw new RuntimeException("La fecha de salida debe ser posterior a la fecha de ingreso.");
+        }
+        if (checkIn.isBefore(LocalDate.now())) {
+            throw new RuntimeException("No se puede reservar una fecha pasada.");
+        }
+        RoomTypeStock stock = roomInventoryService.findByRoom(roomId);
+        if (stock == null) {
+            throw new RuntimeException("La habitación no existe o no está disponible para la venta.");
+        }
+
+        // 1. Ocupa la habitación en el índice (falla si otra reserva o retención la tiene)
+        int key = nextKey.incrementAndGet();
+        availabilityIndexService.hold(key, roomId, stock.typeId(), checkIn, checkOut);
+
+        // 2. Programa el vencimiento en la rueda
+        String holdId = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plusSeconds(ttlSeconds);
+        Timeout timeout = wheel.schedule(() -> expire(holdId, key), ttlSeconds, TimeUnit.SECONDS);
+        holds.put(holdId, new Hold(key, timeout, roomId, checkIn, checkOut));
+
+        return new InventoryHoldDTO(holdId, roomId, checkIn, checkOut, expiresAt);
+    }
+
+    /**
+     * Libera una retención antes de que venza (el huésped quitó la habitación del carrito).
+     * @return true si la retención existía y se liberó.
+     */
+    public boolean release(String holdId) {
+        Hold hold = holds.remove(holdId);
+        if (hold == null) {
+            return false;
+        }
+        // Liberar dos veces no tiene efecto, así que no importa si el vencimiento ya estaba en curso
+        hold.timeout().cancel();
+        availabilityIndexService.releaseHold(hold.key());
+        return true;
+    }
+
+    /**
+     * Indica si la retención sigue vigente y es de la misma habitación y fechas que la reserva.
+     * (Verificación previa al INSERT; la definitiva es confirm()).
+     */
+    public boolean matches(String holdId, Reservation reservation) {
+        Hold hold = holds.get(holdId);
+        return hold != null && hold.matches(reservation);
+    }
+
+    /**
+     * Ocupa las fechas de una reserva recién guardada consumiendo la retención del huésped
+     * (o validando cruces, si no trae retención). Se llama dentro de la transacción de la reserva.
+     * @throws RuntimeException si la retención no existe, ya venció o es de otra habitación o fechas.
+     */
+    public void confirm(String holdId, Reservation reservation) {
+        if (holdId == null) {
+            availabilityIndexService.reserve(reservation);
+            return;
+        }
+        Hold hold = holds.get(holdId);
+        if (hold == null || !hold.matches(reservation) || !holds.remove(holdId, hold)) {
+            throw new RuntimeException(INVALID_HOLD);
+        }
+        hold.timeout().cancel();
+        availabilityIndexService.reserve(reservation, hold.key());
+    }
+
+    /**
+     * Cantidad de retenciones vigentes.
+     */
+    public int activeHolds() {
+        return holds.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+    }
+
+    /**
+     * Vencimiento (se ejecuta en el hilo de la rueda). Si la habitación está ocupada por
+     * otra operación en ese instante, se reintenta en el siguiente tick.
+     */
+    private void expire(String holdId, int key) {
+        try {
+            availabilityIndexService.releaseHold(key);
+            holds.remove(holdId);
+        } catch (RuntimeException e) {
+            wheel.schedule(() -> expire(holdId, key), TICK_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Retención vigente: su clave en el índice, su temporizador y lo que retiene.
+     */
+    private record Hold(int key, Timeout timeout, Integer roomId, LocalDate checkIn, LocalDate checkOut) {
+
+        boolean matches(Reservation reservation) {
+            return reservation.getRoom() != null
+                    && roomId.equals(reservation.getRoom().getIdRoom())
+                    && checkIn.equals(reservation.getEntryDate())
+                    && checkOut.equals(reservation.getDepartureDate());
+        }
+    }
+}
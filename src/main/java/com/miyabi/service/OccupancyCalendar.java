@@ -0,0 +1,108 @@
+package com.miyabi.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Estructura en memoria que guarda cuántas habitaciones están ocupadas cada noche.
+ * Cada tipo de habitación tiene su propio arreglo de enteros (int[]) donde la posición
+ * es el número de días desde una fecha base (epoch day). Así, consultar la ocupación
+ * de una fecha es un simple acceso por índice, sin recorrer reservas.
+ *
+ * ¡OJO!: Esta clase NO es thread-safe. El AvailabilityIndexService se encarga de
+ * protegerla con un candado de lectura/escritura.
+ */
+public class OccupancyCalendar {
+
+    // Tamaño inicial de los arreglos (~1.5 años de noches).
+    private static final int INITIAL_DAYS = 512;
+
+    // Epoch day que corresponde a la posición 0 de los arreglos.
+    private long baseDay;
+
+    // Noches ocupadas por tipo de habitación (llave = type_id).
+    private final Map<Integer, int[]> occupancyByType = new HashMap<>();
+
+    // Cantidad de noches que cubren los arreglos (todos tienen el mismo largo).
+    private int length;
+
+    /**
+     * Suma (o resta, si delta es negativo) una habitación ocupada a cada noche del rango [fromDay, toDay).
+     * @param typeId Tipo de habitación de la estadía.
+     * @param fromDay Epoch day de la fecha de ingreso.
+     * @param toDay Epoch day de la fecha de salida (la noche de salida no se cuenta).
+     * @param delta +1 al registrar una estadía, -1 al retirarla.
+     */
+    public void add(int typeId, long fromDay, long toDay, int delta) {
+        if (fromDay >= toDay) {
+            return;
+        }
+        ensureRange(fromDay, toDay);
+
+        int[] counts = occupancyByType.computeIfAbsent(typeId, k -> new int[length]);
+        int from = (int) (fromDay - baseDay);
+        int to = (int) (toDay - baseDay);
+        for (int i = from; i < to; i++) {
+            counts[i] += delta;
+        }
+    }
+
+    /**
+     * Copia la ocupación de un tipo de habitación para un rango de noches consecutivas.
+     * @param typeId Tipo de habitación.
+     * @param fromDay Epoch day de la primera noche del rango.
+     * @param days Cantidad de noches a copiar.
+     * @return Arreglo donde la posición "i" es la ocupación de la noche fromDay + i.
+     */
+    public int[] occupiedRange(int typeId, long fromDay, int days) {
+        int[] result = new int[days];
+        int[] counts = occupancyByType.get(typeId);
+        if (counts == null) {
+            return result;
+        }
+        long start = Math.max(fromDay, baseDay);
+        long end = Math.min(fromDay + days, baseDay + counts.length);
+        if (start < end) {
+            System.arraycopy(counts, (int) (start - baseDay), result, (int) (start - fromDay), (int) (end - start));
+        }
+        return result;
+    }
+
+    /**
+     * Garantiza que los arreglos cubran el rango [fromDay, toDay).
+     * Si el rango empieza antes de la fecha base, desplaza los datos hacia la derecha;
+     * si termina después del final, duplica el tamaño de los arreglos.
+     */
+    private void ensureRange(long fromDay, long toDay) {
+        if (length == 0) {
+            baseDay = fromDay;
+            resize(0, Math.max(INITIAL_DAYS, (int) (toDay - fromDay)));
+            return;
+        }
+
+        int shift = 0;
+        if (fromDay < baseDay) {
+            shift = (int) (baseDay - fromDay);
+        }
+        long end = baseDay + length;
+        int newLength = length + shift;
+        if (toDay > end) {
+            newLength = Math.max(newLength + (int) (toDay - end), length * 2);
+        }
+        if (shift > 0 || newLength > length) {
+            baseDay -= shift;
+            resize(shift, newLength);
+        }
+    }
+
+    private void resize(int shift, int newLength) {
+        length = newLength;
+        occupancyByType.replaceAll((typeId, counts) -> copy(counts, shift, newLength));
+    }
+
+    private static int[] copy(int[] source, int shift, int length) {
+        int[] target = new int[length];
+        System.arraycopy(source, 0, target, shift, source.length);
+        return target;
+    }
+}
@@ -0,0 +1,220 @@
+package com.miyabi.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Caché en disco de las boletas PDF ya generadas.
+ *
+ * La misma boleta se descarga varias veces (Mis Reservas, reenvío por correo, reimpresión en
+ * recepción). Cada archivo se guarda con el nombre "{reserva}-{huella}.pdf", donde la huella resume
+ * todo lo que se imprime en la boleta (ver ReportService): si cambia un dato, cambia el nombre y la
+ * versión anterior simplemente deja de usarse. No hay forma de servir una boleta desactualizada.
+ *
+ * - Tamaño acotado (miyabi.receipts.cache-max-bytes): al superarlo se borran las boletas usadas
+ *   hace más tiempo (LRU).
+ * - invalidate() borra de inmediato las versiones de una reserva cuando cambian sus datos
+ *   (consumos, edición de la reserva), para no esperar a que el LRU las descarte.
+ * - Al reiniciar, los archivos que ya estaban en la carpeta se siguen usando.
+ */
+@Service
+public class ReceiptCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ReceiptCache.class);
+
+    private static final String SUFFIX = ".pdf";
+
+    private final Path dir;
+    private final long maxBytes;
+
+    // Índice LRU de los archivos en disco (orden de acceso: el primero es el menos usado).
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public ReceiptCache(@Value("${miyabi.receipts.cache-dir:${java.io.tmpdir}/miyabi-receipts}") String dir,
+                        @Value("${miyabi.receipts.cache-max-bytes:268435456}") long maxBytes) throws IOException {
+        this.dir = Files.createDirectories(Paths.get(dir));
+        this.maxBytes = maxBytes;
+        loadExisting();
+    }
+
+    /**
+     * Archivo de una versión de la boleta, o null si no está en caché.
+     * @param reservationId Reserva de la boleta.
+     * @param fingerprint Huella de los datos impresos.
+     */
+    public Path get(Integer reservationId, String fingerprint) {
+        String name = fileName(reservationId, fingerprint);
+        synchronized (this) {
+            if (sizes.get(name) == null) {
+                return null;
+            }
+        }
+        Path file = dir.resolve(name);
+        if (!Files.exists(file)) {
+            // Alguien borró el archivo por fuera (Ej. limpieza de /tmp): se olvida la entrada
+            synchronized (this) {
+                Long size = sizes.remove(name);
+                totalBytes -= size != null ? size : 0;
+            }
+            return null;
+        }
+        return file;
+    }
+
+    /**
+     * Guarda una versión de la boleta y devuelve su archivo.
+     */
+    public Path put(Integer reservationId, String fingerprint, byte[] pdf) throws IOException {
+        Path temp = newTempFile();
+        try {
+            Files.write(temp, pdf);
+            return put(reservationId, fingerprint, temp);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Archivo temporal en la carpeta de la caché donde escribir una boleta mientras se exporta.
+     * Al terminar se pasa a put(); si la exportación falla, quien lo pidió lo borra.
+     * (Los que queden de una ejecución interrumpida se borran al reiniciar).
+     */
+    public Path newTempFile() {
+        return dir.resolve(UUID.randomUUID() + ".tmp");
+    }
+
+    /**
+     * Guarda como versión de la boleta un archivo temporal ya escrito (ver newTempFile()).
+     * Se renombra de forma atómica: quien lea el archivo nunca ve un PDF a medias.
+     */
+    public Path put(Integer reservationId, String fingerprint, Path temp) throws IOException {
+        String name = fileName(reservationId, fingerprint);
+        Path target = dir.resolve(name);
+        long size = Files.size(temp);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = sizes.put(name, size);
+            totalBytes += size - (previous != null ? previous : 0);
+            Iterator<Map.Entry<String, Long>> eldest = sizes.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(name)) {
+                    continue; // Nunca se descarta la boleta que se acaba de guardar
+                }
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        delete(evicted);
+        return target;
+    }
+
+    /**
+     * Borra todas las versiones guardadas de la boleta de una reserva.
+     */
+    public void invalidate(Integer reservationId) {
+        if (reservationId == null) {
+            return;
+        }
+        String prefix = reservationId + "-";
+        List<String> removed = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Long>> entries = sizes.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<String, Long> entry = entries.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    totalBytes -= entry.getValue();
+                    removed.add(entry.getKey());
+                    entries.remove();
+                }
+            }
+        }
+        delete(removed);
+    }
+
+    /**
+     * Bytes ocupados por las boletas en caché.
+     */
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    // ── Lógica interna ──────────────────────────────────────────────────────
+
+    private static String fileName(Integer reservationId, String fingerprint) {
+        return reservationId + "-" + fingerprint + SUFFIX;
+    }
+
+    /**
+     * Indexa los archivos que quedaron de una ejecución anterior, del más antiguo al más reciente.
+     */
+    private void loadExisting() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    Files.deleteIfExists(file); // Escritura interrumpida
+                } else if (file.getFileName().toString().endsWith(SUFFIX)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(Comparator.comparing(ReceiptCache::lastModified));
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            for (Path file : files) {
+                long size = Files.size(file);
+                sizes.put(file.getFileName().toString(), size);
+                totalBytes += size;
+            }
+            Iterator<Map.Entry<String, Long>> eldest = sizes.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        delete(evicted);
+    }
+
+    private void delete(List<String> names) {
+        for (String name : names) {
+            try {
+                // Si alguien está enviando el archivo en este momento, el sistema operativo lo conserva hasta que termine
+                Files.deleteIfExists(dir.resolve(name));
+            } catch (IOException e) {
+                log.warn("No se pudo borrar la boleta en caché {}", name, e);
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.miyabi.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.miyabi.repository.ReservationRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Exportación masiva de boletas en un ZIP (cierre de mes de contabilidad).
+ *
+ * El ZIP se escribe en la respuesta a medida que se generan las boletas, sin armarlo en memoria:
+ * 1. Los hilos "miyabi-receipt-export" (miyabi.receipts.export-workers) generan las boletas en
+ *    paralelo y las dejan en la caché en disco (ReceiptCache); las ya generadas se reutilizan.
+ * 2. Cada exportación tiene como máximo una "ventana" de boletas en curso (el doble de hilos):
+ *    la siguiente se encola solo cuando la más antigua ya se escribió en el ZIP.
+ * 3. Las entradas del ZIP se escriben de una en una, en el orden de la consulta, copiando el
+ *    archivo de la caché (FileChannel.transferTo).
+ *
+ * Así la memoria no depende de cuántas boletas incluya el ZIP: solo hay en vuelo los datos de la ventana.
+ * Si una boleta falla, se sigue con las demás y el ZIP termina con un "errores.txt" que la detalla.
+ */
+@Service
+public class ReceiptExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReceiptExportService.class);
+
+    // Tamaño del búfer entre el ZIP y la respuesta (ZipOutputStream escribe en bloques pequeños).
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReservationRepository reservationRepository;
+    private final ReportService reportService;
+    private final ExecutorService executor;
+    private final int window;
+
+    public ReceiptExportService(ReservationRepository reservationRepository, ReportService reportService,
+                                @Value("${miyabi.receipts.export-workers:4}") int workers) {
+        this.reservationRepository = reservationRepository;
+        this.reportService = reportService;
+        this.window = workers * 2;
+        // Un solo grupo de hilos para todas las exportaciones: acota también las conexiones a la BD
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "miyabi-receipt-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reservas cuyas boletas entran en la exportación (ver ReservationRepository.findIdsForReceiptExport).
+     * @param from Primera fecha de salida (o null).
+     * @param to Última fecha de salida (o null).
+     * @param state Estado de la reserva (o null para todos).
+     */
+    public List<Integer> findReservationIds(LocalDate from, LocalDate to, String state) {
+        return reservationRepository.findIdsForReceiptExport(from, to, state);
+    }
+
+    /**
+     * Escribe el ZIP con las boletas de las reservas indicadas.
+     * @param reservationIds Reservas a incluir, en el orden de las entradas del ZIP.
+     * @param out Destino del ZIP (Ej. la respuesta HTTP; no se cierra).
+     * @throws IOException si no se puede escribir en la salida (Ej. el cliente canceló la descarga):
+     *         las boletas de la ventana que todavía no empezaron se cancelan.
+     */
+    public void writeZip(List<Integer> reservationIds, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        Iterator<Integer> pending = reservationIds.iterator();
+        ArrayDeque<Rendering> inFlight = new ArrayDeque<>(window);
+        List<String> errors = new ArrayList<>();
+
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        try {
+            fill(inFlight, pending);
+            while (!inFlight.isEmpty()) {
+                Rendering next = inFlight.poll();
+                ReportService.Receipt receipt = await(next, errors);
+                if (receipt != null) {
+                    zip.putNextEntry(new ZipEntry("Receipt_Reservation_" + next.reservationId() + ".pdf"));
+                    reportService.writeReceipt(receipt, zip);
+                    zip.closeEntry();
+                }
+                fill(inFlight, pending);
+            }
+
+            if (!errors.isEmpty()) {
+                zip.putNextEntry(new ZipEntry("errores.txt"));
+                zip.write(String.join(System.lineSeparator(), errors).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            for (Rendering rendering : inFlight) {
+                rendering.future().cancel(true);
+            }
+        }
+        log.info("Exportación de boletas: {} en {} ms ({} con error)",
+                reservationIds.size(), System.currentTimeMillis() - start, errors.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ── Lógica interna ──────────────────────────────────────────────────────
+
+    /**
+     * Encola boletas hasta completar la ventana.
+     */
+    private void fill(ArrayDeque<Rendering> inFlight, Iterator<Integer> pending) {
+        while (inFlight.size() < window && pending.hasNext()) {
+            Integer reservationId = pending.next();
+            inFlight.add(new Rendering(reservationId, executor.submit(() -> {
+                // Lee los datos y deja la boleta en la caché en disco; el hilo del ZIP solo la copia
+                ReportService.Receipt receipt = reportService.prepareReceipt(reservationId);
+                reportService.receiptFile(receipt);
+                return receipt;
+            })));
+        }
+    }
+
+    /**
+     * Espera una boleta de la ventana. Si falló, la anota en "errores" y devuelve null.
+     */
+    private static ReportService.Receipt await(Rendering rendering, List<String> errors) throws IOException {
+        try {
+            return rendering.future().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Exportación de boletas interrumpida", e);
+        } catch (ExecutionException e) {
+            log.warn("No se pudo generar la boleta de la reserva {}", rendering.reservationId(), e.getCause());
+            errors.add("Reserva " + rendering.reservationId() + ": " + e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Boleta de la ventana: la reserva y su generación en curso.
+     */
+    private record Rendering(Integer reservationId, Future<ReportService.Receipt> future) {}
+}
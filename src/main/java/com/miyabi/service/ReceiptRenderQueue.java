@@ -0,0 +1,233 @@
+package com.miyabi.service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Cola de generación de boletas PDF en segundo plano.
+ *
+ * JasperReports tarda cientos de milisegundos por boleta: si se generan en los hilos de Tomcat,
+ * una ráfaga de descargas en la hora del checkout deja sin hilos a las reservas. Aquí las boletas
+ * se generan en un grupo de hilos propio y acotado:
+ * 1. submit() deja el trabajo en una cola de tamaño fijo y devuelve un ticket de inmediato.
+ * 2. Los hilos "miyabi-receipt-renderer" generan los PDF en orden de llegada y los dejan en la
+ *    caché en disco (ReceiptCache), no en memoria.
+ * 3. El cliente consulta el ticket (se guarda unos minutos) y descarga el PDF cuando está listo:
+ *    se envía el mismo archivo que generó la cola (Job.getFile()), sin volver a leer los datos.
+ *
+ * Si la cola está llena, submit() devuelve null para que el controlador responda 429 con Retry-After
+ * (contrapresión) en lugar de acumular trabajos sin límite. Dos pedidos de la misma boleta mientras
+ * la primera sigue en cola comparten el mismo ticket.
+ *
+ * Métricas (/actuator/metrics):
+ * - miyabi.receipts.queue.depth: trabajos esperando un hilo.
+ * - miyabi.receipts.queue.wait: tiempo en cola hasta que un hilo toma el trabajo.
+ * - miyabi.receipts.render: tiempo de generación de cada PDF (tag outcome=success|error).
+ * - miyabi.receipts.rejected: pedidos rechazados por cola llena.
+ */
+@Service
+public class ReceiptRenderQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ReceiptRenderQueue.class);
+
+    // Límite del Retry-After sugerido al cliente cuando la cola está llena.
+    private static final long MAX_RETRY_AFTER_SECONDS = 60;
+
+    private final ReportService reportService;
+    private final ThreadPoolExecutor executor;
+    private final int workers;
+    private final long resultTtlMillis;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<Integer, Job> queuedByReservation = new ConcurrentHashMap<>();
+
+    private final Timer waitTimer;
+    private final Timer renderSuccess;
+    private final Timer renderError;
+    private final Counter rejected;
+
+    public ReceiptRenderQueue(ReportService reportService, MeterRegistry meterRegistry,
+                              @Value("${miyabi.receipts.workers:2}") int workers,
+                              @Value("${miyabi.receipts.queue-capacity:50}") int queueCapacity,
+                              @Value("${miyabi.receipts.result-ttl-ms:600000}") long resultTtlMillis) {
+        this.reportService = reportService;
+        this.workers = workers;
+        this.resultTtlMillis = resultTtlMillis;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemon("miyabi-receipt-renderer"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("miyabi.receipts.queue.depth", executor, e -> e.getQueue().size())
+                .description("Boletas esperando un hilo de generación")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("miyabi.receipts.queue.wait")
+                .description("Tiempo de una boleta en cola hasta que empieza a generarse")
+                .register(meterRegistry);
+        this.renderSuccess = Timer.builder("miyabi.receipts.render")
+                .description("Tiempo de generación de una boleta PDF")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.renderError = Timer.builder("miyabi.receipts.render")
+                .description("Tiempo de generación de una boleta PDF")
+                .tag("outcome", "error")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("miyabi.receipts.rejected")
+                .description("Boletas rechazadas por cola llena (HTTP 429)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Encola la boleta de una reserva.
+     * @return Trabajo (con su ticket), o null si la cola está llena.
+     */
+    public synchronized Job submit(Integer reservationId) {
+        // Si la misma boleta sigue en cola, se reutiliza: todavía no leyó los datos, saldrá actualizada
+        Job queued = queuedByReservation.get(reservationId);
+        if (queued != null && queued.status == Status.QUEUED) {
+            return queued;
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), reservationId);
+        try {
+            executor.execute(() -> render(job));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return null;
+        }
+        jobs.put(job.ticket, job);
+        queuedByReservation.put(reservationId, job);
+        return job;
+    }
+
+    /**
+     * Trabajo de un ticket, o null si no existe o ya venció.
+     */
+    public Job find(String ticket) {
+        return jobs.get(ticket);
+    }
+
+    /**
+     * Segundos sugeridos antes de reintentar: lo que tardarían los hilos en vaciar la cola actual
+     * según el tiempo medio de generación (entre 1 y 60 segundos).
+     */
+    public long retryAfterSeconds() {
+        double meanSeconds = renderSuccess.mean(TimeUnit.MILLISECONDS) / 1000.0;
+        long estimate = (long) Math.ceil((executor.getQueue().size() + 1) * meanSeconds / workers);
+        return Math.max(1, Math.min(estimate, MAX_RETRY_AFTER_SECONDS));
+    }
+
+    /**
+     * Descarta los tickets terminados que nadie descargó a tiempo (por defecto, 10 minutos).
+     */
+    @Scheduled(fixedDelayString = "${miyabi.receipts.cleanup-ms:60000}")
+    public void purgeExpired() {
+        long limit = System.currentTimeMillis() - resultTtlMillis;
+        jobs.values().removeIf(job -> job.finishedAt != 0 && job.finishedAt < limit);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ── Hilos de generación ────────────────────────────────────────────────
+
+    private void render(Job job) {
+        synchronized (this) {
+            job.status = Status.RENDERING;
+            queuedByReservation.remove(job.reservationId, job);
+        }
+        waitTimer.record(System.nanoTime() - job.submittedAt, TimeUnit.NANOSECONDS);
+
+        long start = System.nanoTime();
+        try {
+            job.file = reportService.receiptFile(job.reservationId);
+            job.status = Status.READY;
+            renderSuccess.record(Duration.ofNanos(System.nanoTime() - start));
+        } catch (Exception e) {
+            log.warn("No se pudo generar la boleta de la reserva {}", job.reservationId, e);
+            job.error = e.getMessage();
+            job.status = Status.FAILED;
+            renderError.record(Duration.ofNanos(System.nanoTime() - start));
+        } finally {
+            job.finishedAt = System.currentTimeMillis();
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Estado de un trabajo: en cola, generándose, listo para descargar o fallido.
+     */
+    public enum Status { QUEUED, RENDERING, READY, FAILED }
+
+    /**
+     * Boleta pedida. Los campos que escriben los hilos de generación son volatile: el hilo de
+     * Tomcat que consulta el ticket ve el estado final en cuanto cambia.
+     */
+    public static final class Job {
+
+        private final String ticket;
+        private final Integer reservationId;
+        private final long submittedAt = System.nanoTime();
+        private volatile Status status = Status.QUEUED;
+        private volatile String error;
+        private volatile Path file;
+        private volatile long finishedAt;
+
+        private Job(String ticket, Integer reservationId) {
+            this.ticket = ticket;
+            this.reservationId = reservationId;
+        }
+
+        public String getTicket() {
+            return ticket;
+        }
+
+        public Integer getReservationId() {
+            return reservationId;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * Archivo de la boleta en la caché en disco (solo en READY). Puede dejar de existir si la
+         * caché lo descarta o si los datos de la reserva cambian (ReceiptCache.invalidate).
+         */
+        public Path getFile() {
+            return file;
+        }
+    }
+}
@@ -6,13 +6,28 @@ import com.miyabi.repository.ConsumptionRepository;
 import com.miyabi.repository.ReservationRepository;
 import net.sf.jasperreports.engine.*;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
+import net.sf.jasperreports.renderers.Renderable;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStream;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 
@@ -26,19 +41,90 @@ public class ReportService {
 
     private final ReservationRepository reservationRepository;
     private final ConsumptionRepository consumptionRepository;
+    private final ReportTemplateRegistry reportTemplateRegistry;
+    private final ReceiptCache receiptCache;
 
-    // Inyección de dependencias de los repositorios necesarios para recolectar toda la información.
-    public ReportService(ReservationRepository reservationRepository, ConsumptionRepository consumptionRepository) {
+    // Inyección de dependencias de los repositorios necesarios para recolectar toda la información,
+    // del registro con las plantillas ya compiladas y de la caché de boletas en disco.
+    public ReportService(ReservationRepository reservationRepository, ConsumptionRepository consumptionRepository,
+                         ReportTemplateRegistry reportTemplateRegistry, ReceiptCache receiptCache) {
         this.reservationRepository = reservationRepository;
         this.consumptionRepository = consumptionRepository;
+        this.reportTemplateRegistry = reportTemplateRegistry;
+        this.receiptCache = receiptCache;
     }
 
     /**
-     * Motor de generación de Boleta en PDF.
+     * Boleta de la reserva como archivo de la caché en disco (ReceiptCache), generándola si hace falta.
+     * La usa la cola de boletas, que solo necesita dejarla lista.
      * @param reservationId ID de la reserva a facturar.
-     * @return Arreglo de bytes (byte[]) que representa el archivo PDF generado.
+     * @return Archivo PDF listo para enviar.
      */
-    public byte[] generateReceiptPDF(Integer reservationId) throws Exception {
+    public Path receiptFile(Integer reservationId) throws IOException {
+        return receiptFile(prepareReceipt(reservationId));
+    }
+
+    /**
+     * Igual que receiptFile(Integer), con los datos ya leídos (Ej. la exportación masiva los lee en
+     * sus hilos y luego escribe cada boleta con writeReceipt()).
+     */
+    public Path receiptFile(Receipt receipt) throws IOException {
+        Path cached = receiptCache.get(receipt.reservationId(), receipt.fingerprint());
+        return cached != null ? cached : render(receipt, OutputStream.nullOutputStream());
+    }
+
+    /**
+     * Escribe la boleta en un OutputStream (Ej. el de la respuesta HTTP) sin armar el PDF completo en memoria:
+     * - Si esa versión ya está en caché, el archivo se copia con FileChannel.transferTo.
+     * - Si no, JasperReports exporta directamente a la salida y, a la vez, a un archivo temporal que
+     *   luego pasa a la caché.
+     * No hace consultas: los datos ya vienen leídos en prepareReceipt(), así que se puede llamar fuera
+     * del hilo de la petición (StreamingResponseBody).
+     * @param receipt Boleta preparada.
+     * @param out Destino del PDF (no se cierra).
+     */
+    public void writeReceipt(Receipt receipt, OutputStream out) throws IOException {
+        Path cached = receiptCache.get(receipt.reservationId(), receipt.fingerprint());
+        if (cached != null) {
+            try {
+                transfer(cached, out);
+                return;
+            } catch (NoSuchFileException e) {
+                // El LRU de la caché borró el archivo justo antes de abrirlo: se vuelve a generar
+            }
+        }
+        render(receipt, out);
+    }
+
+    /**
+     * Copia un archivo a un OutputStream con FileChannel.transferTo (sin pasar el PDF completo por el heap).
+     */
+    private static void transfer(Path file, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transfer(channel, out);
+        }
+    }
+
+    /**
+     * Copia un archivo ya abierto a un OutputStream (no cierra ninguno de los dos). Abrirlo antes
+     * permite enviarlo aunque la caché lo borre mientras tanto.
+     */
+    public static void transfer(FileChannel channel, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        long size = channel.size();
+        long position = 0;
+        while (position < size) {
+            position += channel.transferTo(position, size - position, target);
+        }
+    }
+
+    /**
+     * Lee los datos de la boleta (2 consultas livianas) y calcula su huella, sin llenar ni exportar nada.
+     * @param reservationId ID de la reserva a facturar.
+     * @return Boleta lista para writeReceipt().
+     * @throws RuntimeException si la reserva no existe.
+     */
+    public Receipt prepareReceipt(Integer reservationId) {
         
         // 1. OBTENCIÓN DE DATOS: Usamos el JOIN FETCH del repositorio para traer todo en una sola consulta.
         Reservation reservation = reservationRepository.getReceiptMainData(reservationId);
@@ -85,23 +171,103 @@ public class ReportService {
         parameters.put("fechaEmision", issueDate);
         parameters.put("totalPagar", totalPay);
 
-        // Cargar recursos gráficos (Logo) y el diseño del reporte (.jrxml).
-        InputStream logoStream = getClass().getResourceAsStream("/logo.png");
-        if (logoStream != null) {
-            parameters.put("logoEmpresa", logoStream);
+        // Logo (leído una sola vez por el registro de plantillas).
+        Renderable logo = reportTemplateRegistry.image("/logo.png");
+        if (logo != null) {
+            parameters.put("logoEmpresa", logo);
+        }
+
+        // 5. HUELLA: resume todo lo que se imprime; si la boleta ya se generó con estos datos, se reutiliza.
+        String fingerprint = fingerprint(reportTemplateRegistry.version("boleta_hotel"), parameters, details);
+        return new Receipt(reservationId, fingerprint, parameters, details);
+    }
+
+    /**
+     * Llena y exporta la boleta hacia "out" y hacia la caché al mismo tiempo.
+     * @return Archivo de la caché con la boleta.
+     */
+    private Path render(Receipt receipt, OutputStream out) throws IOException {
+        // 6. LLENADO: la plantilla ya viene compilada (boleta_hotel.jasper), solo se combina con los datos.
+        JasperReport jasperReport = reportTemplateRegistry.get("boleta_hotel");
+        JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(receipt.details());
+
+        // 7. EXPORTACIÓN: el PDF se escribe por partes en la salida y en un temporal de la caché.
+        Path temp = receiptCache.newTempFile();
+        try {
+            JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, receipt.parameters(), dataSource);
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                JasperExportManager.exportReportToPdfStream(jasperPrint, new TeeOutputStream(out, file));
+            }
+            return receiptCache.put(receipt.reservationId(), receipt.fingerprint(), temp);
+        } catch (JRException e) {
+            throw new RuntimeException("No se pudo generar la boleta de la reserva " + receipt.reservationId(), e);
+        } finally {
+            // Si algo falló (Ej. el cliente cerró la conexión) el temporal no llega a la caché
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Huella SHA-256 de una boleta: versión de la plantilla + parámetros de texto + cada fila del detalle.
+     * (La fecha de emisión es parte de los parámetros: la boleta cacheada vale solo por el día).
+     */
+    private static String fingerprint(String templateVersion, Map<String, Object> parameters,
+                                      List<ReceiptDetailDTO> details) {
+        StringBuilder text = new StringBuilder(templateVersion);
+        for (String name : new String[] { "nombreCliente", "fechaEmision", "totalPagar" }) {
+            text.append('\u001F').append(parameters.get(name));
+        }
+        for (ReceiptDetailDTO row : details) {
+            text.append('\u001E').append(row.getCantidad()).append('\u001F').append(row.getDescripcion())
+                .append('\u001F').append(row.getPrecio()).append('\u001F').append(row.getSubtotal());
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Datos de una boleta ya leídos de la base de datos, con su huella.
+     */
+    public record Receipt(Integer reservationId, String fingerprint, Map<String, Object> parameters,
+                          List<ReceiptDetailDTO> details) {}
+
+    /**
+     * Escribe lo mismo en dos salidas. close() no cierra la primera (la respuesta HTTP es de quien la abrió).
+     */
+    private static final class TeeOutputStream extends FilterOutputStream {
+
+        private final OutputStream copy;
+
+        TeeOutputStream(OutputStream out, OutputStream copy) {
+            super(out);
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            copy.write(b);
         }
 
-        InputStream reportStream = getClass().getResourceAsStream("/boleta_hotel.jrxml");
-        if (reportStream == null) {
-            throw new RuntimeException("¡ERROR! No se encontró el diseño en src/main/resources/boleta_hotel.jrxml");
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            copy.write(b, off, len);
         }
 
-        // 5. COMPILACIÓN Y LLENADO: Transformamos el diseño y los datos en un documento.
-        JasperReport jasperReport = JasperCompileManager.compileReport(reportStream);
-        JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(details);
-        JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, dataSource);
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+            copy.flush();
+        }
 
-        // 6. EXPORTACIÓN: Convertimos el resultado a formato PDF.
-        return JasperExportManager.exportReportToPdf(jasperPrint);
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
     }
 }
\ No newline at end of file
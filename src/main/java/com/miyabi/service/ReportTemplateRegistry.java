@@ -0,0 +1,201 @@
+package com.miyabi.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.renderers.Renderable;
+import net.sf.jasperreports.renderers.SimpleDataRenderer;
+
+/**
+ * Registro de plantillas de JasperReports ya compiladas.
+ *
+ * Compilar un .jrxml tarda cientos de milisegundos y genera mucha basura, así que no se hace al
+ * generar cada boleta:
+ * 1. Maven compila src/main/jasperreports/*.jrxml a classpath:reports/*.jasper (jasperreports-plugin).
+ * 2. Al iniciar, aquí se cargan todos los .jasper una sola vez (Ej. "boleta_hotel").
+ * 3. Las imágenes (logo) se leen una sola vez y se entregan como Renderable, listo para el reporte.
+ *
+ * Generar una boleta queda en llenar + exportar.
+ *
+ * En desarrollo (miyabi.reports.watch-dir=src/main/jasperreports) se vigila esa carpeta: al guardar
+ * un .jrxml se recompila y reemplaza en caliente, sin reiniciar la aplicación.
+ */
+@Service
+public class ReportTemplateRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportTemplateRegistry.class);
+
+    private static final String JRXML = ".jrxml";
+
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+    private final Map<String, Renderable> images = new ConcurrentHashMap<>();
+    private final WatchService watchService;
+
+    public ReportTemplateRegistry(@Value("${miyabi.reports.watch-dir:}") String watchDir) throws IOException {
+        loadCompiled();
+        this.watchService = watchDir.isBlank() ? null : watch(Paths.get(watchDir));
+    }
+
+    /**
+     * Plantilla compilada por su nombre (el del archivo, sin extensión).
+     * @throws RuntimeException si no existe (Ej. el proyecto se ejecutó sin pasar por Maven).
+     */
+    public JasperReport get(String name) {
+        return template(name).report();
+    }
+
+    /**
+     * Versión de una plantilla: huella SHA-256 del archivo del que se cargó. Cambia con cada build
+     * que modifica el diseño y con cada recarga en caliente (sirve para invalidar boletas en caché).
+     */
+    public String version(String name) {
+        return template(name).version();
+    }
+
+    /**
+     * Imagen del classpath lista para un parámetro de tipo Renderable (se lee una sola vez).
+     * @param path Ruta en el classpath (Ej. "/logo.png").
+     * @return La imagen, o null si no existe.
+     */
+    public Renderable image(String path) {
+        Renderable image = images.get(path);
+        if (image == null) {
+            try (InputStream stream = getClass().getResourceAsStream(path)) {
+                if (stream == null) {
+                    return null;
+                }
+                image = SimpleDataRenderer.getInstance(stream.readAllBytes());
+            } catch (IOException e) {
+                throw new RuntimeException("No se pudo leer la imagen " + path, e);
+            }
+            images.put(path, image);
+        }
+        return image;
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    // ── Carga ──────────────────────────────────────────────────────────────
+
+    private Template template(String name) {
+        Template template = templates.get(name);
+        if (template == null) {
+            throw new RuntimeException("¡ERROR! No se encontró la plantilla compilada classpath:reports/" + name
+                    + ".jasper (se genera con 'mvn compile' desde src/main/jasperreports/" + name + JRXML + ")");
+        }
+        return template;
+    }
+
+    private void loadCompiled() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources("classpath*:reports/*.jasper");
+        for (Resource resource : resources) {
+            String name = resource.getFilename().substring(0, resource.getFilename().length() - ".jasper".length());
+            try (InputStream stream = resource.getInputStream()) {
+                byte[] compiled = stream.readAllBytes();
+                JasperReport report = (JasperReport) JRLoader.loadObject(new ByteArrayInputStream(compiled));
+                templates.put(name, new Template(report, sha256(compiled)));
+            } catch (JRException e) {
+                throw new IllegalStateException("No se pudo cargar la plantilla " + resource.getFilename(), e);
+            }
+        }
+        log.info("Plantillas de reportes cargadas: {}", templates.keySet());
+    }
+
+    /**
+     * Compila un .jrxml y reemplaza su plantilla (si el diseño tiene errores, se conserva la anterior).
+     */
+    private void compile(Path jrxml) {
+        String fileName = jrxml.getFileName().toString();
+        String name = fileName.substring(0, fileName.length() - JRXML.length());
+        try {
+            byte[] design = Files.readAllBytes(jrxml);
+            JasperReport report = JasperCompileManager.compileReport(new ByteArrayInputStream(design));
+            templates.put(name, new Template(report, sha256(design)));
+            log.info("Plantilla {} recompilada", fileName);
+        } catch (JRException | IOException e) {
+            log.warn("No se pudo recompilar {}: se sigue usando la versión anterior", fileName, e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ── Recarga en caliente (solo desarrollo) ──────────────────────────────
+
+    private WatchService watch(Path dir) throws IOException {
+        // Los .jrxml de la carpeta pueden ser más nuevos que los .jasper del último build
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + JRXML)) {
+            for (Path file : files) {
+                compile(file);
+            }
+        }
+
+        WatchService service = dir.getFileSystem().newWatchService();
+        dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread thread = new Thread(() -> watchLoop(dir, service), "miyabi-report-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Recarga en caliente de plantillas activada en {}", dir.toAbsolutePath());
+        return service;
+    }
+
+    private void watchLoop(Path dir, WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path changed && changed.toString().endsWith(JRXML)) {
+                        compile(dir.resolve(changed));
+                    }
+                }
+                if (!key.reset()) {
+                    return; // La carpeta ya no existe
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // La aplicación se está cerrando
+        }
+    }
+
+    /**
+     * Plantilla compilada y la huella del archivo del que salió.
+     */
+    private record Template(JasperReport report, String version) {}
+}
@@ -0,0 +1,191 @@
+package com.miyabi.service;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.miyabi.models.ReservationCodeBlock;
+import com.miyabi.repository.ReservationCodeBlockRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Generador único de códigos de reserva (Ej. RES-2026-00042) para la web y la intranet.
+ *
+ * Los números salen de bloques reservados en la tabla "reservation_code_blocks": cada instancia
+ * de la aplicación toma un bloque (ej. 50 números) en una transacción corta con la fila bloqueada
+ * y luego los entrega desde memoria. Resultado:
+ * - Cero consultas extra por reserva (una sola cada "blockSize" reservas).
+ * - Sin colisiones, aunque haya varias instancias: cada bloque pertenece a una sola.
+ * - Si la aplicación se reinicia, los números no usados del bloque (y del siguiente, si ya se
+ *   había reservado) se pierden (quedan huecos), lo que es aceptable para un código de reserva.
+ *
+ * El siguiente bloque se reserva por adelantado, en el hilo "miyabi-code-allocator", cuando al
+ * bloque actual le queda la mitad de sus números. Quien pide un código ya está dentro de la
+ * transacción de su reserva (con una conexión del pool tomada): si además tuviera que reservar el
+ * bloque, necesitaría una segunda conexión mientras los demás esperan con la suya, y con el pool
+ * lleno nadie avanzaría. Si aun así el bloque se agota (ráfaga), se espera el bloque en camino
+ * sin retener el monitor.
+ */
+@Service
+public class ReservationCodeAllocator {
+
+    private final ReservationCodeBlockRepository blockRepository;
+    private final TransactionTemplate newTransaction;
+    private final int blockSize;
+    private final int lowWater;
+    private final ExecutorService claimer;
+
+    // Bloque actual en memoria: números [next, end) del año "year".
+    private int year;
+    private long next;
+    private long end;
+
+    // Siguiente bloque, reservado o en camino (null si todavía no se pidió).
+    private CompletableFuture<Block> upcoming;
+
+    public ReservationCodeAllocator(ReservationCodeBlockRepository blockRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${miyabi.reservation-codes.block-size:50}") int blockSize) {
+        this.blockRepository = blockRepository;
+        this.blockSize = blockSize;
+        this.lowWater = Math.max(1, blockSize / 2);
+
+        // El bloque se reserva en su propia transacción: se confirma aunque la reserva haga rollback,
+        // y la fila queda bloqueada solo unos milisegundos.
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.claimer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "miyabi-code-allocator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Entrega el siguiente código de reserva del año en curso.
+     */
+    public String nextCode() {
+        while (true) {
+            CompletableFuture<Block> pending;
+            synchronized (this) {
+                int currentYear = Year.now().getValue();
+                if (currentYear == year && next < end) {
+                    String code = String.format("RES-%d-%05d", year, next++);
+                    if (end - next <= lowWater) {
+                        upcoming(currentYear); // Reserva anticipada del siguiente bloque
+                    }
+                    return code;
+                }
+                pending = upcoming(currentYear);
+            }
+
+            // Bloque agotado (o cambio de año): se espera el siguiente fuera del monitor
+            Block block;
+            try {
+                block = pending.join();
+            } catch (CompletionException e) {
+                synchronized (this) {
+                    if (upcoming == pending) {
+                        upcoming = null; // El próximo pedido lo vuelve a intentar
+                    }
+                }
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            synchronized (this) {
+                if (upcoming == pending) {
+                    upcoming = null;
+                    year = block.year();
+                    next = block.start();
+                    end = block.start() + blockSize;
+                }
+            }
+        }
+    }
+
+    /**
+     * Entrega varios códigos (reservas grupales), tomados del bloque en memoria. Si el bloque se
+     * agota a mitad de la lista, los códigos no son consecutivos.
+     * @param count Cantidad de códigos.
+     */
+    public List<String> nextCodes(int count) {
+        List<String> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            codes.add(nextCode());
+        }
+        return codes;
+    }
+
+    /**
+     * Reserva el primer bloque al iniciar la aplicación, antes de que lleguen las reservas
+     * (si no, las primeras esperarían todas juntas, cada una con su conexión, a que se reserve).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void claimFirstBlock() {
+        CompletableFuture<Block> first;
+        synchronized (this) {
+            first = upcoming(Year.now().getValue());
+        }
+        first.join();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        claimer.shutdownNow();
+    }
+
+    // ── Lógica interna ──────────────────────────────────────────────────────
+
+    /**
+     * Siguiente bloque del año: el que ya está en camino o uno nuevo pedido al hilo de reserva.
+     * Se llama con el monitor tomado.
+     */
+    private CompletableFuture<Block> upcoming(int codeYear) {
+        boolean reusable = upcoming != null && !upcoming.isCompletedExceptionally()
+                && (!upcoming.isDone() || upcoming.join().year() == codeYear);
+        if (!reusable) {
+            upcoming = CompletableFuture.supplyAsync(() -> claimBlock(codeYear), claimer);
+        }
+        return upcoming;
+    }
+
+    /**
+     * Reserva en la BD el siguiente bloque de números del año.
+     */
+    private Block claimBlock(int codeYear) {
+        while (true) {
+            try {
+                Long start = newTransaction.execute(status -> {
+                    ReservationCodeBlock block = blockRepository.findForUpdate(codeYear)
+                            .orElseGet(() -> new ReservationCodeBlock(codeYear, 1L));
+                    long first = block.getNextValue();
+                    block.setNextValue(first + blockSize);
+                    blockRepository.saveAndFlush(block);
+                    return first;
+                });
+                return new Block(codeYear, start);
+            } catch (DataIntegrityViolationException e) {
+                // Otra instancia creó la fila del año al mismo tiempo: se reintenta con la fila ya existente
+            }
+        }
+    }
+
+    /**
+     * Bloque reservado: números [start, start + blockSize) del año.
+     */
+    private record Block(int year, long start) {}
+}
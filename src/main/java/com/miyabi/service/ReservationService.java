@@ -5,13 +5,18 @@ import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.TreeMap;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.miyabi.dto.ReservationPageDTO;
+import com.miyabi.dto.ReservationSummaryDTO;
 import com.miyabi.models.Guest;
 import com.miyabi.models.Reservation;
+import com.miyabi.models.ReservationDeletion;
 import com.miyabi.models.Room;
+import com.miyabi.repository.ReservationDeletionRepository;
 import com.miyabi.repository.ReservationRepository;
 
 /**
@@ -25,27 +30,87 @@ public class ReservationService {
     private final ReservationRepository reservationRepository;
     private final RoomService roomService;
     private final GuestService guestService;
+    private final AvailabilityIndexService availabilityIndexService;
+    private final InventoryHoldService inventoryHoldService;
+    private final ReservationCodeAllocator reservationCodeAllocator;
+    private final ReceiptCache receiptCache;
+    private final ReservationDeletionRepository reservationDeletionRepository;
 
     // Inyección de dependencias: se comunica con habitaciones y huéspedes para validar datos.
-    public ReservationService(ReservationRepository reservationRepository, RoomService roomService, GuestService guestService) {
+    public ReservationService(ReservationRepository reservationRepository, RoomService roomService, GuestService guestService,
+                              AvailabilityIndexService availabilityIndexService, InventoryHoldService inventoryHoldService,
+                              ReservationCodeAllocator reservationCodeAllocator, ReceiptCache receiptCache,
+                              ReservationDeletionRepository reservationDeletionRepository) {
         this.reservationRepository = reservationRepository;
         this.roomService = roomService;
         this.guestService = guestService;
+        this.availabilityIndexService = availabilityIndexService;
+        this.inventoryHoldService = inventoryHoldService;
+        this.reservationCodeAllocator = reservationCodeAllocator;
+        this.receiptCache = receiptCache;
+        this.reservationDeletionRepository = reservationDeletionRepository;
     }
 
     public List<Reservation> findAll() {
         return reservationRepository.findAll();
     }
 
+    /**
+     * Página del listado de la intranet (paginación por cursor, ver ReservationRepository.findPage).
+     * Se pide una fila de más solo para saber si existe una página siguiente.
+     * @param afterDate Fecha de ingreso de la última fila de la página anterior (null = primera página).
+     * @param afterId ID de la última fila de la página anterior.
+     */
+    public ReservationPageDTO findPage(String state, LocalDate fromDate, LocalDate toDate,
+                                       LocalDate afterDate, Integer afterId, int size) {
+        if (afterDate == null || afterId == null) {
+            afterDate = null;
+            afterId = null;
+        }
+        List<Reservation> rows = reservationRepository.findPage(state, fromDate, toDate, afterDate, afterId,
+                PageRequest.of(0, size + 1));
+        if (rows.size() <= size) {
+            return new ReservationPageDTO(rows, null, null);
+        }
+        List<Reservation> page = rows.subList(0, size);
+        Reservation last = page.get(size - 1);
+        return new ReservationPageDTO(page, last.getEntryDate(), last.getReservationId());
+    }
+
+    /**
+     * Cantidad de reservas por estado (Ej. {"Confirmed": 12, "Pending": 3}).
+     */
+    public Map<String, Long> countByState() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Object[] row : reservationRepository.countGroupedByState()) {
+            counts.put((String) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
     public Reservation findById(Integer id) {
         return reservationRepository.findById(id).orElse(null);
     }
 
     /**
-     * Recupera las reservas de un huésped específico.
+     * Reserva con su huésped y habitación ya cargados, para el formulario de edición de la intranet.
+     */
+    public Reservation findForEdit(Integer id) {
+        return reservationRepository.findForEdit(id).orElse(null);
+    }
+
+    /**
+     * Listado JSON de todas las reservas (proyección liviana, sin entidades).
+     */
+    public List<ReservationSummaryDTO> findAllSummaries() {
+        return reservationRepository.findAllSummaries();
+    }
+
+    /**
+     * Recupera las reservas de un huésped específico (proyección liviana, sin entidades).
      */
-    public List<Reservation> findByGuest_IdGuest(Integer idGuest) {
-        return reservationRepository.findByGuest_IdGuest(idGuest);
+    public List<ReservationSummaryDTO> findSummariesByGuest(Integer idGuest) {
+        return reservationRepository.findSummariesByGuest(idGuest);
     }
 
     /**
@@ -55,6 +120,15 @@ public class ReservationService {
      */
     @Transactional
     public Reservation createReservation(Reservation reservation) {
+        return createReservation(reservation, null);
+    }
+
+    /**
+     * Creación de la reserva consumiendo la retención del carrito (si el huésped tiene una).
+     * @param holdId Retención devuelta por /api/holds, o null.
+     */
+    @Transactional
+    public Reservation createReservation(Reservation reservation, String holdId) {
 
         // 1. VALIDACIÓN Y ACTUALIZACIÓN DEL CLIENTE
         if (reservation.getGuest() != null && reservation.getGuest().getIdGuest() != null) {
@@ -96,6 +170,8 @@ public class ReservationService {
         if (roomToReserve == null) {
             throw new RuntimeException("La habitación no existe.");
         }
+        reservation.setRoom(roomToReserve); // Habitación completa (con su tipo) para el índice de ocupación
+        validateDates(reservation); // Siempre, con o sin retención
 
         // Cálculo automático de noches y subtotales
         long nights = ChronoUnit.DAYS.between(reservation.getEntryDate(), reservation.getDepartureDate());
@@ -107,17 +183,33 @@ public class ReservationService {
         reservation.setTotalPay(subtotal); // Monto inicial sin consumos extras
 
         // 4. IDENTIFICACIÓN ÚNICA
-        // Generamos un código corto y legible para el cliente (Ej: RES-A1B2C3)
-        String code = "RES-" + UUID.randomUUID().toString().substring(0, 6).toUpperCase();
-        reservation.setReservationCode(code);
+        // Código legible y sin colisiones para el cliente (Ej: RES-2026-00042), sin consultar la BD
+        reservation.setReservationCode(reservationCodeAllocator.nextCode());
         reservation.setState("Pending");
 
-        return reservationRepository.save(reservation);
+        // 5. VALIDACIÓN DE CRUCE DE FECHAS: la habitación no puede estar reservada en el mismo rango.
+        // Si el huésped la tiene retenida, su propia retención no cuenta como cruce; pero la
+        // retención debe seguir vigente y ser de esta misma habitación y fechas
+        if (holdId == null) {
+            validateRoomFree(reservation);
+        } else if (!inventoryHoldService.matches(holdId, reservation)) {
+            throw new RuntimeException(InventoryHoldService.INVALID_HOLD);
+        }
+
+        Reservation saved = reservationRepository.save(reservation);
+        // Ocupa las fechas en el índice de forma atómica, liberando la retención del huésped en el
+        // mismo paso (si otra reserva ganó la habitación, se hace rollback)
+        inventoryHoldService.confirm(holdId, saved);
+        return saved;
     }
     
     /**
      * Adaptador para procesar datos provenientes de peticiones AJAX/JSON (Frontend).
+     * ¡OJO!: la llamada a createReservation() es interna (no pasa por el proxy de Spring), así que
+     * la transacción tiene que abrirse aquí; si no, el INSERT de una confirmación que pierde la
+     * habitación queda guardado.
      */
+    @Transactional
     public Reservation createReservationFromMap(Map<String, Object> payload) {
         Reservation res = new Reservation();
 
@@ -145,15 +237,70 @@ public class ReservationService {
         room.setIdRoom((Integer) roomMap.get("idRoom"));
         res.setRoom(room);
 
-        return this.createReservation(res);
+        // Retención del carrito (opcional)
+        String holdId = (String) payload.get("holdId");
+
+        return this.createReservation(res, holdId);
     }
 
+    @Transactional
     public Reservation saveFromEmployee(Reservation reservation) {
-        return reservationRepository.save(reservation);
+        // Las reservas nuevas de la intranet usan el mismo generador de códigos que la web
+        if (reservation.getReservationCode() == null) {
+            reservation.setReservationCode(reservationCodeAllocator.nextCode());
+        }
+        validateStay(reservation);
+        Reservation saved = reservationRepository.save(reservation);
+        availabilityIndexService.reserve(saved); // Refleja altas, cambios de fechas y cancelaciones
+        receiptCache.invalidate(saved.getReservationId()); // Los datos de su boleta pueden haber cambiado
+        return saved;
     }
 
+    @Transactional
     public void deleteById(Integer id) {
         reservationRepository.deleteById(id);
+        // Marca de eliminación: las demás instancias la leen para quitarla de su índice
+        reservationDeletionRepository.save(new ReservationDeletion(id));
+        availabilityIndexService.unregister(id);
+        receiptCache.invalidate(id);
+    }
+
+    /**
+     * Validación completa de una reserva de la intranet: fechas coherentes y habitación libre.
+     */
+    private void validateStay(Reservation reservation) {
+        validateDates(reservation);
+        validateRoomFree(reservation);
+    }
+
+    /**
+     * VALIDACIÓN DE DISPONIBILIDAD DE LA HABITACIÓN:
+     * Comprueba contra el índice en memoria que la habitación no tenga otra estadía activa
+     * entre la fecha de ingreso y la de salida. Las reservas canceladas no ocupan habitación.
+     * (Es una verificación rápida para no tocar la BD si ya se sabe que está ocupada; la definitiva
+     * es availabilityIndexService.reserve(), que se hace dentro de la transacción).
+     */
+    private void validateRoomFree(Reservation reservation) {
+        if ("Cancelled".equalsIgnoreCase(reservation.getState())) {
+            return;
+        }
+        boolean free = availabilityIndexService.isRoomFree(reservation.getRoom().getIdRoom(),
+                reservation.getEntryDate(), reservation.getDepartureDate(), reservation.getReservationId());
+        if (!free) {
+            throw new RuntimeException("La habitación ya está reservada para las fechas seleccionadas.");
+        }
+    }
+
+    /**
+     * Fechas presentes y con al menos una noche (la salida es posterior al ingreso).
+     */
+    private static void validateDates(Reservation reservation) {
+        if (reservation.getEntryDate() == null || reservation.getDepartureDate() == null) {
+            throw new RuntimeException("Debe indicar la fecha de ingreso y la de salida.");
+        }
+        if (!reservation.getDepartureDate().isAfter(reservation.getEntryDate())) {
+            throw new RuntimeException("La fecha de salida debe ser posterior a la fecha de ingreso.");
+        }
     }
 
     public Reservation findByCode(String code) {
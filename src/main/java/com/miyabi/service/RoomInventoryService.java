@@ -0,0 +1,180 @@
+package com.miyabi.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.miyabi.models.Room;
+import com.miyabi.models.RoomType;
+import com.miyabi.repository.RoomRepository;
+
+/**
+ * Foto (snapshot) en memoria del inventario vendible del hotel: cuántas habitaciones
+ * físicas tiene cada tipo y a qué precio se venden.
+ * Las habitaciones y tarifas cambian muy pocas veces al mes, por lo que se leen una sola vez
+ * y se vuelven a cargar únicamente cuando el administrador guarda o elimina algo
+ * (RoomService y RoomTypeService llaman a invalidate()).
+ */
+@Service
+public class RoomInventoryService {
+
+    // Habitaciones en este estado no se pueden vender (están fuera de servicio).
+    private static final String MAINTENANCE_STATE = "Maintenance";
+
+    private final RoomRepository roomRepository;
+
+    // Meses de temporada alta (1 = Enero). En Perú: verano (Dic-Mar) y Fiestas Patrias (Jul).
+    private final boolean[] highSeasonMonths = new boolean[13];
+
+    // null = hay que recargar desde la base de datos.
+    private volatile Snapshot snapshot;
+
+    // Cambia con cada invalidate(): una carga que empezó antes no publica su foto (ya vieja).
+    private final AtomicLong generation = new AtomicLong();
+
+    public RoomInventoryService(RoomRepository roomRepository,
+                                @Value("${miyabi.pricing.high-season-months:12,1,2,3,7}") int[] highSeasonMonths) {
+        this.roomRepository = roomRepository;
+        for (int month : highSeasonMonths) {
+            this.highSeasonMonths[month] = true;
+        }
+    }
+
+    /**
+     * Devuelve el inventario por tipo de habitación (solo tipos con al menos una habitación vendible).
+     */
+    public Collection<RoomTypeStock> findAll() {
+        return load().byType().values();
+    }
+
+    /**
+     * Inventario de un tipo de habitación en particular, o null si no tiene habitaciones vendibles.
+     */
+    public RoomTypeStock findByType(Integer typeId) {
+        return load().byType().get(typeId);
+    }
+
+    /**
+     * Inventario del tipo al que pertenece una habitación, o null si la habitación no se puede vender.
+     */
+    public RoomTypeStock findByRoom(Integer roomId) {
+        return load().byRoom().get(roomId);
+    }
+
+    /**
+     * Número total de habitaciones vendibles del hotel.
+     */
+    public int totalRooms() {
+        int total = 0;
+        for (RoomTypeStock stock : load().byType().values()) {
+            total += stock.capacity();
+        }
+        return total;
+    }
+
+    /**
+     * Descarta la foto actual; la siguiente consulta vuelve a leer la tabla "rooms".
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    /**
+     * Precio de una noche según la temporada (si el tipo no tiene tarifa de temporada alta, se usa la base).
+     */
+    public BigDecimal priceFor(RoomTypeStock stock, LocalDate night) {
+        if (highSeasonMonths[night.getMonthValue()] && stock.highSeasonPrice() != null) {
+            return stock.highSeasonPrice();
+        }
+        return stock.basePrice();
+    }
+
+    private Snapshot load() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    long readGeneration = generation.get();
+                    current = readFromDatabase();
+                    // Si llegó un invalidate() durante la lectura, esta foto puede no incluir el cambio:
+                    // se usa solo para esta consulta y la siguiente vuelve a leer
+                    if (generation.get() == readGeneration) {
+                        snapshot = current;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot readFromDatabase() {
+        // Agrupa las habitaciones vendibles por su tipo, manteniendo el orden de llegada
+        Map<Integer, List<Room>> roomsByType = new LinkedHashMap<>();
+        Map<Integer, RoomType> types = new LinkedHashMap<>();
+        for (Room room : roomRepository.findAll()) {
+            if (MAINTENANCE_STATE.equalsIgnoreCase(room.getState()) || room.getRoomType() == null) {
+                continue;
+            }
+            Integer typeId = room.getRoomType().getIdTipo();
+            types.putIfAbsent(typeId, room.getRoomType());
+            roomsByType.computeIfAbsent(typeId, k -> new ArrayList<>()).add(room);
+        }
+
+        Map<Integer, RoomTypeStock> byType = new LinkedHashMap<>();
+        Map<Integer, RoomTypeStock> byRoom = new HashMap<>();
+        for (Map.Entry<Integer, List<Room>> entry : roomsByType.entrySet()) {
+            int[] roomIds = entry.getValue().stream().mapToInt(Room::getIdRoom).toArray();
+            RoomTypeStock stock = new RoomTypeStock(types.get(entry.getKey()), roomIds);
+            byType.put(entry.getKey(), stock);
+            for (int roomId : roomIds) {
+                byRoom.put(roomId, stock);
+            }
+        }
+        return new Snapshot(Collections.unmodifiableMap(byType), Collections.unmodifiableMap(byRoom));
+    }
+
+    /**
+     * Foto completa del inventario: por tipo y por habitación (se publican juntas en un solo paso).
+     */
+    private record Snapshot(Map<Integer, RoomTypeStock> byType, Map<Integer, RoomTypeStock> byRoom) {}
+
+    /**
+     * Inventario vendible de un tipo de habitación.
+     * @param roomType Categoría (se conserva para mostrar sus datos en el catálogo sin volver a la BD).
+     * @param roomIds IDs de las habitaciones físicas de este tipo (su cantidad es la capacidad).
+     */
+    public record RoomTypeStock(RoomType roomType, int[] roomIds) {
+
+        public int typeId() {
+            return roomType.getIdTipo();
+        }
+
+        public int capacityPeople() {
+            return roomType.getCapacityPeople() != null ? roomType.getCapacityPeople() : 0;
+        }
+
+        public BigDecimal basePrice() {
+            return roomType.getBasePrice();
+        }
+
+        public BigDecimal highSeasonPrice() {
+            return roomType.getHighSeasonPrice();
+        }
+
+        public int capacity() {
+            return roomIds.length;
+        }
+    }
+}
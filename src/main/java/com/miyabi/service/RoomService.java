@@ -1,7 +1,10 @@
 package com.miyabi.service;
 
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import com.miyabi.dto.PickerOptionDTO;
 import com.miyabi.models.Room;
 import com.miyabi.repository.RoomRepository;
 
@@ -13,12 +16,14 @@ import com.miyabi.repository.RoomRepository;
 public class RoomService {
 
     private final RoomRepository roomRepository;
+    private final RoomInventoryService roomInventoryService;
 
     /**
-     * Inyección por constructor del repositorio de habitaciones.
+     * Inyección por constructor del repositorio de habitaciones y del inventario en memoria.
      */
-    public RoomService(RoomRepository roomRepository) {
+    public RoomService(RoomRepository roomRepository, RoomInventoryService roomInventoryService) {
         this.roomRepository = roomRepository;
+        this.roomInventoryService = roomInventoryService;
     }
 
     /**
@@ -39,6 +44,20 @@ public class RoomService {
         return roomRepository.findByState("Available");
     }
 
+    /**
+     * Sugerencias para el selector de habitaciones de la intranet (autocompletado).
+     * @param text Lo que el empleado lleva escrito (número de habitación o categoría).
+     * @param limit Cantidad máxima de sugerencias.
+     */
+    public List<PickerOptionDTO> search(String text, int limit) {
+        // Se escapan los comodines de LIKE para que "%" o "_" escritos por el usuario se busquen literalmente
+        String prefix = text.trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return roomRepository.searchByPrefix(prefix, PageRequest.of(0, limit)).stream()
+                .map(r -> new PickerOptionDTO(r.getIdRoom(), "#" + r.getRoomNumber() + " – " + r.getRoomType().getNameType(),
+                        r.getRoomType().getBasePrice()))
+                .toList();
+    }
+
     /**
      * Busca una habitación específica por su identificador único.
      */
@@ -46,12 +65,21 @@ public class RoomService {
         return roomRepository.findById(id).orElse(null);
     }
 
+    /**
+     * Varias habitaciones (con su categoría) en una sola consulta. Las que no existen no aparecen.
+     */
+    public List<Room> findAllById(Collection<Integer> ids) {
+        return roomRepository.findAllById(ids);
+    }
+
     /**
      * Guarda o actualiza la información de una habitación.
      * Se utiliza para cambiar el estado de la habitación (Ej: de 'Available' a 'Occupied' 
      * al hacer el check-in).
      */
     public Room save(Room room) {
-        return roomRepository.save(room);
+        Room saved = roomRepository.save(room);
+        roomInventoryService.invalidate(); // El inventario vendible cambió (nueva habitación o cambio de estado)
+        return saved;
     }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.miyabi.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Índice de estadías por habitación física.
+ * Para cada habitación guarda sus estadías activas ordenadas por fecha de ingreso y sin
+ * solaparse entre sí (TreeMap). Con esa regla, saber si la habitación está libre en
+ * [entrada, salida) solo requiere mirar la estadía que empieza justo antes de la salida: O(log n).
+ *
+ * Si en la base de datos ya existían reservas solapadas (antes de validar conflictos),
+ * se guardan aparte en "overlapping" para no romper la regla del árbol; se revisan de forma lineal
+ * y en la práctica esa lista está vacía.
+ *
+ * ¡OJO!: Los mapas externos son concurrentes, pero el árbol de cada habitación NO lo es.
+ * El AvailabilityIndexService toma el candado (stripe) de la habitación antes de leerlo o modificarlo,
+ * así dos habitaciones distintas se pueden consultar y reservar en paralelo.
+ */
+public class RoomStayIndex {
+
+    // Habitación → (epoch day de ingreso → estadía).
+    private final Map<Integer, TreeMap<Long, Interval>> staysByRoom = new ConcurrentHashMap<>();
+
+    // Habitación → estadías heredadas que se solapan con otras.
+    private final Map<Integer, List<Interval>> overlapping = new ConcurrentHashMap<>();
+
+    /**
+     * Registra una estadía [fromDay, toDay) de una reserva en su habitación.
+     * Un rango vacío (salida igual o anterior al ingreso) no ocupa ninguna noche y se ignora:
+     * guardarlo pisaría en el árbol a la estadía real que empieza el mismo día.
+     */
+    public void add(int roomId, int reservationId, long fromDay, long toDay) {
+        if (fromDay >= toDay) {
+            return;
+        }
+        Interval interval = new Interval(reservationId, fromDay, toDay);
+        TreeMap<Long, Interval> stays = staysByRoom.computeIfAbsent(roomId, k -> new TreeMap<>());
+        if (findConflict(stays, fromDay, toDay, null) == null) {
+            stays.put(fromDay, interval);
+        } else {
+            overlapping.computeIfAbsent(roomId, k -> new CopyOnWriteArrayList<>()).add(interval);
+        }
+    }
+
+    /**
+     * Retira la estadía de una reserva de su habitación.
+     */
+    public void remove(int roomId, int reservationId, long fromDay) {
+        TreeMap<Long, Interval> stays = staysByRoom.get(roomId);
+        if (stays != null) {
+            Interval current = stays.get(fromDay);
+            if (current != null && current.reservationId() == reservationId) {
+                stays.remove(fromDay);
+                return;
+            }
+        }
+        List<Interval> legacy = overlapping.get(roomId);
+        if (legacy != null) {
+            legacy.removeIf(interval -> interval.reservationId() == reservationId);
+        }
+    }
+
+    /**
+     * Indica si la habitación está libre para [fromDay, toDay).
+     * @param excludedReservationId Reserva que se ignora en la comparación (la que se está editando), o null.
+     */
+    public boolean isFree(int roomId, long fromDay, long toDay, Integer excludedReservationId) {
+        TreeMap<Long, Interval> stays = staysByRoom.get(roomId);
+        if (stays != null && findConflict(stays, fromDay, toDay, excludedReservationId) != null) {
+            return false;
+        }
+        List<Interval> legacy = overlapping.get(roomId);
+        if (legacy != null) {
+            for (Interval interval : legacy) {
+                if (!isExcluded(interval, excludedReservationId) && interval.overlaps(fromDay, toDay)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Busca la estadía que empieza justo antes de "toDay". Como las estadías del árbol no se solapan,
+     * si esa no choca con [fromDay, toDay), ninguna anterior lo hará.
+     */
+    private static Interval findConflict(TreeMap<Long, Interval> stays, long fromDay, long toDay,
+                                         Integer excludedReservationId) {
+        NavigableMap<Long, Interval> before = stays.headMap(toDay, false);
+        for (Interval interval : before.descendingMap().values()) {
+            if (isExcluded(interval, excludedReservationId)) {
+                continue;
+            }
+            return interval.toDay() > fromDay ? interval : null;
+        }
+        return null;
+    }
+
+    private static boolean isExcluded(Interval interval, Integer excludedReservationId) {
+        return excludedReservationId != null && interval.reservationId() == excludedReservationId;
+    }
+
+    private record Interval(int reservationId, long fromDay, long toDay) {
+
+        boolean overlaps(long otherFrom, long otherTo) {
+            return fromDay < otherTo && otherFrom < toDay;
+        }
+    }
+}
@@ -14,12 +14,14 @@ import com.miyabi.repository.RoomTypeRepository;
 public class RoomTypeService {
 
     private final RoomTypeRepository roomTypeRepository;
+    private final RoomInventoryService roomInventoryService;
 
     /**
      * Inyección de dependencias por constructor.
      */
-    public RoomTypeService(RoomTypeRepository roomTypeRepository) {
+    public RoomTypeService(RoomTypeRepository roomTypeRepository, RoomInventoryService roomInventoryService) {
         this.roomTypeRepository = roomTypeRepository;
+        this.roomInventoryService = roomInventoryService;
     }
     
     /**
@@ -39,12 +41,21 @@ public class RoomTypeService {
         return roomTypeRepository.findAll();
     }
 
+    /**
+     * Categorías con su carrusel de imágenes (catálogo público de habitaciones).
+     */
+    public List<RoomType> findAllWithImages() {
+        return roomTypeRepository.findAllWithImages();
+    }
+
     /**
      * Guarda o actualiza una categoría de habitación.
      * Permite al administrador ajustar precios o cambiar descripciones dinámicamente.
      */
     public RoomType save(RoomType roomType) {
-        return roomTypeRepository.save(roomType);
+        RoomType saved = roomTypeRepository.save(roomType);
+        roomInventoryService.invalidate(); // Las tarifas del inventario en memoria deben recargarse
+        return saved;
     }
     
     /**
@@ -54,5 +65,6 @@ public class RoomTypeService {
      */
     public void deleteById(Integer id) {
         roomTypeRepository.deleteById(id);
+        roomInventoryService.invalidate();
     }
 }
\ No newline at end of file
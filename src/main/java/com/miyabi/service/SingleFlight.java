@@ -0,0 +1,79 @@
+package com.miyabi.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Agrupador de consultas idénticas ("single flight").
+ * Si llegan varias peticiones con la misma llave mientras el cálculo de la primera sigue en curso,
+ * las demás no recalculan: esperan y reciben el mismo resultado. Cuando el cálculo termina, la llave
+ * se libera y la siguiente petición vuelve a calcular (no es una caché, solo evita trabajo duplicado).
+ *
+ * Ej. cuando sale una promoción y cientos de navegadores piden el mismo mes en el mismo segundo,
+ * el calendario se calcula una vez y la respuesta se reparte a todos.
+ *
+ * @param <K> Llave de la consulta (debe implementar equals/hashCode).
+ * @param <V> Resultado compartido (los que esperan reciben la misma instancia; no debe modificarse).
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    // Cálculos realmente ejecutados y peticiones que reutilizaron uno en curso.
+    private final LongAdder computed = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    /**
+     * Devuelve el resultado para la llave, calculándolo solo si no hay otro cálculo en curso.
+     * Si el cálculo falla, todos los que esperaban reciben la misma excepción.
+     */
+    public V execute(K key, Supplier<V> computation) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            shared.increment();
+            return await(running);
+        }
+
+        computed.increment();
+        try {
+            V value = computation.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public long computedCount() {
+        return computed.sum();
+    }
+
+    /**
+     * Cantidad de cálculos ahorrados (peticiones atendidas con el resultado de otra).
+     */
+    public long sharedCount() {
+        return shared.sum();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+-- ============================================================
+-- V1.1: Secuencia de códigos de reserva (RES-<año>-<número>)
+-- ============================================================
+-- Cada instancia de la aplicación reserva bloques de números desde aquí (ReservationCodeAllocator),
+-- en lugar de calcular el siguiente código con un MAX() sobre reservations.
+
+CREATE TABLE reservation_code_blocks (
+    code_year INT PRIMARY KEY COMMENT 'Año de los códigos',
+    next_value BIGINT NOT NULL COMMENT 'Primer número aún no asignado a ningún bloque'
+);
@@ -0,0 +1,15 @@
+-- ============================================================
+-- V1.2: Respuestas guardadas por Idempotency-Key
+-- ============================================================
+-- Reintentos de la confirmación del checkout (IdempotencyService): la primera ejecución reclama
+-- la clave insertando la fila y guarda la respuesta que se repite a los reintentos.
+-- Se purgan solas después de 24 horas.
+
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(100) PRIMARY KEY,
+    request_hash CHAR(64) NOT NULL COMMENT 'SHA-256 del cuerpo de la petición',
+    status_code INT COMMENT 'NULL mientras la primera ejecución sigue en curso',
+    response_body TEXT,
+    created_at DATETIME NOT NULL,
+    INDEX idx_idempotency_created (created_at)
+);
@@ -0,0 +1,28 @@
+-- ============================================================
+-- V2: Índices para las consultas frecuentes
+-- ============================================================
+-- Hasta ahora solo existían los índices de las PK/UNIQUE y los que MySQL crea por su
+-- cuenta para las llaves foráneas. Estos índices compuestos los reemplazan y cubren los
+-- filtros y el orden de las consultas de ReservationRepository, ConsumptionRepository y
+-- PaymentsRepository (ver QueryPlanTests).
+
+-- Reservas de una habitación en un rango de fechas (cruce de estadías / disponibilidad)
+CREATE INDEX idx_reservations_room_dates ON reservations (room_id, entry_date, departure_date);
+
+-- "Mis reservas" del huésped (ordenadas por ID: InnoDB agrega la PK al final del índice)
+CREATE INDEX idx_reservations_guest ON reservations (guest_id);
+
+-- Intranet: listado filtrado por estado con paginación por cursor (fecha de ingreso, ID)
+-- y contadores por estado
+CREATE INDEX idx_reservations_state_entry ON reservations (state, entry_date, reservation_id);
+
+-- Intranet: listado sin filtro con paginación por cursor (fecha de ingreso, ID)
+CREATE INDEX idx_reservations_entry ON reservations (entry_date, reservation_id);
+
+-- Carga del índice de disponibilidad: estadías que todavía no terminan
+CREATE INDEX idx_reservations_departure ON reservations (departure_date, state);
+
+-- Consumos de una reserva (detalle de la boleta y de la intranet)
+CREATE INDEX idx_consumption_reservation ON consumption (reservation_id, service_id);
+
+-- Pagos de una reserva: ya cubiertos por el UNIQUE de payments.reservation_id
@@ -0,0 +1,23 @@
+-- ============================================================
+-- V3: Secuencias de IDs para inserciones por lotes
+-- ============================================================
+-- Con AUTO_INCREMENT, Hibernate debe ejecutar cada INSERT por separado para conocer el ID
+-- generado, lo que desactiva los lotes JDBC. Consumos, pagos y registros de acceso pasan a
+-- reservar sus IDs de a bloques desde esta tabla (optimizador "pooled-lo": next_val es el
+-- primer ID del siguiente bloque libre). Las columnas mantienen su AUTO_INCREMENT para los
+-- INSERT manuales; después de uno de ellos hay que volver a sincronizar next_val
+-- (ver el final de scripts/query.sql).
+
+CREATE TABLE id_sequences (
+    sequence_name VARCHAR(50) PRIMARY KEY COMMENT 'Tabla dueña de los IDs',
+    next_val BIGINT NOT NULL COMMENT 'Primer ID aún no asignado a ningún bloque'
+);
+
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'consumption', COALESCE(MAX(consumption_id), 0) + 1 FROM consumption;
+
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'payments', COALESCE(MAX(payment_id), 0) + 1 FROM payments;
+
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'access_log', COALESCE(MAX(access_id), 0) + 1 FROM access_log;
@@ -0,0 +1,22 @@
+-- ============================================================
+-- V4: Seguimiento de cambios de reservas (índice de disponibilidad)
+-- ============================================================
+-- Cada instancia mantiene un índice de disponibilidad en memoria y lo actualiza leyendo los
+-- cambios hechos por las demás (AvailabilityRefreshService). Leer "las reservas con ID mayor al
+-- último visto" no alcanza: una transacción que obtuvo el ID N pero confirmó después de que se
+-- leyó el N+1 se perdía, y los cambios de fechas o las cancelaciones nunca se veían.
+
+-- Última modificación de la fila, mantenida por la BD en cada INSERT/UPDATE
+ALTER TABLE reservations
+    ADD COLUMN updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+
+-- Lectura incremental por fecha de modificación (con desempate por ID)
+CREATE INDEX idx_reservations_updated ON reservations (updated_at, reservation_id);
+
+-- Reservas eliminadas: la fila ya no existe, así que las demás instancias se enteran por aquí.
+-- Se purgan solas después de unos días (ver AvailabilityRefreshService).
+CREATE TABLE reservation_deletions (
+    reservation_id INT PRIMARY KEY,
+    deleted_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    INDEX idx_reservation_deletions_deleted (deleted_at)
+);
@@ -0,0 +1,13 @@
+-- ============================================================
+-- V5: Reclamo con vencimiento de las claves de idempotencia
+-- ============================================================
+-- Una instancia que se cae mientras ejecuta la operación deja la clave reclamada y sin respuesta
+-- (status_code NULL): los reintentos recibían 409 hasta que la limpieza la borraba (24 horas).
+-- Con la fecha del reclamo, otra instancia puede tomar la clave cuando el reclamo vence
+-- (miyabi.idempotency.claim-lease-ms, ver IdempotencyService).
+
+ALTER TABLE idempotency_keys
+    ADD COLUMN claimed_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+-- Los reclamos existentes se hicieron al crear la fila
+UPDATE idempotency_keys SET claimed_at = created_at;
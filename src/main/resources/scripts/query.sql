@@ -1,172 +1,19 @@
 -- ============================================================
--- SCRIPT DE CREACIÓN COMPLETA - DB_Miyabi
+-- SCRIPT DE CREACIÓN DE LA BD Y DATOS DE DEMOSTRACIÓN - DB_Miyabi
 -- ============================================================
 
 CREATE DATABASE DB_Miyabi CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
 USE DB_Miyabi;
 
--- TABLA 1: Roles
-CREATE TABLE roles (
-    rol_id INT AUTO_INCREMENT PRIMARY KEY,
-    name_rol VARCHAR(50) NOT NULL UNIQUE,
-    description VARCHAR(200)
-);
-
--- TABLA 2: Usuarios (Admin y Recepcionistas)
-CREATE TABLE users (
-    user_id INT AUTO_INCREMENT PRIMARY KEY,
-    names VARCHAR(100) NOT NULL,
-    surnames VARCHAR(100) NOT NULL,
-    email VARCHAR(100) NOT NULL UNIQUE,
-    password VARCHAR(255) NOT NULL,
-    state TINYINT DEFAULT 1 COMMENT '1=Active, 0=Inactive',
-    creation_date DATETIME DEFAULT CURRENT_TIMESTAMP,
-    rol_id INT NOT NULL,
-    FOREIGN KEY (rol_id) REFERENCES roles(rol_id)
-);
-
--- TABLA 3: Clientes
-CREATE TABLE guests (
-    guest_id INT AUTO_INCREMENT PRIMARY KEY,
-    names VARCHAR(100) NOT NULL,
-    surnames VARCHAR(100) NOT NULL,
-    dni VARCHAR(15) NOT NULL UNIQUE,
-    email VARCHAR(100) NOT NULL UNIQUE,
-    password VARCHAR(255) NOT NULL,
-    phone VARCHAR(15),
-    mobile_phone VARCHAR(15) COMMENT 'Teléfono móvil adicional',
-    address VARCHAR(200),
-    country VARCHAR(100) NOT NULL DEFAULT '' COMMENT 'País de procedencia',
-    city VARCHAR(100) NOT NULL DEFAULT '' COMMENT 'Ciudad de procedencia',
-    postal_code VARCHAR(20) COMMENT 'Código postal',
-    registration_date DATETIME DEFAULT CURRENT_TIMESTAMP,
-    state TINYINT DEFAULT 1
-);
-
--- TABLA 4: Tipo de habitacion
-CREATE TABLE room_type (
-    type_id INT AUTO_INCREMENT PRIMARY KEY,
-    name_type VARCHAR(100) NOT NULL UNIQUE,
-    description TEXT,
-    short_description VARCHAR(255) COMMENT 'Resumen breve en cursiva, ej: Dormitorio + terraza...',
-    capacity_people INT NOT NULL DEFAULT 2,
-    base_price DECIMAL(10,2) NOT NULL,
-    high_season_price DECIMAL(10,2),
-    image_url VARCHAR(500),
-    floor_plan_url VARCHAR(500) COMMENT 'URL del croquis/plano arquitectónico',
-    room_size VARCHAR(50) COMMENT 'Tamaño de la habitación, ej: 25 m²',
-    location_info VARCHAR(150) COMMENT 'Ubicación específica, ej: Planta 2, vista al jardín',
-    bed_type VARCHAR(150) COMMENT 'Detalle de camas, ej: 1 cama king size + sofá cama',
-    amenities JSON COMMENT 'Lista de amenidades: ["WiFi","TV","Jacuzzi","Hamaca disponible"]'
-);
-
--- TABLA 4.1: Carrusel de imágenes por tipo de habitación
-CREATE TABLE room_images (
-    image_id INT AUTO_INCREMENT PRIMARY KEY,
-    image_url VARCHAR(500) NOT NULL COMMENT 'URL de la fotografía',
-    alt_text VARCHAR(150) COMMENT 'Texto alternativo para accesibilidad',
-    display_order INT DEFAULT 1 COMMENT 'Orden en el carrusel',
-    is_main TINYINT DEFAULT 0 COMMENT '1=Imagen principal del carrusel',
-    type_id INT NOT NULL,
-    FOREIGN KEY (type_id) REFERENCES room_type(type_id) ON DELETE CASCADE
-);
-
--- TABLA 5: Habitaciones
-CREATE TABLE rooms (
-    room_id INT AUTO_INCREMENT PRIMARY KEY,
-    room_number VARCHAR(10) NOT NULL UNIQUE COMMENT 'Ej: 101, 205, P3',
-    floor INT NOT NULL,
-    state VARCHAR(20) NOT NULL DEFAULT 'Available' 
-        COMMENT 'Available, Occupied, Reserved, Cleaning, Maintenance',
-    additional_description TEXT,
-    date_last_maintenance DATE,
-    type_id INT NOT NULL,
-    FOREIGN KEY (type_id) REFERENCES room_type(type_id)
-);
-
--- TABLA 6: Reservas
-CREATE TABLE reservations (
-    reservation_id INT AUTO_INCREMENT PRIMARY KEY,
-    reservation_code VARCHAR(20) NOT NULL UNIQUE 
-        COMMENT 'Código para buscar: RES-2026-0001',
-    entry_date DATE NOT NULL,
-    departure_date DATE NOT NULL,
-    number_nights INT NOT NULL,
-    price_per_night DECIMAL(10,2) NOT NULL COMMENT 'Precio al momento de reservar',
-    room_subtotal DECIMAL(10,2) NOT NULL COMMENT 'precio_noche x noches',
-    total_consumption DECIMAL(10,2) DEFAULT 0.00,
-    total_pay DECIMAL(10,2) NOT NULL COMMENT 'subtotal + consumos',
-    state VARCHAR(20) NOT NULL DEFAULT 'Pending'
-        COMMENT 'Pending, Confirmed, Check-in, Check-out, Cancelled',
-    observations TEXT,
-    num_adults INT NOT NULL DEFAULT 1 COMMENT 'Número de adultos en la reserva',
-    num_children INT NOT NULL DEFAULT 0 COMMENT 'Número de niños en la reserva',
-    reservation_date DATETIME DEFAULT CURRENT_TIMESTAMP,
-    checkin_date DATETIME COMMENT 'Cuando el recep hace check-in',
-    checkout_date DATETIME COMMENT 'Cuando el recep hace check-out',
-    guest_id INT NOT NULL,
-    room_id INT NOT NULL,
-    user_id_checkin INT COMMENT 'Recepcionista que hizo check-in',
-    user_id_checkout INT COMMENT 'Recepcionista que hizo check-out',
-    FOREIGN KEY (guest_id) REFERENCES guests(guest_id),
-    FOREIGN KEY (room_id) REFERENCES rooms(room_id),
-    FOREIGN KEY (user_id_checkin) REFERENCES users(user_id),
-    FOREIGN KEY (user_id_checkout) REFERENCES users(user_id),
-    CONSTRAINT chk_max_guests CHECK (num_adults + num_children <= 6),
-    CONSTRAINT chk_min_adults CHECK (num_adults >= 1)
-);
-
--- TABLA 7: Catalogo de servicios
-CREATE TABLE services_catalog (
-    service_id INT AUTO_INCREMENT PRIMARY KEY,
-    service_name VARCHAR(100) NOT NULL,
-    description VARCHAR(200),
-    price DECIMAL(10,2) NOT NULL,
-    category VARCHAR(50) COMMENT 'Bebidas, Comidas, Spa, Lavandería, etc.',
-    season ENUM('Autumn', 'Winter', 'Summer', 'Spring', 'All year') NOT NULL DEFAULT 'All year',
-    available TINYINT DEFAULT 1 COMMENT '1=Active, 0=Inactive'
-);
-
--- TABLA 8: Consumos
-CREATE TABLE consumption (
-    consumption_id INT AUTO_INCREMENT PRIMARY KEY,
-    amount INT NOT NULL DEFAULT 1,
-    unit_price DECIMAL(10,2) NOT NULL,
-    subtotal DECIMAL(10,2) NOT NULL COMMENT 'cantidad x precio_unitario',
-    observation VARCHAR(200),
-    consumption_date DATETIME DEFAULT CURRENT_TIMESTAMP,
-    reservation_id INT NOT NULL,
-    service_id INT NOT NULL,
-    user_registration_id INT COMMENT 'Quien registró el consumo',
-    FOREIGN KEY (reservation_id) REFERENCES reservations(reservation_id),
-    FOREIGN KEY (service_id) REFERENCES services_catalog(service_id),
-    FOREIGN KEY (user_registration_id) REFERENCES users(user_id)
-);
-
--- TABLA 9: Pagos
-CREATE TABLE payments (
-    payment_id INT AUTO_INCREMENT PRIMARY KEY,
-    total_amount DECIMAL(10,2) NOT NULL,
-    payment_method VARCHAR(30) NOT NULL COMMENT 'Efectivo, Tarjeta, Transferencia',
-    payment_status VARCHAR(20) DEFAULT 'Paid',
-    receipt_number VARCHAR(50),
-    payment_day DATETIME DEFAULT CURRENT_TIMESTAMP,
-    observation TEXT,
-    reservation_id INT NOT NULL UNIQUE,
-    user_charge_id INT COMMENT 'Recepcionista que cobró',
-    FOREIGN KEY (reservation_id) REFERENCES reservations(reservation_id),
-    FOREIGN KEY (user_charge_id) REFERENCES users(user_id)
-);
-
--- TABLA 10: Registros de acceso para el admin
-CREATE TABLE access_log (
-    access_id INT AUTO_INCREMENT PRIMARY KEY,
-    access_date DATETIME DEFAULT CURRENT_TIMESTAMP,
-    access_ip VARCHAR(50),
-    user_type VARCHAR(20) COMMENT 'Usuario o Cliente',
-    user_id INT,
-    guest_id INT
-);
+-- ------------------------------------------------------------
+-- TABLAS: ya no se crean aquí. El esquema está versionado con Flyway en
+-- src/main/resources/db/migration (V1__baseline_schema.sql, V2__..., etc.)
+-- y se crea/actualiza solo al iniciar la aplicación.
+-- Orden para una BD nueva:
+--   1. Ejecutar el CREATE DATABASE de arriba.
+--   2. Iniciar la aplicación (Flyway crea las tablas e índices).
+--   3. Ejecutar las inserciones de datos de abajo.
+-- ------------------------------------------------------------
 
 -- ============================================================
 -- INSERCIONES DE DATOS
@@ -569,6 +416,16 @@ VALUES (3, 1200.00, 3600.00, 'Dumpling de ñame al vapor (x3)', @res3, 3);
 
 INSERT INTO payments (total_amount, payment_method, payment_status, reservation_id, observation)
 VALUES (98600.00, 'Transferencia', 'Paid', @res3, 'Pago previo y consumos cobrados al final');
+
+-- ============================================================
+-- SINCRONIZAR SECUENCIAS DE IDs (tabla id_sequences, migración V3)
+-- ============================================================
+-- Las inserciones de arriba usan AUTO_INCREMENT; la aplicación reserva los IDs de consumos,
+-- pagos y accesos desde id_sequences, así que debe continuar después del último ID insertado.
+UPDATE id_sequences SET next_val = (SELECT COALESCE(MAX(consumption_id), 0) + 1 FROM consumption) WHERE sequence_name = 'consumption';
+UPDATE id_sequences SET next_val = (SELECT COALESCE(MAX(payment_id), 0) + 1 FROM payments) WHERE sequence_name = 'payments';
+UPDATE id_sequences SET next_val = (SELECT COALESCE(MAX(access_id), 0) + 1 FROM access_log) WHERE sequence_name = 'access_log';
+
 SELECT * FROM reservations;
 SELECT * FROM guests;
 
@@ -584,4 +441,4 @@ FROM reservations r
 INNER JOIN guests g ON r.guest_id = g.guest_id
 INNER JOIN rooms rm ON r.room_id = rm.room_id
 INNER JOIN room_type rt ON rm.type_id = rt.type_id
-WHERE r.reservation_id = ?;
\ No newline at end of file
+WHERE r.reservation_id = ?;
@@ -206,6 +206,11 @@ document.addEventListener('DOMContentLoaded', async () => {
     if (checkInDate && checkOutDate) {
         fetchAndRenderRooms();
     }
+
+    // Escucha los cambios de disponibilidad en vivo para que el calendario no muestre datos viejos
+    if (document.getElementById('calendar-modal')) {
+        subscribeToAvailability();
+    }
 });
 
 
@@ -214,8 +219,10 @@ document.addEventListener('DOMContentLoaded', async () => {
 // ============================================================
 
 /**
- * Consulta la API de tipos de habitación y filtra los resultados
- * según la capacidad mínima requerida para los huéspedes seleccionados.
+ * Consulta la API de habitaciones y pinta los resultados.
+ * Si ya hay fechas seleccionadas usa el buscador por fechas (solo categorías con
+ * habitaciones libres en ese rango, ordenadas por precio total de la estadía);
+ * si no, muestra el catálogo completo filtrado por capacidad.
  * Actualiza el contenedor de habitaciones con un estado de carga y,
  * al recibir la respuesta, delega el renderizado a `renderRoomList`.
  *
@@ -229,11 +236,26 @@ async function fetchAndRenderRooms() {
     listContainer.innerHTML = '<p style="padding: 20px;">Buscando habitaciones disponibles...</p>';
     
     try {
-        // GET /api/room-types → devuelve array de { idTipo, nameType, capacityPeople, basePrice, ... }
-        const response = await fetch('/api/room-types'); 
-        const roomTypes = await response.json();
-        // Filtra en cliente: solo muestra habitaciones que admitan el número de adultos seleccionados
-        const availableRooms = roomTypes.filter(rt => rt.capacityPeople >= selectedAdults);
+        let availableRooms;
+        if (checkInDate && checkOutDate) {
+            // GET /api/room-types/search → solo categorías con al menos una habitación libre,
+            // cada una con su habitación asignada (roomId) y el precio total (totalPrice)
+            const params = new URLSearchParams({
+                checkIn: toIsoDate(checkInDate),
+                checkOut: toIsoDate(checkOutDate),
+                adults: selectedAdults,
+                children: 0
+            });
+            const response = await fetch(`/api/room-types/search?${params}`);
+            if (!response.ok) throw new Error(`HTTP ${response.status}`);
+            availableRooms = await response.json();
+        } else {
+            // GET /api/room-types → devuelve array de { idTipo, nameType, capacityPeople, basePrice, ... }
+            const response = await fetch('/api/room-types'); 
+            const roomTypes = await response.json();
+            // Filtra en cliente: solo muestra habitaciones que admitan el número de adultos seleccionados
+            availableRooms = roomTypes.filter(rt => rt.capacityPeople >= selectedAdults);
+        }
         renderRoomList(availableRooms);
     } catch (error) {
         console.error("Error buscando habitaciones:", error);
@@ -241,6 +263,17 @@ async function fetchAndRenderRooms() {
     }
 }
 
+/**
+ * Convierte una fecha local al formato yyyy-MM-dd que espera la API
+ * (sin pasar por UTC, para no correr el día en zonas horarias negativas).
+ *
+ * @param {Date} date - Fecha a formatear.
+ * @returns {string}
+ */
+function toIsoDate(date) {
+    return `${date.getFullYear()}-${String(date.getMonth() + 1).padStart(2, '0')}-${String(date.getDate()).padStart(2, '0')}`;
+}
+
 
 // ============================================================
 //  SECCIÓN 4 — SELECTOR DE HUÉSPEDES
@@ -378,6 +411,64 @@ async function fetchUnavailableDates() {
 }
 
 
+// Temporizador de la recarga completa tras un "resync" (una sola aunque lleguen varios)
+let availabilityResyncTimer = null;
+
+// Espera máxima antes de recargar: reparte en el tiempo las recargas de todos los calendarios abiertos
+const RESYNC_JITTER_MS = 5000;
+
+/**
+ * Abre el stream SSE de disponibilidad (GET /api/reservations/availability/stream).
+ * Cada evento "availability" trae { date, typeId, free, hotelFree } de las noches que cambiaron y se
+ * aplica aquí mismo: sin habitaciones libres en el hotel la fecha se bloquea, si no se libera.
+ * Solo "resync" (se perdieron cambios) o una reconexión obligan a pedir la lista completa, y con
+ * una espera al azar para que todos los calendarios no lo hagan en el mismo instante.
+ */
+function subscribeToAvailability() {
+    if (!window.EventSource) return;
+
+    const source = new EventSource('/api/reservations/availability/stream');
+    let connectedBefore = false;
+
+    source.addEventListener('availability', (event) => applyAvailabilityDeltas(JSON.parse(event.data)));
+    source.addEventListener('resync', scheduleResync);
+    source.addEventListener('open', () => {
+        // Mientras estuvo desconectado pudo perder cambios
+        if (connectedBefore) scheduleResync();
+        connectedBefore = true;
+    });
+}
+
+/**
+ * Aplica un lote de cambios a la lista local de fechas bloqueadas y re-renderiza una sola vez.
+ *
+ * @param {Array<{date: string, typeId: number, free: number, hotelFree: number}>} deltas
+ */
+function applyAvailabilityDeltas(deltas) {
+    const blocked = new Set(unavailableDates);
+    for (const delta of deltas) {
+        if (delta.hotelFree > 0) {
+            blocked.delete(delta.date);
+        } else {
+            blocked.add(delta.date);
+        }
+    }
+    unavailableDates = [...blocked].sort();
+    renderDualCalendar();
+}
+
+/**
+ * Programa una recarga completa de las fechas bloqueadas tras una espera al azar (0-5 s).
+ */
+function scheduleResync() {
+    if (availabilityResyncTimer) return;
+    availabilityResyncTimer = setTimeout(() => {
+        availabilityResyncTimer = null;
+        fetchUnavailableDates();
+    }, Math.random() * RESYNC_JITTER_MS);
+}
+
+
 /**
  * Avanza la vista del calendario al mes siguiente
  * y re-renderiza ambas columnas.
@@ -564,6 +655,10 @@ async function confirmDates(event) {
     }
 
     document.getElementById('calendar-modal').classList.add('hidden');
+
+    // La habitación retenida era para las fechas anteriores: se libera y se vuelve a elegir
+    if (selectedRoomId) removeRoom();
+
     await fetchAndRenderRooms(); 
 }
 
@@ -585,7 +680,7 @@ function renderRoomList(rooms) {
     listContainer.innerHTML = '';
 
     if (rooms.length === 0) {
-        listContainer.innerHTML = '<p style="padding: 20px;">No hay habitaciones con capacidad para esa cantidad de huéspedes.</p>';
+        listContainer.innerHTML = '<p style="padding: 20px;">No hay habitaciones disponibles para esas fechas y esa cantidad de huéspedes.</p>';
         return;
     }
 
@@ -596,6 +691,11 @@ function renderRoomList(rooms) {
         if (room.bedType) featuresHtml += `<li>${room.bedType}</li>`;
         if (room.shortDescription) featuresHtml += `<li>${room.shortDescription}</li>`;
 
+        // Los resultados del buscador traen la habitación física libre (roomId);
+        // el catálogo sin fechas solo conoce el tipo (idTipo)
+        const bookId = room.roomId ?? room.idTipo;
+        const nightlyPrice = nightlyPriceOf(room);
+
         // Genera el HTML de la tarjeta usando template literal para mantener el
         // binding de datos inline (data-room-id) necesario para updateRoomButtonsUI()
         const card = `
@@ -637,12 +737,12 @@ function renderRoomList(rooms) {
                             </p>
                         </div>
                         <div class="room-price-box">
-                            <p class="room-price">¥${room.basePrice.toLocaleString('es-ES')}</p>
+                            <p class="room-price">¥${nightlyPrice.toLocaleString('es-ES')}</p>
                             <p class="room-price-sub">Por noche<br>Incluye impuestos y tasas</p>
                             <button class="btn-room-action btn-book-now" 
-                                    data-room-id="${room.idTipo}" 
-                                    onclick="selectRoom(${room.idTipo}, '${room.nameType}', ${room.basePrice})">
-                                ${room.idTipo === selectedRoomId ? 'REMOVER RESERVA' : 'RESERVAR AHORA'}
+                                    data-room-id="${bookId}" 
+                                    onclick="selectRoom(${bookId}, '${room.nameType}', ${nightlyPrice})">
+                                ${bookId === selectedRoomId ? 'REMOVER RESERVA' : 'RESERVAR AHORA'}
                             </button>
                         </div>
                     </div>
@@ -653,6 +753,22 @@ function renderRoomList(rooms) {
     });
 }
 
+/**
+ * Precio por noche que se muestra y se lleva al carrito.
+ * Con fechas, el buscador devuelve el total de la estadía con la tarifa de temporada de cada
+ * noche (totalPrice): se usa su promedio por noche, el mismo que se cobrará al confirmar.
+ * Sin fechas (catálogo) solo se conoce la tarifa base.
+ *
+ * @param {Object} room - Resultado del buscador o tipo de habitación del catálogo.
+ * @returns {number}
+ */
+function nightlyPriceOf(room) {
+    if (room.totalPrice != null && room.nights > 0) {
+        return Math.round(room.totalPrice / room.nights * 100) / 100;
+    }
+    return room.basePrice;
+}
+
 
 // ============================================================
 //  SECCIÓN 7 — CARRITO DE RESERVA
@@ -662,6 +778,8 @@ function renderRoomList(rooms) {
 let selectedRoomId = sessionStorage.getItem('booking_roomId') ? parseInt(sessionStorage.getItem('booking_roomId')) : null;
 let selectedRoomPrice = sessionStorage.getItem('booking_roomPrice') ? parseFloat(sessionStorage.getItem('booking_roomPrice')) : 0;
 let selectedRoomName = sessionStorage.getItem('booking_roomName') || "";
+// Retención temporal de la habitación (POST /api/holds): la aparta mientras el huésped hace el checkout
+let selectedHoldId = sessionStorage.getItem('booking_holdId');
 
 
 /**
@@ -705,20 +823,46 @@ function updateCartUI() {
 
 /**
  * Selecciona una habitación o la deselecciona si ya estaba elegida (toggle).
+ * Si hay fechas, primero retiene la habitación en el servidor por unos minutos;
+ * si otro huésped se la llevó, avisa y refresca la lista.
  * Persiste la selección en sessionStorage, actualiza el carrito y hace
  * scroll automático hacia la card del carrito para confirmar la selección.
  *
- * @param {number} typeId - ID del tipo de habitación seleccionado.
+ * @param {number} typeId - ID de la habitación a reservar (la asignada por el buscador, o el tipo si no hay fechas).
  * @param {string} name   - Nombre del tipo de habitación.
- * @param {number} price  - Precio base por noche de la habitación.
+ * @param {number} price  - Precio por noche de la habitación (con la tarifa de temporada si hay fechas).
  */
-function selectRoom(typeId, name, price) {
+async function selectRoom(typeId, name, price) {
     // Si se vuelve a clicar la misma habitación, actúa como "remover"
     if (selectedRoomId === typeId) {
         removeRoom();
         return;
     }
 
+    // Solo se puede tener una habitación en el carrito: suelta la retención anterior
+    releaseHold();
+
+    if (checkInDate && checkOutDate) {
+        try {
+            // POST /api/holds → { holdId, roomId, checkIn, checkOut, expiresAt }
+            const response = await fetch('/api/holds', {
+                method: 'POST',
+                headers: { 'Content-Type': 'application/json' },
+                body: JSON.stringify({ roomId: typeId, checkIn: toIsoDate(checkInDate), checkOut: toIsoDate(checkOutDate) })
+            });
+            if (!response.ok) {
+                showToast("Lo sentimos, otro huésped acaba de reservar esta habitación.", true);
+                fetchAndRenderRooms();
+                return;
+            }
+            const hold = await response.json();
+            selectedHoldId = hold.holdId;
+            sessionStorage.setItem('booking_holdId', selectedHoldId);
+        } catch (error) {
+            console.error("Error reteniendo la habitación:", error);
+        }
+    }
+
     selectedRoomId = typeId;
     selectedRoomName = name;
     selectedRoomPrice = price;
@@ -739,6 +883,8 @@ function selectRoom(typeId, name, price) {
  * su persistencia en sessionStorage.
  */
 function removeRoom() {
+    releaseHold();
+
     selectedRoomId = null;
     selectedRoomName = "";
     selectedRoomPrice = 0;
@@ -752,6 +898,22 @@ function removeRoom() {
 }
 
 
+/**
+ * Libera en el servidor la retención de la habitación del carrito (si hay una).
+ * No espera la respuesta: si falla, la retención vence sola a los pocos minutos.
+ */
+function releaseHold() {
+    if (!selectedHoldId) return;
+
+    // DELETE /api/holds/{holdId}
+    fetch(`/api/holds/${encodeURIComponent(selectedHoldId)}`, { method: 'DELETE' })
+        .catch(error => console.error("Error liberando la retención:", error));
+
+    selectedHoldId = null;
+    sessionStorage.removeItem('booking_holdId');
+}
+
+
 /**
  * Recorre todos los botones de habitación del DOM y actualiza
  * su texto según si su ID coincide con la habitación actualmente seleccionada.
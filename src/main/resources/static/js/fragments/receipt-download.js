@@ -0,0 +1,95 @@
+// ============================================================
+// receipt-download.js — Descarga de boletas PDF desde la intranet
+// ============================================================
+// Las boletas se generan en una cola en segundo plano (no en los
+// hilos del servidor web): se pide un ticket, se consulta su estado
+// y, cuando el PDF está listo, se descarga. Si el servidor responde
+// 410 (el archivo ya no está), se pide la boleta otra vez.
+//
+// Uso en la plantilla:
+//   <a href="/api/receipts/generate/42" data-receipt-id="42">Receipt</a>
+//
+// El href queda como respaldo (descarga directa) si JavaScript falla.
+// ============================================================
+
+document.addEventListener('DOMContentLoaded', () => {
+    document.querySelectorAll('[data-receipt-id]').forEach(link => {
+        link.addEventListener('click', event => {
+            event.preventDefault();
+            downloadReceipt(link);
+        });
+    });
+});
+
+/**
+ * Pide la boleta a la cola y la descarga cuando está lista.
+ * @param {HTMLAnchorElement} link Enlace con data-receipt-id.
+ */
+async function downloadReceipt(link) {
+    if (link.dataset.busy) return;
+    link.dataset.busy = 'true';
+    const label = link.textContent;
+    link.textContent = 'Generating…';
+
+    try {
+        // Si el PDF ya no está al descargarlo (410: la caché lo descartó o la reserva cambió), se pide de nuevo
+        let pdf = null;
+        for (let attempt = 0; attempt < 2 && !pdf; attempt++) {
+            const job = await requestReceipt(link.dataset.receiptId);
+            const response = await fetch(job.downloadUrl);
+            if (response.status === 410) continue;
+            if (!response.ok) throw new Error(`HTTP ${response.status}`);
+            pdf = await response.blob();
+        }
+        if (!pdf) throw new Error('HTTP 410');
+
+        // 3. Descarga
+        const url = URL.createObjectURL(pdf);
+        const anchor = document.createElement('a');
+        anchor.href = url;
+        anchor.download = `Receipt_Reservation_${link.dataset.receiptId}.pdf`;
+        document.body.appendChild(anchor);
+        anchor.click();
+        anchor.remove();
+        setTimeout(() => URL.revokeObjectURL(url), 1000);
+    } catch (error) {
+        console.error('Error al generar la boleta:', error);
+        alert('The receipt could not be generated. Please try again.');
+    } finally {
+        link.textContent = label;
+        delete link.dataset.busy;
+    }
+}
+
+/**
+ * Pide la boleta a la cola y espera a que esté lista.
+ * @param {string} reservationId ID de la reserva.
+ * @returns {Promise<Object>} Estado del trabajo en READY (con downloadUrl).
+ */
+async function requestReceipt(reservationId) {
+    // 1. Pide el ticket (si la cola está llena, espera lo que indica Retry-After y reintenta)
+    let response;
+    while ((response = await fetch(`/api/receipts/${reservationId}/jobs`, { method: 'POST' })).status === 429) {
+        await wait(response);
+    }
+    if (!response.ok) throw new Error(`HTTP ${response.status}`);
+    let job = await response.json();
+
+    // 2. Consulta el estado hasta que el PDF esté listo
+    while (job.status === 'QUEUED' || job.status === 'RENDERING') {
+        await wait(response);
+        response = await fetch(job.statusUrl);
+        if (!response.ok) throw new Error(`HTTP ${response.status}`);
+        job = await response.json();
+    }
+    if (job.status !== 'READY') throw new Error(job.error || job.status);
+    return job;
+}
+
+/**
+ * Espera los segundos que indica la cabecera Retry-After (1 por defecto).
+ */
+function wait(response) {
+    const seconds = Number(response.headers.get('Retry-After')) || 1;
+    return new Promise(resolve => setTimeout(resolve, seconds * 1000));
+}
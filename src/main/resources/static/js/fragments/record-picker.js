@@ -0,0 +1,73 @@
+// ============================================================
+// record-picker.js — Selectores con autocompletado de la intranet
+// ============================================================
+// Reemplaza a los <select> que cargaban TODOS los huéspedes y
+// habitaciones en la página: mientras el empleado escribe se piden
+// solo las primeras coincidencias al servidor.
+//
+// Uso en la plantilla:
+//   <input type="text" list="guestOptions" required
+//          data-picker-url="/users/reservations/guests"
+//          data-picker-target="guestId"/>
+//   <datalist id="guestOptions"></datalist>
+//   <input type="hidden" name="guestId" id="guestId"/>
+//
+// El input visible muestra el texto (ej. "Ana Torres (45879632)");
+// el input oculto guarda el ID que se envía en el formulario y su
+// tarifa en data-price (solo habitaciones). Al elegir una opción,
+// el input oculto dispara "change" para que la página reaccione.
+// ============================================================
+
+document.addEventListener('DOMContentLoaded', () => {
+    document.querySelectorAll('[data-picker-url]').forEach(initRecordPicker);
+});
+
+/**
+ * Conecta un input de texto con su datalist y su input oculto.
+ * @param {HTMLInputElement} input Input visible con data-picker-url y data-picker-target.
+ */
+function initRecordPicker(input) {
+    const url = input.dataset.pickerUrl;
+    const hidden = document.getElementById(input.dataset.pickerTarget);
+    const datalist = document.getElementById(input.getAttribute('list'));
+
+    let options = [];       // Últimas sugerencias recibidas: [{ id, label, price? }]
+    let timer = null;       // Debounce: no se consulta en cada tecla
+    let controller = null;  // Cancela la consulta anterior si el empleado sigue escribiendo
+
+    input.addEventListener('input', () => {
+        // ¿El texto coincide con una sugerencia? (el datalist rellena el input al elegirla)
+        const chosen = options.find(option => option.label === input.value);
+        if (chosen) {
+            hidden.value = chosen.id;
+            hidden.dataset.price = chosen.price ?? '';
+            input.setCustomValidity('');
+            hidden.dispatchEvent(new Event('change'));
+            return;
+        }
+
+        // Texto libre: aún no hay un registro elegido, el formulario no se puede enviar
+        hidden.value = '';
+        input.setCustomValidity('Select an option from the list');
+
+        clearTimeout(timer);
+        timer = setTimeout(() => loadOptions(input.value.trim()), 250);
+    });
+
+    async function loadOptions(query) {
+        if (controller) controller.abort();
+        controller = new AbortController();
+        try {
+            const response = await fetch(`${url}?q=${encodeURIComponent(query)}`, { signal: controller.signal });
+            if (!response.ok) return;
+            options = await response.json();
+            datalist.replaceChildren(...options.map(option => {
+                const element = document.createElement('option');
+                element.value = option.label;
+                return element;
+            }));
+        } catch (error) {
+            if (error.name !== 'AbortError') console.error('Error al buscar sugerencias:', error);
+        }
+    }
+}
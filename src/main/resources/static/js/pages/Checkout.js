@@ -192,6 +192,8 @@ async function processFinalReservation() {
     const reservationData = {
         guest: guestData,
         room: { idRoom: parseInt(sessionStorage.getItem('booking_roomId')) },
+        // Retención de la habitación hecha en el carrito (se convierte en la reserva)
+        holdId: sessionStorage.getItem('booking_holdId'),
         // Las fechas se convierten a formato ISO "YYYY-MM-DD" eliminando la parte de hora
         entryDate: new Date(sessionStorage.getItem('booking_checkin')).toISOString().split('T')[0],
         departureDate: new Date(sessionStorage.getItem('booking_checkout')).toISOString().split('T')[0],
@@ -202,11 +204,23 @@ async function processFinalReservation() {
     };
 
     // === Paso 4: Envío a la API ===
+    // La clave de idempotencia se conserva hasta que la reserva se confirme: si la respuesta se
+    // pierde (timeout, red) y el usuario reintenta, el servidor devuelve la reserva ya creada
+    // en lugar de crear una segunda reserva y un segundo pago
+    let idempotencyKey = sessionStorage.getItem('checkout_idempotencyKey');
+    if (!idempotencyKey) {
+        idempotencyKey = crypto.randomUUID();
+        sessionStorage.setItem('checkout_idempotencyKey', idempotencyKey);
+    }
+
     try {
         // POST /api/reservations/confirm → espera { reservationCode } si la reserva se crea correctamente
         const response = await fetch('/api/reservations/confirm', {
             method: 'POST',
-            headers: { 'Content-Type': 'application/json' },
+            headers: {
+                'Content-Type': 'application/json',
+                'Idempotency-Key': idempotencyKey
+            },
             body: JSON.stringify(reservationData)
         });
 
@@ -218,9 +232,11 @@ async function processFinalReservation() {
             // Limpia los datos de la reserva activa del sessionStorage;
             // se conservan guestId y guestName para mantener la sesión del usuario
             sessionStorage.removeItem('booking_roomId');
+            sessionStorage.removeItem('booking_holdId');
             sessionStorage.removeItem('booking_checkin');
             sessionStorage.removeItem('booking_checkout');
             sessionStorage.removeItem('checkout_draft'); 
+            sessionStorage.removeItem('checkout_idempotencyKey');
             
             // Redirige tras 5 segundos para que el usuario pueda leer el toast de confirmación
             setTimeout(() => {
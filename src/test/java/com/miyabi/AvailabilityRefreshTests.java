@@ -0,0 +1,105 @@
+package com.miyabi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.miyabi.models.Guest;
+import com.miyabi.models.Room;
+import com.miyabi.models.RoomType;
+import com.miyabi.service.AvailabilityIndexService;
+import com.miyabi.service.AvailabilityRefreshService;
+import com.miyabi.support.TestData;
+
+/**
+ * Actualización incremental del índice de disponibilidad con cambios hechos por otra instancia
+ * (escritos directo en la BD): altas, confirmaciones tardías dentro del margen de solapamiento,
+ * cambios de fechas, cancelaciones y eliminaciones.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class AvailabilityRefreshTests {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TestData testData;
+    @Autowired private AvailabilityIndexService availabilityIndexService;
+    @Autowired private AvailabilityRefreshService availabilityRefreshService;
+
+    @Test
+    void appliesChangesFromOtherInstances() {
+        long suffix = TestData.next();
+        RoomType type = testData.roomType("150");
+        Room first = testData.room(type);
+        Room second = testData.room(type);
+        Guest guest = testData.guest();
+        LocalDate in = LocalDate.of(2046, 1, 1).plusDays(suffix * 20);
+        LocalDate out = in.plusDays(3);
+
+        AtomicInteger notifications = new AtomicInteger();
+        availabilityIndexService.addListener((typeId, fromDay, toDay) -> {
+            if (typeId == type.getIdTipo()) {
+                notifications.incrementAndGet();
+            }
+        });
+        availabilityRefreshService.refresh(); // Se pone al día con lo que dejaron otras pruebas
+
+        // Alta
+        int booked = insert("RES-RF-" + suffix + "A", guest, first, in, out, LocalDateTime.now());
+        availabilityRefreshService.refresh();
+        assertFalse(availabilityIndexService.isRoomFree(first.getIdRoom(), in, out, null));
+
+        // Confirmación tardía: su fecha de modificación es anterior a la última ya leída
+        int late = insert("RES-RF-" + suffix + "B", guest, second, in, out, LocalDateTime.now().minusSeconds(30));
+        availabilityRefreshService.refresh();
+        assertFalse(availabilityIndexService.isRoomFree(second.getIdRoom(), in, out, null));
+
+        // Releer el margen sin cambios no vuelve a avisar a los interesados
+        int before = notifications.get();
+        availabilityRefreshService.refresh();
+        assertEquals(before, notifications.get());
+
+        // Cambio de fechas de una reserva ya fuera del margen: lo detecta su updated_at (ON UPDATE)
+        jdbcTemplate.update("UPDATE reservations SET updated_at = ? WHERE reservation_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(1)), booked);
+        LocalDate movedIn = out.plusDays(10);
+        jdbcTemplate.update("UPDATE reservations SET entry_date = ?, departure_date = ? WHERE reservation_id = ?",
+                Date.valueOf(movedIn), Date.valueOf(movedIn.plusDays(2)), booked);
+        availabilityRefreshService.refresh();
+        assertTrue(availabilityIndexService.isRoomFree(first.getIdRoom(), in, out, null));
+        assertFalse(availabilityIndexService.isRoomFree(first.getIdRoom(), movedIn, movedIn.plusDays(2), null));
+
+        // Cancelación
+        jdbcTemplate.update("UPDATE reservations SET state = 'Cancelled' WHERE reservation_id = ?", late);
+        availabilityRefreshService.refresh();
+        assertTrue(availabilityIndexService.isRoomFree(second.getIdRoom(), in, out, null));
+
+        // Eliminación (con su marca, como ReservationService.deleteById)
+        jdbcTemplate.update("DELETE FROM reservations WHERE reservation_id = ?", booked);
+        jdbcTemplate.update("INSERT INTO reservation_deletions (reservation_id) VALUES (?)", booked);
+        availabilityRefreshService.refresh();
+        assertTrue(availabilityIndexService.isRoomFree(first.getIdRoom(), movedIn, movedIn.plusDays(2), null));
+    }
+
+    private int insert(String code, Guest guest, Room room, LocalDate in, LocalDate out, LocalDateTime updatedAt) {
+        jdbcTemplate.update("INSERT INTO reservations (reservation_code, entry_date, departure_date, number_nights, "
+                        + "price_per_night, room_subtotal, total_pay, state, guest_id, room_id, updated_at) "
+                        + "VALUES (?, ?, ?, 3, 150, 450, 450, 'Confirmed', ?, ?, ?)",
+                code, Date.valueOf(in), Date.valueOf(out), guest.getIdGuest(), room.getIdRoom(), Timestamp.valueOf(updatedAt));
+        return jdbcTemplate.queryForObject("SELECT reservation_id FROM reservations WHERE reservation_code = ?",
+                Integer.class, code);
+    }
+}
@@ -0,0 +1,47 @@
+package com.miyabi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * Migraciones sobre una BD que ya existía antes de Flyway (creada con el script original, igual a V1):
+ * se marca como versión 1 sin ejecutarla (baseline-on-migrate, como en miyabi.properties) y
+ * todas las migraciones posteriores deben aplicarse sobre ella.
+ */
+class BaselineMigrationTests {
+
+    @Test
+    void existingDatabaseReceivesEveryLaterMigration() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:baseline;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline_schema.sql")).execute(dataSource);
+
+        MigrateResult result = Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertTrue(result.success);
+        assertEquals("1.1", result.migrations.get(0).version);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        for (String table : List.of("reservation_code_blocks", "idempotency_keys", "id_sequences", "reservation_deletions")) {
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.tables WHERE table_name = ?", Integer.class, table), table);
+        }
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE table_name = 'idempotency_keys' "
+                        + "AND column_name = 'claimed_at'", Integer.class));
+    }
+}
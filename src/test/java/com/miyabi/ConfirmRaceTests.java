@@ -0,0 +1,99 @@
+package com.miyabi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.miyabi.models.Guest;
+import com.miyabi.models.Room;
+import com.miyabi.service.ReservationService;
+import com.miyabi.support.TestData;
+
+/**
+ * Confirmaciones simultáneas (/api/reservations/confirm) de la misma habitación y fechas contra
+ * la BD real: solo una reserva queda guardada; las perdedoras hacen rollback de su INSERT.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ConfirmRaceTests {
+
+    private static final int ATTEMPTS = 8;
+    private static final int ROUNDS = 10;
+
+    @Autowired private TestData testData;
+    @Autowired private ReservationService reservationService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void onlyOneOfTheRacingConfirmsIsPersisted() throws Exception {
+        Room room = testData.room(testData.roomType("150"));
+        List<Guest> guests = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            guests.add(testData.guest()); // Un huésped por intento: no compiten por la misma fila
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(ATTEMPTS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDate in = LocalDate.of(2047, 1, 1).plusDays(TestData.next() * 10);
+                AtomicInteger confirmed = new AtomicInteger();
+                CountDownLatch start = new CountDownLatch(1);
+                CountDownLatch done = new CountDownLatch(ATTEMPTS);
+                for (Guest guest : guests) {
+                    pool.execute(() -> {
+                        try {
+                            start.await();
+                            reservationService.createReservationFromMap(payload(room, guest, in, in.plusDays(2)));
+                            confirmed.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            // Conflicto esperado: otra confirmación ganó la habitación
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                }
+                start.countDown();
+                assertTrue(done.await(30, TimeUnit.SECONDS));
+
+                assertEquals(1, confirmed.get());
+                assertEquals(1, jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM reservations WHERE room_id = ? AND entry_date = ?",
+                        Integer.class, room.getIdRoom(), in), "Reservas guardadas para el " + in);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Map<String, Object> payload(Room room, Guest guest, LocalDate in, LocalDate out) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("entryDate", in.toString());
+        payload.put("departureDate", out.toString());
+        payload.put("pricePerNight", BigDecimal.valueOf(150));
+        payload.put("numAdults", 2);
+        payload.put("guest", Map.of("idGuest", guest.getIdGuest()));
+        payload.put("room", Map.of("idRoom", room.getIdRoom()));
+        return payload;
+    }
+}
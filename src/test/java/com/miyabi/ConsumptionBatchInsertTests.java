@@ -0,0 +1,96 @@
+package com.miyabi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.miyabi.models.Consumption;
+import com.miyabi.models.Reservation;
+import com.miyabi.models.ServiceCatalog;
+import com.miyabi.repository.ConsumptionRepository;
+import com.miyabi.repository.ServiceCatalogRepository;
+import com.miyabi.support.JdbcRoundTripCounter;
+import com.miyabi.support.TestData;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Benchmark de inserción masiva de consumos: con IDs reservados por bloques (id_sequences)
+ * Hibernate agrupa los INSERT en lotes JDBC. Con AUTO_INCREMENT serían 10.000 viajes a la BD
+ * (un INSERT por fila, para leer el ID generado); con lotes de 50 son unos 200 lotes más la
+ * reserva de los bloques de IDs.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import({ JdbcRoundTripCounter.class, TestData.class })
+class ConsumptionBatchInsertTests {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsumptionBatchInsertTests.class);
+
+    private static final int ROWS = 10_000;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @Autowired private TestData testData;
+    @Autowired private ServiceCatalogRepository serviceCatalogRepository;
+    @Autowired private ConsumptionRepository consumptionRepository;
+
+    @Test
+    void tenThousandConsumptionsAreInsertedInJdbcBatches() {
+        Reservation reservation = testData.reservation(LocalDate.of(2026, 6, 1), LocalDate.of(2026, 6, 3), "Confirmed");
+        ServiceCatalog service = service();
+
+        List<Consumption> consumptions = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Consumption consumption = new Consumption();
+            consumption.setReservation(reservation);
+            consumption.setService(service);
+            consumption.setAmount(1);
+            consumption.setUnitPrice(service.getPrice());
+            consumption.setSubtotal(service.getPrice());
+            consumptions.add(consumption);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long insertsBefore = statistics.getEntityInsertCount();
+        long roundTripsBefore = JdbcRoundTripCounter.executions();
+        long start = System.nanoTime();
+
+        transactionTemplate.executeWithoutResult(status -> consumptionRepository.saveAll(consumptions));
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        long inserted = statistics.getEntityInsertCount() - insertsBefore;
+        long roundTrips = JdbcRoundTripCounter.executions() - roundTripsBefore;
+        log.info("{} consumos insertados con {} viajes a la BD en {} ms", inserted, roundTrips, elapsedMs);
+
+        assertEquals(ROWS, inserted);
+        // Por cada 50 filas: un lote de INSERT + reserva del bloque de IDs (SELECT ... FOR UPDATE y UPDATE)
+        assertTrue(roundTrips <= 3L * ROWS / BATCH_SIZE + 10,
+                () -> "Se esperaban INSERT por lotes, pero hubo " + roundTrips + " viajes a la BD");
+        assertEquals(ROWS, consumptionRepository.findByReservation_ReservationId(reservation.getReservationId()).size());
+    }
+
+    private ServiceCatalog service() {
+        ServiceCatalog service = new ServiceCatalog();
+        service.setServiceName("Batch minibar " + TestData.next());
+        service.setPrice(new BigDecimal("12.50"));
+        return serviceCatalogRepository.save(service);
+    }
+}
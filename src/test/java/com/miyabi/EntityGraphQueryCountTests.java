@@ -0,0 +1,315 @@
+package com.miyabi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.miyabi.config.QueryCountFilter;
+import com.miyabi.models.AccessLog;
+import com.miyabi.models.Consumption;
+import com.miyabi.models.Guest;
+import com.miyabi.models.Payments;
+import com.miyabi.models.Reservation;
+import com.miyabi.models.Rol;
+import com.miyabi.models.Room;
+import com.miyabi.models.RoomImage;
+import com.miyabi.models.RoomType;
+import com.miyabi.models.ServiceCatalog;
+import com.miyabi.models.User;
+import com.miyabi.repository.AccessLogRepository;
+import com.miyabi.repository.ConsumptionRepository;
+import com.miyabi.repository.PaymentsRepository;
+import com.miyabi.repository.RolRepository;
+import com.miyabi.repository.RoomImageRepository;
+import com.miyabi.repository.ServiceCatalogRepository;
+import com.miyabi.repository.UserRepository;
+import com.miyabi.support.QueryBudget;
+import com.miyabi.support.TestData;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifica la cantidad exacta de sentencias SQL de cada endpoint con relaciones LAZY + @EntityGraph.
+ * Los datos de prueba tienen varias reservas, huéspedes, habitaciones y empleados distintos:
+ * si un endpoint vuelve a cargar relaciones fila por fila (N+1), el conteo sube y la prueba falla.
+ * El conteo sale de la cabecera X-SQL-Statements que agrega el QueryCountFilter.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EntityGraphQueryCountTests {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Autowired private TestData testData;
+    @Autowired private RolRepository rolRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RoomImageRepository roomImageRepository;
+    @Autowired private ServiceCatalogRepository serviceCatalogRepository;
+    @Autowired private ConsumptionRepository consumptionRepository;
+    @Autowired private PaymentsRepository paymentsRepository;
+    @Autowired private AccessLogRepository accessLogRepository;
+
+    private Integer guestId;
+    private Integer reservationId;
+    private Integer userId;
+
+    @BeforeAll
+    void seed() {
+        Rol admin = rol("Administrator");
+        Rol receptionist = rol("Receptionist");
+        List<User> users = List.of(user("ana@miyabi.jp", admin), user("kenji@miyabi.jp", receptionist),
+                                   user("yuki@miyabi.jp", receptionist));
+        userId = users.get(1).getIdUsuario();
+
+        List<RoomType> types = List.of(testData.roomType("350"), testData.roomType("180"), testData.roomType("120"));
+        for (RoomType type : types) {
+            image(type, "/img/" + type.getNameType() + "-1.jpg");
+            image(type, "/img/" + type.getNameType() + "-2.jpg");
+        }
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            rooms.add(testData.room(types.get(i % types.size())));
+        }
+
+        List<Guest> guests = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            guests.add(testData.guest());
+        }
+        guestId = guests.get(0).getIdGuest();
+
+        ServiceCatalog sake = service("Sake", "25");
+        ServiceCatalog spa = service("Onsen", "60");
+
+        LocalDate day = LocalDate.of(2026, 4, 1);
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            User checkin = users.get(i % users.size());
+            User checkout = users.get((i + 1) % users.size());
+            String state = i % 2 == 0 ? "Confirmed" : "Check-out";
+            Reservation reservation = testData.reservation(rooms.get(i % rooms.size()), guests.get(i % guests.size()),
+                    day.plusDays(i * 3L), day.plusDays(i * 3L + 2), r -> {
+                        r.setState(state);
+                        r.setUserCheckin(checkin);
+                        r.setUserCheckout(checkout);
+                    });
+            reservations.add(reservation);
+            payment(reservation, users.get(i % users.size()));
+            consumption(reservation, i % 2 == 0 ? sake : spa, users.get((i + 2) % users.size()));
+            consumption(reservation, spa, users.get(i % users.size()));
+        }
+        reservationId = reservations.get(0).getReservationId();
+
+        for (int i = 0; i < 4; i++) {
+            AccessLog log = new AccessLog();
+            log.setUser(users.get(i % users.size()));
+            log.setGuest(guests.get(i));
+            log.setIpAccess("10.0.0." + i);
+            accessLogRepository.save(log);
+        }
+    }
+
+    /**
+     * Los conteos miden la primera lectura (sin la caché de segundo nivel), que es la que
+     * tiene que resolver las relaciones con el @EntityGraph correcto.
+     */
+    @BeforeEach
+    void coldCaches() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    // ── Casos de uso con @EntityGraph ─────────────────────────────────────
+
+    @Test
+    void dashboardLoadsRecentReservationsWithGuestAndRoomInOneQuery() throws Exception {
+        // Métricas agregadas (una consulta) + últimas 5 reservas (con huésped y habitación)
+        assertEquals(2, statementsFor("/admin/dashboard"));
+    }
+
+    @Test
+    void receiptLoadsHeaderAndDetailWithTwoQueries() throws Exception {
+        // Reserva con huésped, habitación y categoría + detalle de consumos
+        assertEquals(2, statementsFor("/api/receipts/generate/" + reservationId));
+    }
+
+    @Test
+    void myReservationsUsesSingleProjectionQuery() throws Exception {
+        assertEquals(1, statementsFor("/api/reservations/guest/" + guestId));
+    }
+
+    @Test
+    void allReservationsUsesSingleProjectionQuery() throws Exception {
+        assertEquals(1, statementsFor("/api/reservations"));
+    }
+
+    @Test
+    void staffEditFormLoadsReservationWithOneQuery() throws Exception {
+        assertEquals(1, statementsFor("/users/reservations/edit/" + reservationId));
+    }
+
+    @Test
+    void staffReservationListUsesPageAndCounters() throws Exception {
+        // Página por cursor (con huésped, habitación y tipo) + contadores por estado
+        assertEquals(2, statementsFor("/users/reservations"));
+    }
+
+    @Test
+    void consumptionsOfReservationUseOneQuery() throws Exception {
+        assertEquals(1, statementsFor("/api/consumptions/reservation/" + reservationId));
+    }
+
+    @Test
+    void consumptionListUsesOneQuery() throws Exception {
+        assertEquals(1, statementsFor("/api/consumptions"));
+    }
+
+    @Test
+    void paymentListUsesOneQuery() throws Exception {
+        assertEquals(1, statementsFor("/api/payments"));
+    }
+
+    @Test
+    void accessLogListUsesOneQuery() throws Exception {
+        assertEquals(1, statementsFor("/api/access-logs"));
+    }
+
+    @Test
+    void userWithRoleUsesOneQuery() throws Exception {
+        assertEquals(1, statementsFor("/api/users/" + userId));
+    }
+
+    @Test
+    void adminRoomsUsesRoomsAndTypes() throws Exception {
+        // Habitaciones (con categoría) + categorías para el formulario
+        assertEquals(2, statementsFor("/admin/rooms"));
+    }
+
+    @Test
+    void publicRoomCatalogLoadsImagesInOneQuery() throws Exception {
+        assertEquals(1, statementsFor("/rooms"));
+    }
+
+    // ── Presupuestos por endpoint ──────────────────────────────────────────
+    // Máximo de sentencias que cada pantalla puede ejecutar; superar el valor rompe el build.
+
+    @ParameterizedTest
+    @CsvSource({
+        "/admin/dashboard,           3",
+        "/admin/rooms,               2",
+        "/admin/room-types,          1",
+        "/admin/users,               1",
+        "/rooms,                     1",
+        "/users/reservations,        2",
+        "/api/reservations,          1",
+        "/api/consumptions,          1",
+        "/api/payments,              1",
+        "/api/access-logs,           1"
+    })
+    void endpointStaysWithinQueryBudget(String url, int budget) throws Exception {
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(budget));
+    }
+
+    @Test
+    void statementsPerRequestArePublishedAsMetric() throws Exception {
+        mockMvc.perform(get("/admin/dashboard")).andExpect(status().isOk());
+
+        DistributionSummary summary = meterRegistry.find("miyabi.sql.statements")
+                .tag("uri", "/admin/dashboard").summary();
+        assertNotNull(summary);
+        assertTrue(summary.count() > 0);
+    }
+
+    // ── Utilidades ─────────────────────────────────────────────────────────
+
+    private int statementsFor(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url)).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            // Respuestas escritas por partes (Ej. la boleta PDF): el conteo se cierra en el segundo despacho
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertEquals(200, result.getResponse().getStatus());
+        String header = result.getResponse().getHeader(QueryCountFilter.HEADER);
+        return Integer.parseInt(header);
+    }
+
+    private Rol rol(String name) {
+        Rol rol = new Rol();
+        rol.setNameRol(name);
+        return rolRepository.save(rol);
+    }
+
+    private User user(String email, Rol rol) {
+        User user = new User();
+        user.setNames(email.substring(0, email.indexOf('@')));
+        user.setSurnames("Miyabi");
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setRol(rol);
+        return userRepository.save(user);
+    }
+
+    private void image(RoomType type, String url) {
+        RoomImage image = new RoomImage();
+        image.setImageUrl(url);
+        image.setRoomType(type);
+        roomImageRepository.save(image);
+    }
+
+    private ServiceCatalog service(String name, String price) {
+        ServiceCatalog service = new ServiceCatalog();
+        service.setServiceName(name);
+        service.setPrice(new BigDecimal(price));
+        return serviceCatalogRepository.save(service);
+    }
+
+    private void payment(Reservation reservation, User user) {
+        Payments payment = new Payments();
+        payment.setReservation(reservation);
+        payment.setTotalAmount(reservation.getTotalPay());
+        payment.setPaymentMethod("Card");
+        payment.setUserCharge(user);
+        paymentsRepository.save(payment);
+    }
+
+    private void consumption(Reservation reservation, ServiceCatalog service, User user) {
+        Consumption consumption = new Consumption();
+        consumption.setReservation(reservation);
+        consumption.setService(service);
+        consumption.setAmount(1);
+        consumption.setUnitPrice(service.getPrice());
+        consumption.setSubtotal(service.getPrice());
+        consumption.setUserRegistration(user);
+        consumptionRepository.save(consumption);
+    }
+}
@@ -0,0 +1,111 @@
+package com.miyabi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.miyabi.models.Guest;
+import com.miyabi.models.Room;
+import com.miyabi.models.RoomType;
+import com.miyabi.repository.ReservationRepository;
+import com.miyabi.service.AvailabilityIndexService;
+import com.miyabi.service.RoomService;
+import com.miyabi.support.TestData;
+
+/**
+ * Reservas grupales (/api/reservations/group): todas las habitaciones se reservan en una sola
+ * llamada, y si alguna no se puede reservar no queda ninguna (ni en la BD ni en el índice).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class GroupBookingTests {
+
+    private static final LocalDate ENTRY = LocalDate.of(2031, 2, 10);
+    private static final LocalDate DEPARTURE = LocalDate.of(2031, 2, 13);
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private TestData testData;
+    @Autowired private RoomService roomService;
+    @Autowired private ReservationRepository reservationRepository;
+    @Autowired private AvailabilityIndexService availabilityIndexService;
+
+    private RoomType type;
+    private final List<Room> rooms = new ArrayList<>();
+    private Guest guest;
+
+    @BeforeEach
+    void seed() {
+        type = testData.roomType("150.00");
+
+        // Por RoomService, que además registra la habitación en el inventario en memoria
+        rooms.clear();
+        for (int i = 0; i < 4; i++) {
+            Room room = new Room();
+            room.setRoomNumber("G" + TestData.next());
+            room.setFloor(5);
+            room.setRoomType(type);
+            rooms.add(roomService.save(room));
+        }
+
+        guest = testData.guest();
+    }
+
+    @Test
+    void booksEveryRoomOfTheGroupInOneCall() throws Exception {
+        mockMvc.perform(post("/api/reservations/group")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request("{\"roomId\":" + rooms.get(3).getIdRoom() + ",\"numAdults\":2},"
+                                + "{\"typeId\":" + type.getIdTipo() + ",\"quantity\":3}")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reservations.length()").value(4))
+                .andExpect(jsonPath("$.reservations[0].roomId").value(rooms.get(3).getIdRoom()))
+                .andExpect(jsonPath("$.reservations[*].reservationCode", Matchers.everyItem(Matchers.startsWith("RES-"))))
+                .andExpect(jsonPath("$.totalPay").value(4 * 3 * 150.0));
+
+        assertEquals(4, reservationRepository.findSummariesByGuest(guest.getIdGuest()).size());
+        for (Room room : rooms) {
+            assertFalse(availabilityIndexService.isRoomFree(room.getIdRoom(), ENTRY, DEPARTURE, null));
+        }
+    }
+
+    @Test
+    void rejectsTheWholeGroupWhenOneRoomIsMissing() throws Exception {
+        mockMvc.perform(post("/api/reservations/group")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request("{\"roomId\":" + rooms.get(0).getIdRoom() + "},"
+                                + "{\"typeId\":" + type.getIdTipo() + ",\"quantity\":4}")))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(Matchers.containsString(type.getNameType())));
+
+        assertEquals(0, reservationRepository.findSummariesByGuest(guest.getIdGuest()).size());
+        for (Room room : rooms) {
+            assertTrue(availabilityIndexService.isRoomFree(room.getIdRoom(), ENTRY, DEPARTURE, null));
+        }
+    }
+
+    private String request(String items) {
+        return "{\"guestId\":" + guest.getIdGuest() + ",\"entryDate\":\"" + ENTRY + "\",\"departureDate\":\""
+                + DEPARTURE + "\",\"observations\":\"Congreso\",\"items\":[" + items + "]}";
+    }
+}
@@ -0,0 +1,78 @@
+package com.miyabi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.miyabi.models.IdempotencyRecord;
+import com.miyabi.repository.IdempotencyRecordRepository;
+import com.miyabi.service.IdempotencyService;
+
+/**
+ * Claves de idempotencia reclamadas por una instancia que se cayó antes de guardar la respuesta:
+ * mientras el reclamo está vigente los reintentos reciben 409; cuando vence, el siguiente ejecuta.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyClaimTests {
+
+    @Autowired private IdempotencyService idempotencyService;
+    @Autowired private IdempotencyRecordRepository recordRepository;
+
+    @Test
+    void retryWaitsWhileTheClaimIsFresh() {
+        String key = orphanClaim(LocalDateTime.now().minusSeconds(10));
+        AtomicInteger executions = new AtomicInteger();
+
+        IdempotencyService.Result result = idempotencyService.execute(key, "hash-retry", () -> {
+            executions.incrementAndGet();
+            return new IdempotencyService.Result(200, "{\"code\":\"RES-1\"}", false);
+        });
+
+        assertEquals(409, result.status());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void retryTakesOverAnExpiredClaim() {
+        String key = orphanClaim(LocalDateTime.now().minusMinutes(10));
+        AtomicInteger executions = new AtomicInteger();
+
+        IdempotencyService.Result result = idempotencyService.execute(key, "hash-retry", () -> {
+            executions.incrementAndGet();
+            return new IdempotencyService.Result(200, "{\"code\":\"RES-2\"}", false);
+        });
+
+        assertEquals(200, result.status());
+        assertFalse(result.replayed());
+        assertEquals(1, executions.get());
+
+        // La respuesta queda guardada para los reintentos siguientes
+        IdempotencyRecord record = recordRepository.findById(key).orElseThrow();
+        assertEquals(200, record.getStatusCode());
+        assertEquals("hash-retry", record.getRequestHash());
+        IdempotencyService.Result replay = idempotencyService.execute(key, "hash-retry", () -> {
+            executions.incrementAndGet();
+            return new IdempotencyService.Result(200, "otra", false);
+        });
+        assertEquals("{\"code\":\"RES-2\"}", replay.body());
+        assertEquals(1, executions.get());
+    }
+
+    /**
+     * Fila que deja una instancia caída a mitad de la operación: reclamada y sin respuesta.
+     */
+    private String orphanClaim(LocalDateTime claimedAt) {
+        IdempotencyRecord record = new IdempotencyRecord(UUID.randomUUID().toString(), "hash-crashed");
+        record.setClaimedAt(claimedAt);
+        return recordRepository.save(record).getIdempotencyKey();
+    }
+}
@@ -0,0 +1,88 @@
+package com.miyabi;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Planes de ejecución (EXPLAIN) de las consultas frecuentes sobre el esquema creado por las
+ * migraciones de Flyway: ninguna debe recorrer una tabla completa.
+ *
+ * Cada SQL reproduce lo que Hibernate genera para un método de ReservationRepository,
+ * ConsumptionRepository o PaymentsRepository, con valores fijos en lugar de parámetros.
+ * Corre con la BD del perfil "test" (H2 en modo MySQL); apuntando el perfil a un MySQL real,
+ * se revisa la columna "type" del EXPLAIN de MySQL.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryPlanTests {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        // ReservationRepository.findSummariesByGuest ("Mis reservas")
+        "SELECT r.reservation_id, g.names, rm.room_number, rt.name_type FROM reservations r "
+            + "JOIN guests g ON g.guest_id = r.guest_id JOIN rooms rm ON rm.room_id = r.room_id "
+            + "JOIN room_type rt ON rt.type_id = rm.type_id WHERE r.guest_id = 1 ORDER BY r.reservation_id",
+        // ReservationRepository.findPage filtrado por estado (intranet, paginación por cursor)
+        "SELECT r.reservation_id FROM reservations r WHERE r.state = 'Confirmed' "
+            + "AND r.entry_date >= DATE '2026-01-01' AND r.entry_date <= DATE '2026-12-31' "
+            + "ORDER BY r.entry_date DESC, r.reservation_id DESC LIMIT 51",
+        // ReservationRepository.findPage, página siguiente sin filtro de estado
+        "SELECT r.reservation_id FROM reservations r WHERE r.entry_date <= DATE '2026-05-01' "
+            + "AND (r.entry_date < DATE '2026-05-01' OR r.reservation_id < 40) "
+            + "ORDER BY r.entry_date DESC, r.reservation_id DESC LIMIT 51",
+        // ReservationRepository.streamActiveStays (carga del índice de disponibilidad)
+        "SELECT r.reservation_id, r.room_id, r.entry_date, r.departure_date FROM reservations r "
+            + "WHERE r.state <> 'Cancelled' AND r.departure_date >= DATE '2026-10-17'",
+        // ReservationRepository.findIdsForReceiptExport (boletas del cierre de mes)
+        "SELECT r.reservation_id FROM reservations r WHERE r.departure_date >= DATE '2026-09-01' "
+            + "AND r.departure_date <= DATE '2026-09-30' AND r.state = 'Check-out' "
+            + "ORDER BY r.departure_date, r.reservation_id",
+        // ReservationRepository.findStaysChangedAfter (refresco incremental del índice)
+        "SELECT r.reservation_id FROM reservations r WHERE r.updated_at >= TIMESTAMP '2026-10-17 10:00:00' "
+            + "AND (r.updated_at > TIMESTAMP '2026-10-17 10:00:00' OR r.reservation_id > 100) "
+            + "ORDER BY r.updated_at, r.reservation_id LIMIT 500",
+        // ReservationDeletionRepository.findDeletedAfter (reservas eliminadas en otras instancias)
+        "SELECT d.reservation_id FROM reservation_deletions d WHERE d.deleted_at >= TIMESTAMP '2026-10-17 10:00:00' "
+            + "AND (d.deleted_at > TIMESTAMP '2026-10-17 10:00:00' OR d.reservation_id > 100) "
+            + "ORDER BY d.deleted_at, d.reservation_id LIMIT 500",
+        // Reservas de una habitación que se cruzan con un rango de fechas
+        "SELECT r.reservation_id FROM reservations r WHERE r.room_id = 3 "
+            + "AND r.entry_date < DATE '2026-05-10' AND r.departure_date > DATE '2026-05-05'",
+        // ReservationRepository.getReceiptMainData / findForEdit
+        "SELECT r.reservation_id, g.names, rt.name_type FROM reservations r "
+            + "JOIN guests g ON g.guest_id = r.guest_id JOIN rooms rm ON rm.room_id = r.room_id "
+            + "JOIN room_type rt ON rt.type_id = rm.type_id WHERE r.reservation_id = 7",
+        // ConsumptionRepository.findByReservation_ReservationId
+        "SELECT c.consumption_id, s.service_name FROM consumption c "
+            + "JOIN services_catalog s ON s.service_id = c.service_id WHERE c.reservation_id = 7",
+        // ConsumptionRepository.getReceiptDetails (detalle de la boleta)
+        "SELECT c.amount, s.service_name, c.unit_price, c.subtotal FROM consumption c "
+            + "INNER JOIN services_catalog s ON c.service_id = s.service_id WHERE c.reservation_id = 7",
+        // PaymentsRepository.findByReservation_ReservationId
+        "SELECT p.payment_id, p.total_amount FROM payments p WHERE p.reservation_id = 7"
+    })
+    void hotQueryUsesIndexes(String sql) {
+        String product = jdbcTemplate.execute((Connection c) -> c.getMetaData().getDatabaseProductName());
+        if ("MySQL".equals(product)) {
+            List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql);
+            for (Map<String, Object> row : plan) {
+                assertFalse("ALL".equals(row.get("type")), () -> "Recorrido completo de " + row.get("table") + ": " + plan);
+            }
+        } else {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+            assertFalse(plan.contains(".tableScan"), () -> "Recorrido completo de tabla:\n" + plan);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.miyabi;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.miyabi.config.QueryCountFilter;
+import com.miyabi.models.Reservation;
+import com.miyabi.models.ServiceCatalog;
+import com.miyabi.repository.ServiceCatalogRepository;
+import com.miyabi.service.ReceiptCache;
+import com.miyabi.support.TestData;
+
+/**
+ * Caché de boletas en disco: una boleta ya generada se vuelve a enviar sin llenarla ni exportarla,
+ * un consumo nuevo la invalida, y el tamaño total se mantiene bajo el máximo (LRU).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ReceiptCacheTests {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private TestData testData;
+    @Autowired private ServiceCatalogRepository serviceCatalogRepository;
+    @Autowired private ReceiptCache receiptCache;
+
+    @Value("${miyabi.receipts.cache-dir}")
+    private String cacheDir;
+
+    @Test
+    void repeatedDownloadsReuseTheFileUntilAConsumptionChangesTheFolio() throws Exception {
+        Integer id = checkedOut().getReservationId();
+        receiptCache.invalidate(id); // Boletas de otra ejecución con el mismo ID (la BD de pruebas se recrea)
+
+        byte[] first = download(id);
+        List<Path> files = cachedFiles(id);
+        assertEquals(1, files.size());
+        long written = Files.getLastModifiedTime(files.get(0)).toMillis();
+
+        assertArrayEquals(first, download(id));
+        assertEquals(files, cachedFiles(id));
+        assertEquals(written, Files.getLastModifiedTime(files.get(0)).toMillis());
+
+        ServiceCatalog service = new ServiceCatalog();
+        service.setServiceName("Onsen " + TestData.next());
+        service.setPrice(new BigDecimal("35.00"));
+        service = serviceCatalogRepository.save(service);
+        mockMvc.perform(post("/api/consumptions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"reservation\":{\"reservationId\":" + id + "},\"service\":{\"idService\":"
+                                + service.getIdService() + "},\"amount\":2,\"unitPrice\":35.00}"))
+                .andExpect(status().isOk());
+        assertEquals(0, cachedFiles(id).size());
+
+        download(id);
+        List<Path> updated = cachedFiles(id);
+        assertEquals(1, updated.size());
+        assertNotEquals(files.get(0).getFileName(), updated.get(0).getFileName());
+    }
+
+    @Test
+    void streamedReceiptIsNotHeldBackByTheQueryCounter() throws Exception {
+        Integer id = checkedOut().getReservationId();
+
+        MvcResult started = mockMvc.perform(get("/api/receipts/generate/" + id))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult(); // La boleta ya se escribió (desde otro hilo)
+
+        // El PDF llegó a la respuesta antes del despacho final: no quedó retenido en el filtro
+        MockHttpServletResponse response = started.getResponse();
+        assertEquals("%PDF", new String(response.getContentAsByteArray(), 0, 4, StandardCharsets.US_ASCII));
+        assertEquals(MediaType.APPLICATION_PDF_VALUE, response.getContentType());
+        assertNotNull(response.getHeader(QueryCountFilter.HEADER));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedReceiptsAboveTheSizeLimit(@TempDir Path dir) throws IOException {
+        ReceiptCache cache = new ReceiptCache(dir.toString(), 250);
+        cache.put(1, "a", new byte[100]);
+        cache.put(2, "b", new byte[100]);
+        assertNotNull(cache.get(1, "a")); // La 1 pasa a ser la más reciente
+
+        cache.put(3, "c", new byte[100]);
+        assertNull(cache.get(2, "b"));
+        assertNotNull(cache.get(1, "a"));
+        assertEquals(200, cache.totalBytes());
+        assertEquals(2, Files.list(dir).count());
+
+        // Tras un reinicio se siguen usando los archivos que ya estaban en disco
+        ReceiptCache restarted = new ReceiptCache(dir.toString(), 250);
+        assertNotNull(restarted.get(3, "c"));
+        restarted.invalidate(3);
+        assertNull(restarted.get(3, "c"));
+        assertEquals(100, restarted.totalBytes());
+    }
+
+    private byte[] download(Integer id) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/receipts/generate/" + id))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", MediaType.APPLICATION_PDF_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    private List<Path> cachedFiles(Integer reservationId) throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(cacheDir))) {
+            return files.filter(f -> f.getFileName().toString().startsWith(reservationId + "-")).sorted().toList();
+        }
+    }
+
+    private Reservation checkedOut() {
+        return testData.reservation(LocalDate.of(2030, 5, 1), LocalDate.of(2030, 5, 3), "Check-out");
+    }
+}
@@ -0,0 +1,134 @@
+package com.miyabi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.miyabi.models.Reservation;
+import com.miyabi.service.ReceiptExportService;
+import com.miyabi.service.ReportService;
+import com.miyabi.support.TestData;
+
+/**
+ * Exportación masiva de boletas: el ZIP trae una boleta por reserva del rango, en orden, y la
+ * generación en paralelo nunca tiene más boletas en curso que la ventana.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ReceiptExportTests {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private TestData testData;
+
+    @Test
+    void exportsOneReceiptPerReservationInTheRange() throws Exception {
+        LocalDate departure = LocalDate.of(2045, 1, 1).plusDays(TestData.next() * 10);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(checkedOut(departure.plusDays(i)).getReservationId());
+        }
+        checkedOut(departure.plusDays(5)); // Fuera del rango
+
+        MvcResult started = mockMvc.perform(get("/api/receipts/export")
+                        .param("from", departure.toString())
+                        .param("to", departure.plusDays(2).toString()))
+                .andReturn();
+        byte[] zip = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/zip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Map<String, byte[]> entries = unzip(zip);
+        assertEquals(ids.stream().map(id -> "Receipt_Reservation_" + id + ".pdf").toList(), List.copyOf(entries.keySet()));
+        for (byte[] pdf : entries.values()) {
+            assertEquals("%PDF", new String(pdf, 0, 4, StandardCharsets.US_ASCII));
+        }
+
+        mockMvc.perform(get("/api/receipts/export")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void keepsAtMostOneWindowOfReceiptsInFlight() throws Exception {
+        AtomicInteger prepared = new AtomicInteger();
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        ReportService reportService = mock(ReportService.class);
+        when(reportService.prepareReceipt(anyInt())).thenAnswer(invocation -> {
+            Integer id = invocation.getArgument(0);
+            if (id == 7) {
+                throw new RuntimeException("Reservation not found with ID: 7");
+            }
+            maxInFlight.accumulateAndGet(prepared.incrementAndGet() - written.get(), Math::max);
+            return new ReportService.Receipt(id, "huella", Map.of(), List.of());
+        });
+        doAnswer(invocation -> {
+            ReportService.Receipt receipt = invocation.getArgument(0);
+            invocation.getArgument(1, OutputStream.class)
+                    .write(("%PDF " + receipt.reservationId()).getBytes(StandardCharsets.US_ASCII));
+            written.incrementAndGet();
+            return null;
+        }).when(reportService).writeReceipt(any(), any());
+
+        ReceiptExportService exportService = new ReceiptExportService(null, reportService, 2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            exportService.writeZip(IntStream.rangeClosed(1, 30).boxed().toList(), out);
+        } finally {
+            exportService.shutdown();
+        }
+
+        Map<String, byte[]> entries = unzip(out.toByteArray());
+        assertEquals(30, entries.size()); // 29 boletas + errores.txt
+        assertTrue(new String(entries.get("errores.txt"), StandardCharsets.UTF_8).startsWith("Reserva 7:"));
+        assertTrue(maxInFlight.get() <= 4, () -> "Boletas en curso: " + maxInFlight.get());
+    }
+
+    private static Map<String, byte[]> unzip(byte[] zip) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                entries.put(entry.getName(), in.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    private Reservation checkedOut(LocalDate departure) {
+        return testData.reservation(departure.minusDays(1), departure, "Check-out");
+    }
+}
@@ -0,0 +1,48 @@
+package com.miyabi;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * Buscador de habitaciones por fechas: las fechas inválidas se rechazan con 400, no con un 500.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RoomSearchTests {
+
+    @Autowired private MockMvc mockMvc;
+
+    @Test
+    void acceptsAValidStay() throws Exception {
+        LocalDate in = LocalDate.now().plusDays(7);
+        search(in.toString(), in.plusDays(3).toString()).andExpect(status().isOk());
+    }
+
+    @Test
+    void rejectsInvalidDates() throws Exception {
+        LocalDate in = LocalDate.now().plusDays(7);
+        search("2026-13-45", in.toString()).andExpect(status().isBadRequest());              // Mal escrita
+        search(in.toString(), in.toString()).andExpect(status().isBadRequest());             // Salida = ingreso
+        search(in.toString(), in.minusDays(1).toString()).andExpect(status().isBadRequest()); // Salida antes del ingreso
+        search(LocalDate.now().minusDays(1).toString(), in.toString()).andExpect(status().isBadRequest()); // Ingreso pasado
+        search(in.toString(), in.plusDays(31).toString()).andExpect(status().isBadRequest()); // Más de 30 noches
+    }
+
+    private ResultActions search(String checkIn, String checkOut) throws Exception {
+        return mockMvc.perform(get("/api/room-types/search")
+                .param("checkIn", checkIn)
+                .param("checkOut", checkOut)
+                .param("adults", "2"));
+    }
+}
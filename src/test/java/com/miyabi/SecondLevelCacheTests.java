@@ -0,0 +1,145 @@
+package com.miyabi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+
+import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.miyabi.config.QueryCountFilter;
+import com.miyabi.models.Room;
+import com.miyabi.models.RoomImage;
+import com.miyabi.models.RoomType;
+import com.miyabi.models.ServiceCatalog;
+import com.miyabi.repository.RoomImageRepository;
+import com.miyabi.repository.ServiceCatalogRepository;
+import com.miyabi.support.TestData;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Caché de segundo nivel de las entidades de referencia: la segunda lectura no va a la BD
+ * y los cambios hechos por los endpoints del administrador se ven de inmediato.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestData.class)
+class SecondLevelCacheTests {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Autowired private TestData testData;
+    @Autowired private RoomImageRepository roomImageRepository;
+    @Autowired private ServiceCatalogRepository serviceCatalogRepository;
+
+    private RoomType type;
+    private Room room;
+    private ServiceCatalog service;
+
+    @BeforeEach
+    void seed() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        long suffix = TestData.next();
+
+        type = testData.roomType("240");
+        image("/img/ryokan-" + suffix + ".jpg");
+        room = testData.room(type);
+
+        service = new ServiceCatalog();
+        service.setServiceName("Kaiseki " + suffix);
+        service.setPrice(new BigDecimal("90.00"));
+        service = serviceCatalogRepository.save(service);
+    }
+
+    @Test
+    void secondReadOfReferenceDataSkipsTheDatabase() throws Exception {
+        for (String url : new String[] { "/api/rooms/" + room.getIdRoom(), "/api/rooms", "/api/room-types",
+                                         "/api/services-catalog/available", "/rooms" }) {
+            statementsFor(url); // Primera lectura: llena la caché
+            assertEquals(0, statementsFor(url), url);
+        }
+    }
+
+    @Test
+    void adminSaveIsVisibleOnTheNextRead() throws Exception {
+        statementsFor("/api/services-catalog/available");
+
+        service.setPrice(new BigDecimal("120.00"));
+        mockMvc.perform(post("/api/services-catalog")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"idService\":" + service.getIdService() + ",\"serviceName\":\""
+                                + service.getServiceName() + "\",\"price\":120.00,\"available\":1}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/services-catalog/available"))
+                .andExpect(jsonPath("$[?(@.idService == " + service.getIdService() + ")].price")
+                        .value(Matchers.contains(120.0)));
+    }
+
+    @Test
+    void adminDeleteRemovesTypeFromCachedList() throws Exception {
+        RoomType spare = testData.roomType("99");
+        statementsFor("/api/room-types");
+
+        mockMvc.perform(delete("/api/room-types/" + spare.getIdTipo()))
+                .andExpect(status().is2xxSuccessful());
+
+        mockMvc.perform(get("/api/room-types"))
+                .andExpect(jsonPath("$[*].nameType", Matchers.not(Matchers.hasItem(spare.getNameType()))));
+    }
+
+    @Test
+    void newImageInvalidatesCachedGallery() throws Exception {
+        statementsFor("/rooms");
+
+        String url = "/img/ryokan-new-" + TestData.next() + ".jpg";
+        image(url);
+
+        mockMvc.perform(get("/rooms")).andExpect(content().string(Matchers.containsString(url)));
+    }
+
+    @Test
+    void hitRatioIsPublished() throws Exception {
+        statementsFor("/api/rooms/" + room.getIdRoom());
+        statementsFor("/api/rooms/" + room.getIdRoom());
+
+        double ratio = meterRegistry.get("miyabi.cache.hit.ratio")
+                .tag("region", RoomType.class.getName()).gauge().value();
+        assertTrue(ratio > 0, "ratio = " + ratio);
+    }
+
+    private void image(String url) {
+        RoomImage image = new RoomImage();
+        image.setImageUrl(url);
+        image.setRoomType(type);
+        roomImageRepository.save(image);
+    }
+
+    private int statementsFor(String url) throws Exception {
+        String header = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(QueryCountFilter.HEADER);
+        return Integer.parseInt(header);
+    }
+}
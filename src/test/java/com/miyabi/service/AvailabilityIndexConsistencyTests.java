@@ -0,0 +1,114 @@
+package com.miyabi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.miyabi.dto.ReservationStayDTO;
+import com.miyabi.models.Reservation;
+import com.miyabi.models.Room;
+import com.miyabi.models.RoomType;
+
+/**
+ * Índice de disponibilidad frente a la actualización incremental y a la carga inicial:
+ * una lectura de la BD anterior a un cambio local no lo deshace, y nadie consulta el índice vacío.
+ */
+class AvailabilityIndexConsistencyTests {
+
+    private static final int ROOM = 5;
+    private static final LocalDate DAY = LocalDate.now().plusDays(10);
+
+    private final AvailabilityIndexService index = new AvailabilityIndexService();
+
+    @AfterEach
+    void clearTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void refreshDoesNotRevertALocalChange() {
+        ReservationStayDTO before = row(DAY, DAY.plusDays(2));
+        index.warmUp(List.of(before));
+        index.markLoaded();
+
+        // La reserva se mueve de fechas dentro de una transacción que todavía no confirma
+        TransactionSynchronizationManager.initSynchronization();
+        index.reserve(reservation(DAY.plusDays(5), DAY.plusDays(7)));
+
+        // Una lectura de la BD trae la versión confirmada (la anterior): no se aplica
+        long generation = index.beginRefresh();
+        index.apply(before, generation);
+        assertMoved();
+
+        // Tampoco después del commit, si la lectura había empezado antes
+        commit();
+        index.apply(before, generation);
+        assertMoved();
+
+        // Una lectura que empieza después del commit ya trae la versión nueva
+        long next = index.beginRefresh();
+        index.apply(row(DAY.plusDays(5), DAY.plusDays(7)), next);
+        assertMoved();
+    }
+
+    @Test
+    void queriesWaitForTheInitialLoad() throws Exception {
+        index.warmUp(List.of(row(DAY, DAY.plusDays(2))));
+
+        CompletableFuture<Boolean> free = CompletableFuture.supplyAsync(
+                () -> index.isRoomFree(ROOM, DAY, DAY.plusDays(1), null));
+        Thread.sleep(200);
+        assertFalse(free.isDone()); // Con el índice a medio cargar no responde "libre"
+
+        index.markLoaded();
+        assertFalse(free.get(5, TimeUnit.SECONDS));
+    }
+
+    // ── Utilidades ─────────────────────────────────────────────────────────
+
+    private void assertMoved() {
+        assertTrue(index.isRoomFree(ROOM, DAY, DAY.plusDays(2), null));
+        assertFalse(index.isRoomFree(ROOM, DAY.plusDays(5), DAY.plusDays(7), null));
+        assertEquals(List.of(DAY.plusDays(5), DAY.plusDays(6)), index.findFullyBookedDates(1, 1));
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            synchronization.afterCommit();
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+    }
+
+    private static ReservationStayDTO row(LocalDate in, LocalDate out) {
+        return new ReservationStayDTO(1, ROOM, 1, in, out, "Confirmed", null);
+    }
+
+    private static Reservation reservation(LocalDate in, LocalDate out) {
+        RoomType type = new RoomType();
+        type.setIdTipo(1);
+        Room room = new Room();
+        room.setIdRoom(ROOM);
+        room.setRoomType(type);
+        Reservation reservation = new Reservation();
+        reservation.setReservationId(1);
+        reservation.setRoom(room);
+        reservation.setEntryDate(in);
+        reservation.setDepartureDate(out);
+        reservation.setState("Confirmed");
+        return reservation;
+    }
+}
@@ -0,0 +1,75 @@
+package com.miyabi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.miyabi.dto.ReservationStayDTO;
+
+/**
+ * Barrido de fechas llenas (findFullyBookedDates) en los bordes: el día de salida de una estadía
+ * ya no está ocupado, y una noche cuenta como llena cuando la ocupación alcanza la capacidad justa.
+ */
+class AvailabilityIndexServiceTests {
+
+    private static final int TYPE = 1;
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private final AvailabilityIndexService index = new AvailabilityIndexService();
+
+    @Test
+    void stayEndingOnTheDayAnotherStartsFreesThatNight() {
+        index.warmUp(List.of(
+                stay(1, 101, 1, 3),
+                stay(2, 102, 3, 5)));
+        index.markLoaded();
+
+        // Nunca hay dos habitaciones ocupadas la misma noche: el día 3 una sale y la otra entra
+        assertEquals(List.of(), index.findFullyBookedDates(TYPE, 2));
+        assertEquals(days(1, 2, 3, 4), index.findFullyBookedDates(TYPE, 1));
+    }
+
+    @Test
+    void nightIsFullWhenOccupancyReachesCapacityExactly() {
+        index.warmUp(List.of(
+                stay(1, 101, 2, 4),
+                stay(2, 102, 2, 4),
+                stay(3, 103, 3, 6)));
+        index.markLoaded();
+
+        assertEquals(days(3), index.findFullyBookedDates(TYPE, 3));
+        assertEquals(days(2, 3), index.findFullyBookedDates(TYPE, 2));
+        assertEquals(List.of(), index.findFullyBookedDates(TYPE, 4));
+    }
+
+    @Test
+    void onlyNightsFromTodayAreReported() {
+        index.warmUp(List.of(
+                stay(1, 101, -3, 0),  // Salió hoy: ya no ocupa
+                stay(2, 102, -2, 2),  // En curso: cuenta desde hoy
+                stay(3, 201, 0, 1, 2))); // Otro tipo
+        index.markLoaded();
+
+        assertEquals(days(0, 1), index.findFullyBookedDates(TYPE, 1));
+        assertEquals(days(0), index.findFullyBookedDates(null, 2));
+    }
+
+    // ── Utilidades ─────────────────────────────────────────────────────────
+
+    private static ReservationStayDTO stay(int reservationId, int roomId, int fromDay, int toDay) {
+        return stay(reservationId, roomId, fromDay, toDay, TYPE);
+    }
+
+    private static ReservationStayDTO stay(int reservationId, int roomId, int fromDay, int toDay, int typeId) {
+        return new ReservationStayDTO(reservationId, roomId, typeId, TODAY.plusDays(fromDay), TODAY.plusDays(toDay),
+                "Confirmed", null);
+    }
+
+    private static List<LocalDate> days(int... offsets) {
+        return Arrays.stream(offsets).mapToObj(TODAY::plusDays).toList();
+    }
+}
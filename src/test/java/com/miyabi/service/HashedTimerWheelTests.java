@@ -0,0 +1,117 @@
+package com.miyabi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.miyabi.service.HashedTimerWheel.Timeout;
+
+/**
+ * Rueda de temporizadores con ticks de 20 ms y 8 casilleros (una vuelta = 160 ms).
+ * Una tarea nunca vence antes de su plazo, y tampoco una vuelta después: el margen tolerado
+ * (un tick más 100 ms para el planificador del sistema) es menor que una vuelta.
+ */
+class HashedTimerWheelTests {
+
+    private static final long TICK_MS = 20;
+    private static final int SLOTS = 8;
+    private static final long ROUND_MS = TICK_MS * SLOTS;
+    private static final long LATE_MS = TICK_MS + 100;
+
+    private final HashedTimerWheel wheel = new HashedTimerWheel(TICK_MS, TimeUnit.MILLISECONDS, SLOTS, "test-wheel");
+
+    @AfterEach
+    void stop() {
+        wheel.stop();
+    }
+
+    @Test
+    void expiresOnTheTickOfItsDeadline() throws Exception {
+        long delay = 3 * TICK_MS;
+        Fired fired = schedule(delay);
+
+        assertTrue(fired.await());
+        assertOnTime(delay, fired.elapsedMillis());
+        assertTrue(fired.timeout.isExpired());
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void deadlinesLongerThanOneRoundWaitTheirRounds() throws Exception {
+        // Ambas caen en el mismo casillero; la larga debe dejar pasar dos vueltas
+        long longDelay = 2 * ROUND_MS + 4 * TICK_MS;
+        long shortDelay = 4 * TICK_MS;
+        Fired late = schedule(longDelay);
+        Fired soon = schedule(shortDelay);
+
+        assertTrue(soon.await());
+        assertOnTime(shortDelay, soon.elapsedMillis());
+        assertFalse(late.timeout.isExpired());
+        assertEquals(1, wheel.pending());
+
+        assertTrue(late.await());
+        assertOnTime(longDelay, late.elapsedMillis());
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void cancelledTaskNeverRuns() throws Exception {
+        AtomicBoolean ran = new AtomicBoolean();
+        Timeout cancelled = wheel.schedule(() -> ran.set(true), 2 * TICK_MS, TimeUnit.MILLISECONDS);
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel()); // Una sola vez
+        assertEquals(0, wheel.pending());
+
+        // Otra tarea con un plazo posterior: cuando vence, la cancelada ya tendría que haber corrido
+        Fired after = schedule(5 * TICK_MS);
+        assertTrue(after.await());
+        assertFalse(ran.get());
+        assertFalse(cancelled.isExpired());
+        assertFalse(after.timeout.cancel()); // Ya vencida: no se puede cancelar
+    }
+
+    // ── Utilidades ─────────────────────────────────────────────────────────
+
+    private Fired schedule(long delayMillis) {
+        Fired fired = new Fired();
+        fired.timeout = wheel.schedule(fired::run, delayMillis, TimeUnit.MILLISECONDS);
+        return fired;
+    }
+
+    private static void assertOnTime(long delay, long elapsed) {
+        assertTrue(elapsed >= delay, "Venció antes de tiempo: " + elapsed + " ms < " + delay + " ms");
+        assertTrue(elapsed < delay + LATE_MS, "Venció tarde: " + elapsed + " ms para un plazo de " + delay + " ms");
+    }
+
+    /**
+     * Tarea que anota cuándo venció, medido desde que se programó.
+     */
+    private static final class Fired {
+
+        private final long scheduledAt = System.nanoTime();
+        private final AtomicLong firedAt = new AtomicLong();
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private Timeout timeout;
+
+        void run() {
+            firedAt.set(System.nanoTime());
+            latch.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return latch.await(5, TimeUnit.SECONDS);
+        }
+
+        long elapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(firedAt.get() - scheduledAt);
+        }
+    }
+}
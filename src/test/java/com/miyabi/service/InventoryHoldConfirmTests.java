@@ -0,0 +1,133 @@
+package com.miyabi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.miyabi.models.Guest;
+import com.miyabi.models.Reservation;
+import com.miyabi.models.Room;
+import com.miyabi.models.RoomType;
+import com.miyabi.repository.ReservationDeletionRepository;
+import com.miyabi.repository.ReservationRepository;
+import com.miyabi.service.RoomInventoryService.RoomTypeStock;
+
+/**
+ * Confirmación con retención del carrito (holdId): la retención solo reemplaza a la validación de
+ * cruces si sigue vigente y es de la misma habitación y fechas; las fechas se validan siempre.
+ */
+class InventoryHoldConfirmTests {
+
+    private static final LocalDate IN = LocalDate.now().plusDays(30);
+    private static final LocalDate OUT = IN.plusDays(3);
+
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+    private final AvailabilityIndexService index = new AvailabilityIndexService();
+    private InventoryHoldService holds;
+    private ReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        index.markLoaded();
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
+            Reservation reservation = invocation.getArgument(0);
+            reservation.setReservationId(1);
+            return reservation;
+        });
+
+        GuestService guestService = mock(GuestService.class);
+        when(guestService.findById(anyInt())).thenReturn(new Guest());
+
+        RoomType type = new RoomType();
+        type.setIdTipo(1);
+        Map<Integer, Room> rooms = new HashMap<>();
+        for (int id = 1; id <= 2; id++) {
+            Room room = new Room();
+            room.setIdRoom(id);
+            room.setRoomType(type);
+            rooms.put(id, room);
+        }
+        RoomService roomService = mock(RoomService.class);
+        when(roomService.findById(anyInt())).thenAnswer(invocation -> rooms.get(invocation.<Integer>getArgument(0)));
+        RoomInventoryService inventory = mock(RoomInventoryService.class);
+        when(inventory.findByRoom(anyInt())).thenReturn(new RoomTypeStock(type, new int[] { 1, 2 }));
+
+        holds = new InventoryHoldService(index, inventory, 600);
+        reservationService = new ReservationService(reservationRepository, roomService, guestService, index, holds,
+                mock(ReservationCodeAllocator.class), mock(ReceiptCache.class), mock(ReservationDeletionRepository.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        holds.shutdown();
+    }
+
+    @Test
+    void matchingHoldBecomesTheReservation() {
+        String holdId = holds.place(1, IN, OUT).getHoldId();
+
+        reservationService.createReservationFromMap(payload(1, IN, OUT, holdId));
+
+        assertEquals(0, holds.activeHolds());
+        assertFalse(index.isRoomFree(1, IN, OUT, null));
+    }
+
+    @Test
+    void unknownHoldIsRejected() {
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> reservationService.createReservationFromMap(payload(1, IN, OUT, "no-existe")));
+
+        assertEquals(InventoryHoldService.INVALID_HOLD, error.getMessage());
+        verify(reservationRepository, never()).save(any());
+    }
+
+    @Test
+    void holdForAnotherRoomOrDatesIsRejected() {
+        String holdId = holds.place(1, IN, OUT).getHoldId();
+
+        assertThrows(RuntimeException.class,
+                () -> reservationService.createReservationFromMap(payload(2, IN, OUT, holdId)));
+        assertThrows(RuntimeException.class,
+                () -> reservationService.createReservationFromMap(payload(1, IN, OUT.plusDays(1), holdId)));
+        verify(reservationRepository, never()).save(any());
+        assertEquals(1, holds.activeHolds()); // La retención sigue siendo del huésped
+    }
+
+    @Test
+    void datesAreValidatedEvenWithAHold() {
+        String holdId = holds.place(1, IN, OUT).getHoldId();
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> reservationService.createReservationFromMap(payload(1, OUT, IN, holdId)));
+
+        assertEquals("La fecha de salida debe ser posterior a la fecha de ingreso.", error.getMessage());
+        verify(reservationRepository, never()).save(any());
+    }
+
+    private static Map<String, Object> payload(int roomId, LocalDate in, LocalDate out, String holdId) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("entryDate", in.toString());
+        payload.put("departureDate", out.toString());
+        payload.put("pricePerNight", BigDecimal.valueOf(150));
+        payload.put("numAdults", 2);
+        payload.put("guest", Map.of("idGuest", 1));
+        payload.put("room", Map.of("idRoom", roomId));
+        payload.put("holdId", holdId);
+        return payload;
+    }
+}
@@ -0,0 +1,144 @@
+package com.miyabi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.miyabi.controller.ReportController;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cola de boletas: un solo hilo de generación y una cola de 1 lugar, con un ReportService simulado
+ * que no termina hasta que la prueba lo libera.
+ */
+class ReceiptRenderQueueTests {
+
+    private static final byte[] PDF = "%PDF-1.4 boleta".getBytes(StandardCharsets.US_ASCII);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @TempDir private Path cacheDir;
+    private ReportService reportService;
+    private ReceiptRenderQueue queue;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        reportService = mock(ReportService.class);
+        when(reportService.receiptFile(anyInt())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return Files.write(cacheDir.resolve(invocation.getArgument(0) + "-huella.pdf"), PDF);
+        });
+        queue = new ReceiptRenderQueue(reportService, meterRegistry, 1, 1, 600000);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ReportController(reportService, queue, mock(ReceiptExportService.class))).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        queue.shutdown();
+    }
+
+    @Test
+    void rejectsWithRetryAfterWhenTheQueueIsFull() throws Exception {
+        ReceiptRenderQueue.Job rendering = queue.submit(1);
+        awaitStatus(rendering, ReceiptRenderQueue.Status.RENDERING);
+        assertNotNull(queue.submit(2)); // Ocupa el único lugar de la cola
+
+        mockMvc.perform(post("/api/receipts/3/jobs"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        assertNull(queue.submit(4));
+
+        assertEquals(1, meterRegistry.get("miyabi.receipts.queue.depth").gauge().value());
+        assertEquals(2, meterRegistry.get("miyabi.receipts.rejected").counter().count());
+    }
+
+    @Test
+    void queuedRequestsForTheSameReceiptShareOneTicket() {
+        awaitStatus(queue.submit(1), ReceiptRenderQueue.Status.RENDERING);
+
+        ReceiptRenderQueue.Job first = queue.submit(2);
+        assertSame(first, queue.submit(2));
+    }
+
+    @Test
+    void ticketIsPolledAndDownloadedWhenReady() throws Exception {
+        String ticket = queue.submit(7).getTicket();
+
+        mockMvc.perform(get("/api/receipts/jobs/" + ticket + "/pdf"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Retry-After", "1"));
+
+        release.countDown();
+        awaitStatus(queue.find(ticket), ReceiptRenderQueue.Status.READY);
+
+        mockMvc.perform(get("/api/receipts/jobs/" + ticket).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("READY"))
+                .andExpect(jsonPath("$.downloadUrl").value("/api/receipts/jobs/" + ticket + "/pdf"));
+        MvcResult download = mockMvc.perform(get("/api/receipts/jobs/" + ticket + "/pdf"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(download))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/pdf"))
+                .andExpect(content().bytes(PDF));
+        verify(reportService, never()).prepareReceipt(anyInt()); // Se envía el archivo de la cola, sin volver a leer nada
+
+        assertEquals(1, meterRegistry.get("miyabi.receipts.render").tag("outcome", "success").timer().count());
+        mockMvc.perform(get("/api/receipts/jobs/unknown")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void downloadIsGoneWhenTheCachedFileWasDiscarded() throws Exception {
+        release.countDown();
+        ReceiptRenderQueue.Job job = queue.submit(8);
+        awaitStatus(job, ReceiptRenderQueue.Status.READY);
+        Files.delete(job.getFile()); // LRU de la caché o ReceiptCache.invalidate()
+
+        mockMvc.perform(get("/api/receipts/jobs/" + job.getTicket() + "/pdf"))
+                .andExpect(status().isGone());
+        verify(reportService, never()).prepareReceipt(anyInt());
+        verify(reportService, never()).writeReceipt(any(), any());
+    }
+
+    private static void awaitStatus(ReceiptRenderQueue.Job job, ReceiptRenderQueue.Status expected) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (job.getStatus() != expected) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("El trabajo quedó en " + job.getStatus() + ", se esperaba " + expected);
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
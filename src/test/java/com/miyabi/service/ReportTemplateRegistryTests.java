@@ -0,0 +1,55 @@
+package com.miyabi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sf.jasperreports.engine.JasperReport;
+
+/**
+ * Registro de plantillas: los .jasper compilados por Maven se cargan una sola vez y, con una
+ * carpeta vigilada, un .jrxml modificado reemplaza a su plantilla sin reiniciar.
+ */
+class ReportTemplateRegistryTests {
+
+    private static final Path RECEIPT_JRXML = Paths.get("src/main/jasperreports/boleta_hotel.jrxml");
+
+    @Test
+    void loadsPrecompiledTemplatesAndCachesImages() throws Exception {
+        ReportTemplateRegistry registry = new ReportTemplateRegistry("");
+
+        JasperReport receipt = registry.get("boleta_hotel");
+        assertSame(receipt, registry.get("boleta_hotel"));
+        assertNotNull(registry.image("/logo.png"));
+        assertSame(registry.image("/logo.png"), registry.image("/logo.png"));
+        assertThrows(RuntimeException.class, () -> registry.get("no_existe"));
+    }
+
+    @Test
+    void recompilesChangedTemplatesFromTheWatchedDirectory(@TempDir Path dir) throws Exception {
+        Path jrxml = dir.resolve("boleta_hotel.jrxml");
+        Files.copy(RECEIPT_JRXML, jrxml);
+        ReportTemplateRegistry registry = new ReportTemplateRegistry(dir.toString());
+        try {
+            String xml = Files.readString(jrxml);
+            Files.writeString(jrxml, xml.replace("name=\"boleta_hotel\"", "name=\"boleta_hotel_v2\""));
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (!"boleta_hotel_v2".equals(registry.get("boleta_hotel").getName())
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals("boleta_hotel_v2", registry.get("boleta_hotel").getName());
+        } finally {
+            registry.shutdown();
+        }
+    }
+}
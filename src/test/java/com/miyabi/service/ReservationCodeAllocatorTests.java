@@ -0,0 +1,111 @@
+package com.miyabi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.miyabi.models.ReservationCodeBlock;
+import com.miyabi.repository.ReservationCodeBlockRepository;
+
+/**
+ * Códigos de reserva con el pool de conexiones al límite: tantos hilos como conexiones, cada uno
+ * dentro de su "transacción" (con su conexión tomada) al pedir el código. Reservar un bloque
+ * necesita otra conexión, que solo aparece entre una reserva y la siguiente.
+ */
+class ReservationCodeAllocatorTests {
+
+    private static final int POOL_SIZE = 4;
+    private static final int BLOCK_SIZE = 20;
+
+    // Conexiones del pool simulado (en orden de llegada, como Hikari)
+    private final Semaphore connections = new Semaphore(POOL_SIZE, true);
+    private final ReservationCodeBlock block = new ReservationCodeBlock(Year.now().getValue(), 1L);
+
+    @Test
+    void drainsBlocksWhileEveryConnectionIsInUse() throws Exception {
+        ReservationCodeAllocator allocator = new ReservationCodeAllocator(repository(), transactionManager(), BLOCK_SIZE);
+        allocator.claimFirstBlock(); // Como al iniciar la aplicación
+        ExecutorService bookings = Executors.newFixedThreadPool(POOL_SIZE);
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < POOL_SIZE; t++) {
+                results.add(bookings.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        // Transacción de la reserva: la conexión se retiene mientras se pide el código
+                        if (!connections.tryAcquire(2, TimeUnit.SECONDS)) {
+                            throw new IllegalStateException("Pool agotado: nadie liberó su conexión");
+                        }
+                        try {
+                            codes.add(allocator.nextCode());
+                            Thread.sleep(1); // Resto de la reserva (INSERT, etc.)
+                        } finally {
+                            connections.release();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(20, TimeUnit.SECONDS);
+            }
+        } finally {
+            bookings.shutdownNow();
+            allocator.shutdown();
+        }
+
+        assertEquals(POOL_SIZE * 50, codes.size()); // Sin duplicados
+        assertTrue(block.getNextValue() > POOL_SIZE * 50, "Se reservaron " + block.getNextValue() + " números");
+    }
+
+    private ReservationCodeBlockRepository repository() {
+        ReservationCodeBlockRepository repository = mock(ReservationCodeBlockRepository.class);
+        when(repository.findForUpdate(anyInt())).thenReturn(Optional.of(block));
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        return repository;
+    }
+
+    /**
+     * Cada transacción nueva (REQUIRES_NEW) toma una conexión del pool simulado, con el mismo
+     * límite de espera que Hikari (acortado).
+     */
+    private PlatformTransactionManager transactionManager() throws Exception {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            if (!connections.tryAcquire(2, TimeUnit.SECONDS)) {
+                throw new CannotCreateTransactionException("Connection is not available, request timed out");
+            }
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(invocation -> {
+            connections.release();
+            return null;
+        }).when(transactionManager).commit(any());
+        doAnswer(invocation -> {
+            connections.release();
+            return null;
+        }).when(transactionManager).rollback(any());
+        return transactionManager;
+    }
+}
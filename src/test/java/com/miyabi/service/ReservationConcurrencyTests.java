@@ -0,0 +1,256 @@
+package com.miyabi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.miyabi.models.Guest;
+import com.miyabi.models.IdempotencyRecord;
+import com.miyabi.models.Reservation;
+import com.miyabi.models.Room;
+import com.miyabi.models.RoomType;
+import com.miyabi.repository.IdempotencyRecordRepository;
+import com.miyabi.repository.ReservationDeletionRepository;
+import com.miyabi.repository.ReservationRepository;
+
+/**
+ * Pruebas de concurrencia del flujo de confirmación (/api/reservations/confirm).
+ * Se disparan miles de confirmaciones en paralelo contra el ReservationService real
+ * (con los repositorios simulados) y se verifica que ninguna habitación quede reservada dos veces.
+ */
+class ReservationConcurrencyTests {
+
+    private static final int ROOMS = 16;
+    private static final LocalDate FIRST_NIGHT = LocalDate.of(2026, 3, 1);
+
+    private ReservationService reservationService;
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    @BeforeEach
+    void setUp() {
+        ReservationRepository reservationRepository = mock(ReservationRepository.class);
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
+            Reservation reservation = invocation.getArgument(0);
+            reservation.setReservationId(nextId.getAndIncrement());
+            return reservation;
+        });
+
+        GuestService guestService = mock(GuestService.class);
+        when(guestService.findById(anyInt())).thenAnswer(invocation -> {
+            Guest guest = new Guest();
+            guest.setIdGuest(invocation.getArgument(0));
+            return guest;
+        });
+        when(guestService.save(any(Guest.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Map<Integer, Room> rooms = new HashMap<>();
+        for (int id = 1; id <= ROOMS; id++) {
+            RoomType type = new RoomType();
+            type.setIdTipo(id % 3 + 1);
+            Room room = new Room();
+            room.setIdRoom(id);
+            room.setRoomType(type);
+            rooms.put(id, room);
+        }
+        RoomService roomService = mock(RoomService.class);
+        when(roomService.findById(anyInt())).thenAnswer(invocation -> rooms.get(invocation.<Integer>getArgument(0)));
+
+        AvailabilityIndexService index = new AvailabilityIndexService();
+        index.markLoaded(); // Sin reservas previas que cargar
+        InventoryHoldService holds = new InventoryHoldService(index, mock(RoomInventoryService.class), 600);
+        ReservationCodeAllocator codes = mock(ReservationCodeAllocator.class);
+        when(codes.nextCode()).thenAnswer(invocation -> "RES-2026-" + nextId.get());
+        reservationService = new ReservationService(reservationRepository, roomService, guestService, index, holds, codes,
+                mock(ReceiptCache.class), mock(ReservationDeletionRepository.class));
+    }
+
+    @Test
+    void identicalParallelConfirmsBookEachSlotExactlyOnce() throws Exception {
+        int slotsPerRoom = 40;
+        int duplicates = 8; // 16 habitaciones x 40 estadías x 8 intentos = 5120 confirmaciones
+        List<Map<String, Object>> payloads = new ArrayList<>();
+        for (int room = 1; room <= ROOMS; room++) {
+            for (int slot = 0; slot < slotsPerRoom; slot++) {
+                LocalDate in = FIRST_NIGHT.plusDays(slot * 3L);
+                for (int i = 0; i < duplicates; i++) {
+                    payloads.add(payload(room, in, in.plusDays(3)));
+                }
+            }
+        }
+        Collections.shuffle(payloads, new Random(42));
+
+        Queue<Reservation> booked = confirmAll(payloads, Runtime.getRuntime().availableProcessors() * 4);
+
+        assertEquals(ROOMS * slotsPerRoom, booked.size());
+        assertNoDoubleBooking(booked);
+    }
+
+    @Test
+    void overlappingParallelConfirmsNeverDoubleBook() throws Exception {
+        Random random = new Random(7);
+        List<Map<String, Object>> payloads = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            LocalDate in = FIRST_NIGHT.plusDays(random.nextInt(120));
+            payloads.add(payload(random.nextInt(ROOMS) + 1, in, in.plusDays(random.nextInt(6) + 1)));
+        }
+
+        Queue<Reservation> booked = confirmAll(payloads, Runtime.getRuntime().availableProcessors() * 4);
+
+        assertFalse(booked.isEmpty());
+        assertNoDoubleBooking(booked);
+    }
+
+    @Test
+    void bookingsForDifferentRoomsRunInParallel() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        assumeTrue(cores >= 2, "Se necesitan al menos 2 núcleos para medir paralelismo");
+        int threads = Math.min(cores, ROOMS);
+        throughput(threads); // Calentamiento (JIT): la primera medición no debe pagarlo
+        long single = throughput(1);
+        long parallel = throughput(threads);
+
+        // Habitaciones distintas no comparten candado: con varios hilos debe rendir claramente más
+        assertTrue(parallel > single * 1.5, () -> "Confirmaciones por segundo: 1 hilo = " + single
+                + ", " + threads + " hilos = " + parallel);
+    }
+
+    @Test
+    void retriesWithSameIdempotencyKeyBookOnce() throws Exception {
+        IdempotencyRecordRepository records = mock(IdempotencyRecordRepository.class);
+        when(records.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        IdempotencyService idempotency = new IdempotencyService(records, 1000, 24, 300000);
+
+        // Un mismo checkout reintentado 200 veces en paralelo (ej. app móvil tras varios timeouts)
+        Map<String, Object> payload = payload(1, FIRST_NIGHT, FIRST_NIGHT.plusDays(2));
+        AtomicInteger executions = new AtomicInteger();
+        Queue<IdempotencyService.Result> results = new ConcurrentLinkedQueue<>();
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(200);
+        for (int i = 0; i < 200; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    results.add(idempotency.execute("checkout-1", "hash-1", () -> {
+                        executions.incrementAndGet();
+                        Reservation reservation = reservationService.createReservationFromMap(payload);
+                        return new IdempotencyService.Result(200, reservation.getReservationCode(), false);
+                    }));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        assertEquals(1, executions.get());
+        assertEquals(200, results.size());
+        String code = results.peek().body();
+        for (IdempotencyService.Result result : results) {
+            assertEquals(200, result.status());
+            assertEquals(code, result.body());
+        }
+        assertEquals(199, results.stream().filter(IdempotencyService.Result::replayed).count());
+    }
+
+    // ── Utilidades ─────────────────────────────────────────────────────────
+
+    /**
+     * Mide confirmaciones por segundo con habitaciones y fechas que nunca chocan entre sí.
+     */
+    private long throughput(int threads) throws Exception {
+        setUp();
+        int perThread = 2000;
+        List<Map<String, Object>> payloads = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < perThread; i++) {
+                LocalDate in = FIRST_NIGHT.plusDays((long) i * 2 + (long) t * perThread * 2);
+                payloads.add(payload(t % ROOMS + 1, in, in.plusDays(1)));
+            }
+        }
+        long start = System.nanoTime();
+        Queue<Reservation> booked = confirmAll(payloads, threads);
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(payloads.size(), booked.size());
+        return payloads.size() * TimeUnit.SECONDS.toNanos(1) / Math.max(elapsed, 1);
+    }
+
+    private Queue<Reservation> confirmAll(List<Map<String, Object>> payloads, int threads) throws Exception {
+        Queue<Reservation> booked = new ConcurrentLinkedQueue<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(payloads.size());
+        for (Map<String, Object> payload : payloads) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    booked.add(reservationService.createReservationFromMap(payload));
+                } catch (RuntimeException e) {
+                    // Conflicto esperado: otra confirmación ganó la habitación
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        pool.shutdown();
+        return booked;
+    }
+
+    private static void assertNoDoubleBooking(Queue<Reservation> booked) {
+        Map<Integer, List<Reservation>> byRoom = new HashMap<>();
+        for (Reservation reservation : booked) {
+            byRoom.computeIfAbsent(reservation.getRoom().getIdRoom(), k -> new ArrayList<>()).add(reservation);
+        }
+        for (List<Reservation> stays : byRoom.values()) {
+            stays.sort((a, b) -> a.getEntryDate().compareTo(b.getEntryDate()));
+            for (int i = 1; i < stays.size(); i++) {
+                assertFalse(stays.get(i).getEntryDate().isBefore(stays.get(i - 1).getDepartureDate()),
+                        "Reserva duplicada en la habitación " + stays.get(i).getRoom().getIdRoom());
+            }
+        }
+    }
+
+    private static Map<String, Object> payload(int roomId, LocalDate in, LocalDate out) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("entryDate", in.toString());
+        payload.put("departureDate", out.toString());
+        payload.put("pricePerNight", BigDecimal.valueOf(150));
+        payload.put("numAdults", 2);
+        payload.put("guest", Map.of("idGuest", 1));
+        payload.put("room", Map.of("idRoom", roomId));
+        return payload;
+    }
+}
@@ -0,0 +1,58 @@
+package com.miyabi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.miyabi.models.Room;
+import com.miyabi.models.RoomType;
+import com.miyabi.repository.RoomRepository;
+
+/**
+ * Foto del inventario: un invalidate() que llega mientras se lee la BD no se pierde.
+ */
+class RoomInventoryServiceTests {
+
+    @Test
+    void invalidationDuringALoadIsNotLost() throws Exception {
+        RoomType type = new RoomType();
+        type.setIdTipo(1);
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+
+        RoomRepository roomRepository = mock(RoomRepository.class);
+        when(roomRepository.findAll())
+                .thenAnswer(invocation -> {
+                    // Primera lectura: ve una sola habitación y tarda hasta que llega el invalidate()
+                    List<Room> rooms = List.of(room(1, type));
+                    reading.countDown();
+                    assertTrue(invalidated.await(5, TimeUnit.SECONDS));
+                    return rooms;
+                })
+                .thenReturn(List.of(room(1, type), room(2, type)));
+        RoomInventoryService inventory = new RoomInventoryService(roomRepository, new int[] { 12 });
+
+        CompletableFuture<Integer> load = CompletableFuture.supplyAsync(() -> inventory.findByType(1).capacity());
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        inventory.invalidate(); // El administrador agregó la habitación 2
+        invalidated.countDown();
+
+        assertEquals(1, load.get(5, TimeUnit.SECONDS)); // La consulta en curso usa lo que leyó
+        assertEquals(2, inventory.findByType(1).capacity()); // Pero esa foto no quedó publicada
+    }
+
+    private static Room room(int id, RoomType type) {
+        Room room = new Room();
+        room.setIdRoom(id);
+        room.setRoomType(type);
+        return room;
+    }
+}
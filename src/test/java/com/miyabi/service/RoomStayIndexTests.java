@@ -0,0 +1,35 @@
+package com.miyabi.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Índice de estadías por habitación: un rango vacío no debe desplazar a la estadía real
+ * que empieza el mismo día.
+ */
+class RoomStayIndexTests {
+
+    private static final int ROOM = 7;
+
+    private final RoomStayIndex index = new RoomStayIndex();
+
+    @Test
+    void emptyRangeDoesNotReplaceARealStay() {
+        index.add(ROOM, 1, 10, 13);
+        index.add(ROOM, 2, 10, 10); // Salida igual al ingreso
+        index.add(ROOM, 3, 10, 8);  // Salida antes del ingreso
+
+        assertFalse(index.isFree(ROOM, 10, 13, null));
+        assertFalse(index.isFree(ROOM, 12, 14, null));
+
+        // Quitar las reservas vacías no quita la real
+        index.remove(ROOM, 2, 10);
+        index.remove(ROOM, 3, 10);
+        assertFalse(index.isFree(ROOM, 10, 13, null));
+
+        index.remove(ROOM, 1, 10);
+        assertTrue(index.isFree(ROOM, 10, 13, null));
+    }
+}
@@ -0,0 +1,64 @@
+package com.miyabi.support;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Envuelve el DataSource de la prueba y cuenta las ejecuciones JDBC (execute, executeQuery,
+ * executeUpdate, executeBatch...). Cada una es un viaje a la BD: un lote completo cuenta como uno.
+ * Se registra en la prueba con @Import(JdbcRoundTripCounter.class).
+ */
+public class JdbcRoundTripCounter implements BeanPostProcessor {
+
+    private static final AtomicLong EXECUTIONS = new AtomicLong();
+
+    public static long executions() {
+        return EXECUTIONS.get();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource dataSource ? wrap(DataSource.class, dataSource) : bean;
+    }
+
+    /**
+     * Proxy que delega todo en "target" y sigue envolviendo las conexiones y sentencias que devuelve.
+     */
+    private static <T> T wrap(Class<T> type, T target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (target instanceof Statement && method.getName().startsWith("execute")) {
+                EXECUTIONS.incrementAndGet();
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Connection connection && method.getReturnType() == Connection.class) {
+                return wrap(Connection.class, connection);
+            }
+            if (result instanceof CallableStatement statement && method.getReturnType() == CallableStatement.class) {
+                return wrap(CallableStatement.class, statement);
+            }
+            if (result instanceof PreparedStatement statement && method.getReturnType() == PreparedStatement.class) {
+                return wrap(PreparedStatement.class, statement);
+            }
+            if (result instanceof Statement statement && method.getReturnType() == Statement.class) {
+                return wrap(Statement.class, statement);
+            }
+            return result;
+        };
+        return type.cast(Proxy.newProxyInstance(JdbcRoundTripCounter.class.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+}
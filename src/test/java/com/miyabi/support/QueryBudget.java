@@ -0,0 +1,33 @@
+package com.miyabi.support;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.miyabi.config.QueryCountFilter;
+
+/**
+ * Presupuesto de consultas SQL de un endpoint para las pruebas con MockMvc.
+ * Lee la cabecera X-SQL-Statements (perfil "test") y falla si la petición la supera:
+ *
+ *   mockMvc.perform(get("/admin/dashboard")).andExpect(QueryBudget.atMost(3));
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {
+    }
+
+    /**
+     * La petición no debe ejecutar más de "max" sentencias SQL.
+     */
+    public static ResultMatcher atMost(int max) {
+        return result -> {
+            String header = result.getResponse().getHeader(QueryCountFilter.HEADER);
+            assertNotNull(header, "Falta la cabecera " + QueryCountFilter.HEADER + " (¿miyabi.query-count.enabled?)");
+            int statements = Integer.parseInt(header);
+            assertTrue(statements <= max, result.getRequest().getRequestURI() + " ejecutó " + statements
+                    + " sentencias SQL; el presupuesto es " + max);
+        };
+    }
+}
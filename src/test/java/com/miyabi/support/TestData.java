@@ -0,0 +1,128 @@
+package com.miyabi.support;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.miyabi.models.Guest;
+import com.miyabi.models.Reservation;
+import com.miyabi.models.Room;
+import com.miyabi.models.RoomType;
+import com.miyabi.repository.GuestRepository;
+import com.miyabi.repository.ReservationRepository;
+import com.miyabi.repository.RoomRepository;
+import com.miyabi.repository.RoomTypeRepository;
+
+/**
+ * Datos de prueba: tipo de habitación → habitación → huésped → reserva, ya guardados.
+ * Se registra en la prueba con @Import(TestData.class) y se inyecta con @Autowired:
+ *
+ *   Reservation reservation = testData.reservation(entry, departure, "Check-out");
+ *
+ * Los campos únicos (nombre del tipo, número de habitación, DNI, email, código de reserva) salen
+ * de una secuencia compartida por todas las pruebas de la ejecución: la BD H2 en memoria es la
+ * misma para todos los contextos de Spring, así que dos pruebas nunca generan el mismo valor.
+ */
+public class TestData {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final RoomTypeRepository roomTypeRepository;
+    private final RoomRepository roomRepository;
+    private final GuestRepository guestRepository;
+    private final ReservationRepository reservationRepository;
+
+    public TestData(RoomTypeRepository roomTypeRepository, RoomRepository roomRepository,
+                    GuestRepository guestRepository, ReservationRepository reservationRepository) {
+        this.roomTypeRepository = roomTypeRepository;
+        this.roomRepository = roomRepository;
+        this.guestRepository = guestRepository;
+        this.reservationRepository = reservationRepository;
+    }
+
+    /**
+     * Siguiente valor de la secuencia compartida (para nombres y códigos únicos propios de una prueba).
+     */
+    public static long next() {
+        return SEQUENCE.incrementAndGet();
+    }
+
+    /**
+     * Tipo de habitación con la tarifa base indicada y capacidad para 2 personas.
+     */
+    public RoomType roomType(String basePrice) {
+        RoomType type = new RoomType();
+        type.setNameType("Washitsu " + next());
+        type.setBasePrice(new BigDecimal(basePrice));
+        type.setCapacityPeople(2);
+        return roomTypeRepository.save(type);
+    }
+
+    /**
+     * Habitación del tipo indicado.
+     */
+    public Room room(RoomType type) {
+        Room room = new Room();
+        room.setRoomNumber("T" + next());
+        room.setFloor(1);
+        room.setRoomType(type);
+        return roomRepository.save(room);
+    }
+
+    /**
+     * Huésped con DNI y email únicos.
+     */
+    public Guest guest() {
+        long id = next();
+        Guest guest = new Guest();
+        guest.setNames("Aiko");
+        guest.setSurnames("Mori " + id);
+        guest.setDni("T" + id);
+        guest.setEmail("guest" + id + "@mail.com");
+        guest.setPassword("secret");
+        guest.setCountry("Peru");
+        guest.setCity("Lima");
+        return guestRepository.save(guest);
+    }
+
+    /**
+     * Reserva en una habitación nueva (de un tipo nuevo, a 150 la noche) para un huésped nuevo.
+     */
+    public Reservation reservation(LocalDate entry, LocalDate departure, String state) {
+        return reservation(room(roomType("150")), guest(), entry, departure, state);
+    }
+
+    /**
+     * Reserva de la habitación y el huésped indicados, a la tarifa base del tipo.
+     */
+    public Reservation reservation(Room room, Guest guest, LocalDate entry, LocalDate departure, String state) {
+        return reservation(room, guest, entry, departure, reservation -> reservation.setState(state));
+    }
+
+    /**
+     * Igual que la anterior, con datos adicionales (Ej. recepcionistas del check-in y check-out)
+     * asignados por "details" antes de guardar. Por defecto el estado es "Confirmed".
+     */
+    public Reservation reservation(Room room, Guest guest, LocalDate entry, LocalDate departure,
+                                   Consumer<Reservation> details) {
+        int nights = (int) ChronoUnit.DAYS.between(entry, departure);
+        BigDecimal price = room.getRoomType().getBasePrice();
+        BigDecimal subtotal = price.multiply(BigDecimal.valueOf(nights));
+
+        Reservation reservation = new Reservation();
+        reservation.setReservationCode("RES-T-" + next());
+        reservation.setGuest(guest);
+        reservation.setRoom(room);
+        reservation.setEntryDate(entry);
+        reservation.setDepartureDate(departure);
+        reservation.setNumberNights(nights);
+        reservation.setPricePerNight(price);
+        reservation.setRoomSubtotal(subtotal);
+        reservation.setTotalPay(subtotal);
+        reservation.setState("Confirmed");
+        details.accept(reservation);
+        return reservationRepository.save(reservation);
+    }
+}